@@ -20,6 +20,41 @@ public class Config {
      * Set to false for production builds.
      */
     public static final boolean DEBUG_MODE = false; // Set to true for development testing
+
+    /**
+     * Agent channel frame format.
+     * If true, screenshots are sent as binary frames (small JSON header + raw JPEG bytes)
+     * and relayed to the model service without Base64 transcoding.
+     * If false, the legacy JSON text protocol with a Base64 screenshot is used.
+     * Requires a model service that understands binary frames.
+     */
+    public static final boolean AGENT_BINARY_FRAMES = false;
+
+    /**
+     * Obstacle channel frame format.
+     * If true, each camera frame is prefixed with a compact binary header
+     * (sequence, capture timestamp, size, rotation, optional IMU pitch/yaw) and the server
+     * echoes seq / capture_ts in warnings so end-to-end latency can be measured.
+     * If false, bare image bytes are sent (legacy format, still accepted by the server).
+     */
+    public static final boolean OBSTACLE_FRAME_HEADER = true;
+
+    /**
+     * Obstacle frame rate bounds (frames per second).
+     * The server sends {"type":"rate","fps":x} to adapt the capture rate to its load and
+     * to the observed uplink; the app follows it but never leaves these bounds.
+     */
+    public static final double OBSTACLE_MIN_FPS = 0.5;
+    public static final double OBSTACLE_MAX_FPS = 10;
+
+    /**
+     * Obstacle warning format.
+     * If true, the app asks the server (?codes=1) for 8-byte binary warning codes
+     * (class, side, distance bucket, urgency) and plays speech clips pre-synthesized at startup
+     * instead of synthesizing each warning sentence with TTS.
+     * If false, warnings arrive as JSON with a full sentence that is spoken via TTS.
+     */
+    public static final boolean OBSTACLE_WARNING_CODES = true;
     
     // ==================== 讯飞语音识别配置 ====================
     // 在讯飞开放平台注册获取: https://www.xfyun.cn/
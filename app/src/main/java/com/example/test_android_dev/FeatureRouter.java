@@ -7,11 +7,14 @@ import android.util.Log;
 
 import androidx.annotation.NonNull;
 
+import com.example.test_android_dev.manager.WarningClipManager;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.io.IOException;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
@@ -20,6 +23,7 @@ import okhttp3.Callback;
 import okhttp3.Response;
 import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
+import okio.ByteString;
 
 /**
  * 根据功能类型调度对应的业务流程
@@ -31,6 +35,8 @@ public class FeatureRouter {
     private NetworkClient networkClient;
     private ImageCaptureManager imageManager;
     private ScheduledExecutorService obstacleExecutor;
+    // 避障帧发送间隔，由服务端 rate 消息调整
+    private volatile long obstacleIntervalMs = 1000;
     private String currentSessionId = "";
 
     private FeatureRouter() {}
@@ -103,8 +109,21 @@ public class FeatureRouter {
 
             @Override
             public void onResponse(@NonNull Call call, @NonNull Response response) throws IOException {
-                // 实际应解析路线步骤并分步播报
-                voiceManager.speak("找到路线，开始导航。第一步：向前直行。导航时将自动开启避障。");
+                boolean streamed = false;
+                if (response.isSuccessful() && response.body() != null) {
+                    try {
+                        streamed = new JSONObject(response.body().string()).optBoolean("streamed");
+                    } catch (JSONException e) {
+                        Log.e(TAG, "Failed to parse route response", e);
+                    }
+                }
+                if (streamed) {
+                    // 路线步骤由服务端与避障提示统一排序后从避障通道下发
+                    voiceManager.speak("找到路线，开始导航。导航时将自动开启避障。");
+                } else {
+                    // 实际应解析路线步骤并分步播报
+                    voiceManager.speak("找到路线，开始导航。第一步：向前直行。导航时将自动开启避障。");
+                }
                 startObstacleAvoidance(true); // 导航时自动开启后台避障
             }
         });
@@ -116,8 +135,19 @@ public class FeatureRouter {
         networkClient.openObstacleWebSocket(new WebSocketListener() {
             @Override
             public void onMessage(@NonNull WebSocket webSocket, @NonNull String text) {
-                // 实际应解析JSON并根据障碍物类型播报
-                voiceManager.speakImmediate("注意，前方有障碍物。");
+                if (handleRateMessage(text)) {
+                    return;
+                }
+                logWarningLatency(text);
+                speakGuidance(text);
+            }
+
+            @Override
+            public void onMessage(@NonNull WebSocket webSocket, @NonNull ByteString bytes) {
+                ObstacleWarningCode code = ObstacleWarningCode.parse(bytes.toByteArray());
+                if (code != null) {
+                    playWarning(code);
+                }
             }
 
             @Override
@@ -131,13 +161,101 @@ public class FeatureRouter {
         });
 
         if (obstacleExecutor != null && !obstacleExecutor.isShutdown()) obstacleExecutor.shutdown();
+        obstacleIntervalMs = 1000;
         obstacleExecutor = Executors.newSingleThreadScheduledExecutor();
-        obstacleExecutor.scheduleAtFixedRate(() -> {
-            byte[] frame = imageManager.captureCurrentFrame();
-            if (frame != null) {
-                networkClient.sendFrameViaWS(frame);
+        scheduleObstacleFrame(obstacleExecutor, 0);
+    }
+
+    /**
+     * 每次发送后按当前间隔重新调度，使服务端调整的帧率在下一帧即生效
+     */
+    private void scheduleObstacleFrame(ScheduledExecutorService executor, long delayMs) {
+        if (executor.isShutdown()) {
+            return;
+        }
+        try {
+            executor.schedule(() -> {
+                byte[] frame = imageManager.captureCurrentFrame();
+                if (frame != null) {
+                    networkClient.sendFrameViaWS(frame);
+                }
+                scheduleObstacleFrame(executor, obstacleIntervalMs);
+            }, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 已切换功能，执行器关闭
+        }
+    }
+
+    /**
+     * 服务端下发的帧率控制消息：{"type":"rate","fps":x,...}，按配置上下限调整发送间隔
+     *
+     * @return 是否为帧率控制消息
+     */
+    private boolean handleRateMessage(String text) {
+        try {
+            JSONObject message = new JSONObject(text);
+            if (!"rate".equals(message.optString("type"))) {
+                return false;
             }
-        }, 0, 1, TimeUnit.SECONDS);
+            double fps = Math.max(Config.OBSTACLE_MIN_FPS,
+                    Math.min(Config.OBSTACLE_MAX_FPS, message.optDouble("fps", 1)));
+            obstacleIntervalMs = Math.round(1000 / fps);
+            Log.d(TAG, "避障帧率调整为 " + fps + "fps");
+            return true;
+        } catch (JSONException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 播报服务端仲裁后的消息：{"priority":...,"interrupt":bool,"message":"..."}；
+     * interrupt 为 true 的安全提示立即插播，其余排队播报；欢迎语等非 JSON 消息忽略
+     */
+    private void speakGuidance(String text) {
+        try {
+            JSONObject guidance = new JSONObject(text);
+            String message = guidance.optString("message");
+            if (message.isEmpty()) {
+                return;
+            }
+            if (guidance.optBoolean("interrupt", true)) {
+                voiceManager.speakImmediate(message);
+            } else {
+                voiceManager.speak(message);
+            }
+        } catch (JSONException e) {
+            // 欢迎语等非 JSON 消息
+        }
+    }
+
+    /**
+     * 紧凑避障提示：打断当前播报后播放预先合成的片段，片段尚未就绪时改用 TTS 播报同样的内容
+     */
+    private void playWarning(ObstacleWarningCode code) {
+        long captureTimestamp = networkClient.captureTimeOf(code.getSeq());
+        if (captureTimestamp > 0) {
+            Log.d(TAG, "避障提示延迟: seq=" + code.getSeq() + ", "
+                    + (System.currentTimeMillis() - captureTimestamp) + "ms");
+        }
+        voiceManager.stop();
+        if (!WarningClipManager.getInstance().play(code)) {
+            voiceManager.speakImmediate(code.speech());
+        }
+    }
+
+    /**
+     * 提示中回显了帧的采集时间戳时，记录采集到提示的端到端延迟
+     */
+    private void logWarningLatency(String text) {
+        try {
+            JSONObject warning = new JSONObject(text);
+            if (warning.has("capture_ts")) {
+                long latencyMs = System.currentTimeMillis() - warning.getLong("capture_ts");
+                Log.d(TAG, "避障提示延迟: seq=" + warning.optLong("seq") + ", " + latencyMs + "ms");
+            }
+        } catch (JSONException e) {
+            // 欢迎语等非 JSON 消息
+        }
     }
 
     private void startQAFlow() {
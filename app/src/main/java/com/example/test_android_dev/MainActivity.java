@@ -30,6 +30,7 @@ import androidx.core.content.ContextCompat;
 import com.example.test_android_dev.manager.AgentManager;
 import com.example.test_android_dev.manager.SoundManager;
 import com.example.test_android_dev.manager.TaskStateManager;
+import com.example.test_android_dev.manager.WarningClipManager;
 import com.example.test_android_dev.model.TaskState;
 import com.example.test_android_dev.service.AutoGLMService;
 import com.example.test_android_dev.asr.AsrManager;
@@ -490,6 +491,10 @@ public class MainActivity extends AppCompatActivity {
         
         // 初始化提示音管理器
         SoundManager.getInstance().init(getApplicationContext());
+        if (Config.OBSTACLE_WARNING_CODES) {
+            // 预先合成避障提示语音片段（依赖已初始化的 VoiceManager）
+            WarningClipManager.getInstance().init(getApplicationContext());
+        }
         
         // 初始化AgentManager（后台保活功能）
         AgentManager.getInstance().init(getApplicationContext());
@@ -534,6 +539,7 @@ public class MainActivity extends AppCompatActivity {
         AgentManager.getInstance().stopTask();
         ImageCaptureManager.getInstance().release();
         SoundManager.getInstance().release();
+        WarningClipManager.getInstance().release();
         VoiceManager.getInstance().destroy();
     }
 }
@@ -1,6 +1,10 @@
 package com.example.test_android_dev;
 
 import android.content.Context;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
 import okhttp3.Callback;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
@@ -18,7 +22,18 @@ public class NetworkClient {
     private OkHttpClient client;
     private static final String BASE_URL = "http://your-backend-api.com";
     private static final String WS_URL = "ws://your-backend-api.com/ws/obstacle";
+    // 避障帧头部，需与服务端 ObstacleFrameHeader 保持一致
+    static final byte OBSTACLE_FRAME_VERSION = 1;
+    static final int OBSTACLE_HEADER_LENGTH = 24;
+    static final int OBSTACLE_HEADER_LENGTH_IMU = 32;
     private WebSocket webSocket;
+    private int obstacleFrameSeq;
+    // 最近发送的避障帧的采集时间，按 seq 低位索引，用于计算紧凑提示（只回显 seq 低 16 位）的端到端延迟
+    private static final int CAPTURE_HISTORY = 64;
+    private final int[] recentSeqs = new int[CAPTURE_HISTORY];
+    private final long[] recentCaptureTimes = new long[CAPTURE_HISTORY];
+    // 本次运行的播报仲裁用户标识：导航请求与避障通道使用同一个，服务端据此把两者的播报合并为一路
+    private final String guidanceId = UUID.randomUUID().toString();
 
     private NetworkClient() {
         client = new OkHttpClient();
@@ -46,8 +61,8 @@ public class NetworkClient {
     }
 
     public void requestNavigation(double startLat, double startLng, double endLat, double endLng, String description, Callback callback) {
-        String json = String.format("{\"startLat\":%f, \"startLng\":%f, \"endLat\":%f, \"endLng\":%f, \"description\":\"%s\"}",
-                startLat, startLng, endLat, endLng, description);
+        String json = String.format("{\"startLat\":%f, \"startLng\":%f, \"endLat\":%f, \"endLng\":%f, \"description\":\"%s\", \"userId\":\"%s\"}",
+                startLat, startLng, endLat, endLng, description, guidanceId);
         RequestBody body = RequestBody.create(json, MediaType.parse("application/json"));
         Request request = new Request.Builder()
                 .url(BASE_URL + "/api/navigation/route")
@@ -76,13 +91,78 @@ public class NetworkClient {
     }
 
     public void openObstacleWebSocket(WebSocketListener listener) {
-        Request request = new Request.Builder().url(WS_URL).build();
+        String url = WS_URL + "?user=" + guidanceId + (Config.OBSTACLE_WARNING_CODES ? "&codes=1" : "");
+        Request request = new Request.Builder().url(url).build();
         webSocket = client.newWebSocket(request, listener);
     }
 
     public void sendFrameViaWS(byte[] data) {
-        if (webSocket != null) {
+        sendFrameViaWS(data, 0, 0, 0, null);
+    }
+
+    /**
+     * 发送避障图像帧；开启 OBSTACLE_FRAME_HEADER 时附带帧头部
+     *
+     * @param width    原始图像宽度，未知时为 0
+     * @param height   原始图像高度，未知时为 0
+     * @param rotation 图像需顺时针旋转的角度（0 / 90 / 180 / 270）
+     * @param imu      {偏航角, 俯仰角}（度，俯仰角为正表示镜头朝下），无 IMU 数据时为 null
+     */
+    public void sendFrameViaWS(byte[] data, int width, int height, int rotation, float[] imu) {
+        if (webSocket == null) {
+            return;
+        }
+        if (Config.OBSTACLE_FRAME_HEADER) {
+            int seq = ++obstacleFrameSeq;
+            long captureTimestamp = System.currentTimeMillis();
+            synchronized (recentSeqs) {
+                recentSeqs[seq % CAPTURE_HISTORY] = seq;
+                recentCaptureTimes[seq % CAPTURE_HISTORY] = captureTimestamp;
+            }
+            byte[] frame = buildObstacleFrame(seq, captureTimestamp, width, height, rotation, imu, data);
+            webSocket.send(ByteString.of(frame));
+        } else {
             webSocket.send(ByteString.of(data));
         }
     }
+
+    /**
+     * @param seqLow16 提示回显的帧序号低 16 位
+     * @return 该帧的采集时间戳；已不在最近发送的帧中时返回 0
+     */
+    public long captureTimeOf(int seqLow16) {
+        synchronized (recentSeqs) {
+            for (int i = 0; i < CAPTURE_HISTORY; i++) {
+                if (recentSeqs[i] != 0 && (recentSeqs[i] & 0xFFFF) == seqLow16) {
+                    return recentCaptureTimes[i];
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 帧格式（大端）：['B' 'F'][版本][头部长度][标志位][旋转/90][序号 4][采集时间戳 8][宽 2][高 2][保留 2]
+     * [偏航角 4][俯仰角 4]（仅当标志位 bit0 置位）[图像字节]
+     */
+    static byte[] buildObstacleFrame(int seq, long captureTimestamp, int width, int height, int rotation,
+                                     float[] imu, byte[] image) {
+        int headerLength = imu != null ? OBSTACLE_HEADER_LENGTH_IMU : OBSTACLE_HEADER_LENGTH;
+        ByteBuffer buffer = ByteBuffer.allocate(headerLength + image.length)
+                .put((byte) 'B')
+                .put((byte) 'F')
+                .put(OBSTACLE_FRAME_VERSION)
+                .put((byte) headerLength)
+                .put((byte) (imu != null ? 1 : 0))
+                .put((byte) (((rotation / 90) % 4 + 4) % 4))
+                .putInt(seq)
+                .putLong(captureTimestamp)
+                .putShort((short) width)
+                .putShort((short) height)
+                .putShort((short) 0);
+        if (imu != null) {
+            buffer.putFloat(imu[0]).putFloat(imu[1]);
+        }
+        return buffer.put(image).array();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,91 @@
+package com.example.test_android_dev;
+
+/**
+ * 服务端下发的紧凑避障提示（WebSocket 二进制帧，8 字节，大端）：
+ * ['W'][版本][类别][避让方向][距离档][紧急程度][帧序号低 16 位 2]
+ * 需与服务端 ObstacleWarningCode 保持一致。
+ * 相同 clipKey 的提示播报内容相同，WarningClipManager 据此缓存预先合成的语音片段。
+ */
+public final class ObstacleWarningCode {
+
+    static final byte MARKER = 'W';
+    static final byte VERSION = 1;
+    static final int LENGTH = 8;
+    static final int MAX_DISTANCE_BUCKET = 5;
+    // 下标即类别编码，未知编码按“障碍物”播报
+    static final String[] CLASS_NAMES = {"障碍物", "行人", "车辆", "台阶", "柱子"};
+
+    private final int classCode;
+    private final boolean steerRight;
+    private final int distanceBucket;
+    private final boolean imminent;
+    private final int seq;
+
+    ObstacleWarningCode(int classCode, boolean steerRight, int distanceBucket, boolean imminent, int seq) {
+        this.classCode = classCode;
+        this.steerRight = steerRight;
+        this.distanceBucket = distanceBucket;
+        this.imminent = imminent;
+        this.seq = seq;
+    }
+
+    /**
+     * @return 解析结果；不是紧凑提示帧或版本不支持时返回 null
+     */
+    public static ObstacleWarningCode parse(byte[] data) {
+        if (data == null || data.length < LENGTH || data[0] != MARKER || data[1] != VERSION) {
+            return null;
+        }
+        int classCode = data[2] & 0xFF;
+        return new ObstacleWarningCode(classCode < CLASS_NAMES.length ? classCode : 0, data[3] == 1,
+                Math.min(data[4] & 0xFF, MAX_DISTANCE_BUCKET), data[5] == 1,
+                ((data[6] & 0xFF) << 8) | (data[7] & 0xFF));
+    }
+
+    /**
+     * @return 播报内容的标识，用作语音片段的缓存键（不含帧序号）
+     */
+    public String clipKey() {
+        return classCode + "_" + (steerRight ? "r" : "l") + "_" + distanceBucket + "_" + (imminent ? "i" : "n");
+    }
+
+    /**
+     * @return 播报文本，与服务端 JSON 提示的 message 一字不差（服务端按同一类别名称与距离档生成）；
+     * 距离档由服务端按米向下取整，0 表示不到 1 米
+     */
+    public String speech() {
+        String side = steerRight ? "右" : "左";
+        String distance = distanceBucket == 0 ? "不到1米" : "约" + distanceBucket + "米";
+        String name = CLASS_NAMES[classCode];
+        return imminent
+                ? "停！正前方" + distance + "有" + name + "，请向" + side + "避让。"
+                : "请稍微向" + side + "侧偏一点，前方" + distance + "有" + name + "。";
+    }
+
+    /**
+     * @return 应预先合成的提示：所有方向、距离档与紧急程度下的通用“障碍物”提示，
+     * 其余类别在首次出现时再合成
+     */
+    public static ObstacleWarningCode[] commonWarnings() {
+        ObstacleWarningCode[] codes = new ObstacleWarningCode[2 * (MAX_DISTANCE_BUCKET + 1) * 2];
+        int i = 0;
+        for (int imminent = 1; imminent >= 0; imminent--) {
+            for (int bucket = 0; bucket <= MAX_DISTANCE_BUCKET; bucket++) {
+                codes[i++] = new ObstacleWarningCode(0, false, bucket, imminent == 1, 0);
+                codes[i++] = new ObstacleWarningCode(0, true, bucket, imminent == 1, 0);
+            }
+        }
+        return codes;
+    }
+
+    public boolean isImminent() {
+        return imminent;
+    }
+
+    /**
+     * @return 触发提示的帧序号的低 16 位
+     */
+    public int getSeq() {
+        return seq;
+    }
+}
@@ -16,6 +16,7 @@ import android.util.Log;
 import com.example.test_android_dev.asr.AsrEngine;
 import com.example.test_android_dev.asr.AsrManager;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
@@ -46,6 +47,8 @@ public class VoiceManager {
     private final Handler mainHandler = new Handler(Looper.getMainLooper());
     private final Map<String, Runnable> utteranceCallbacks = new ConcurrentHashMap<>();
     private final List<PendingUtterance> pendingUtterances = new ArrayList<>();
+    private final Map<String, SynthesisCallback> synthesisCallbacks = new ConcurrentHashMap<>();
+    private final List<Runnable> pendingSyntheses = new ArrayList<>();
 
     private static final int MAX_TTS_TEXT_LENGTH = 3500;
 
@@ -169,6 +172,9 @@ public class VoiceManager {
         synchronized (pendingUtterances) {
             pendingUtterances.clear();
         }
+        synchronized (pendingSyntheses) {
+            pendingSyntheses.clear();
+        }
     }
 
     private String[] getPreferredEngineOrder(java.util.List<TextToSpeech.EngineInfo> engines) {
@@ -209,6 +215,7 @@ public class VoiceManager {
         isTtsReady = true;
         isTtsInitializing = false;
         processPendingUtterances();
+        processPendingSyntheses();
     }
 
     private void setupUtteranceListener() {
@@ -223,12 +230,16 @@ public class VoiceManager {
                 Log.d(TAG, "播报完成: " + utteranceId);
                 Runnable cb = utteranceCallbacks.remove(utteranceId);
                 if (cb != null) mainHandler.post(cb);
+                SynthesisCallback synthesis = synthesisCallbacks.remove(utteranceId);
+                if (synthesis != null) mainHandler.post(() -> synthesis.onComplete(true));
             }
 
             @Override
             public void onError(String utteranceId) {
                 Log.e(TAG, "播报错误: " + utteranceId);
                 utteranceCallbacks.remove(utteranceId);
+                SynthesisCallback synthesis = synthesisCallbacks.remove(utteranceId);
+                if (synthesis != null) mainHandler.post(() -> synthesis.onComplete(false));
             }
         });
     }
@@ -263,6 +274,51 @@ public class VoiceManager {
         speakImmediate(text, null);
     }
 
+    /**
+     * 停止当前播报并清空播报队列（例如即将播放预先合成的紧急提示音）
+     */
+    public void stop() {
+        if (isTtsReady && tts != null) {
+            mainHandler.post(() -> tts.stop());
+        }
+    }
+
+    public interface SynthesisCallback {
+        void onComplete(boolean success);
+    }
+
+    /**
+     * 将文本合成为音频文件（供 WarningClipManager 预先合成提示语音）；TTS 未就绪时在初始化完成后执行
+     */
+    public void synthesizeToFile(String text, File file, SynthesisCallback callback) {
+        Runnable task = () -> {
+            String uid = UUID.randomUUID().toString();
+            synthesisCallbacks.put(uid, callback);
+            int result = tts.synthesizeToFile(text, new Bundle(), file, uid);
+            if (result != TextToSpeech.SUCCESS) {
+                Log.e(TAG, "tts.synthesizeToFile 调用失败: " + result);
+                synthesisCallbacks.remove(uid);
+                callback.onComplete(false);
+            }
+        };
+        if (isTtsReady && tts != null) {
+            mainHandler.post(task);
+        } else {
+            synchronized (pendingSyntheses) {
+                pendingSyntheses.add(task);
+            }
+        }
+    }
+
+    private void processPendingSyntheses() {
+        synchronized (pendingSyntheses) {
+            for (Runnable task : pendingSyntheses) {
+                mainHandler.post(task);
+            }
+            pendingSyntheses.clear();
+        }
+    }
+
     private void executeSpeak(String text, int queueMode, Runnable onDone) {
         if (text == null || text.trim().isEmpty()) {
             if (onDone != null) mainHandler.post(onDone);
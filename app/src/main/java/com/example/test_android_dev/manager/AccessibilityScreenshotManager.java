@@ -16,6 +16,7 @@ import androidx.annotation.RequiresApi;
 import java.io.ByteArrayOutputStream;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
+import java.util.function.Consumer;
 
 /**
  * 专门负责通过无障碍服务进行静默截屏的管理器
@@ -42,14 +43,42 @@ public class AccessibilityScreenshotManager {
         void onFailure(String error);
     }
 
+    /**
+     * 原始 JPEG 结果回调，用于二进制帧模式，省去 Base64 编码
+     */
+    public interface JpegCallback {
+        void onSuccess(byte[] jpeg);
+        void onFailure(String error);
+    }
+
     /**
      * 核心截图方法
      * @param service 必须传入当前的 AutoGLMService 实例
      * @param callback 结果回调
      */
     public void capture(@NonNull AccessibilityService service, @NonNull ScreenshotCallback callback) {
+        captureInternal(service, jpeg -> {
+            String base64 = Base64.encodeToString(jpeg, Base64.NO_WRAP);
+            mainHandler.post(() -> callback.onSuccess(base64));
+        }, callback::onFailure);
+    }
+
+    /**
+     * 截图并返回压缩后的 JPEG 字节
+     */
+    public void captureJpeg(@NonNull AccessibilityService service, @NonNull JpegCallback callback) {
+        captureInternal(service, jpeg -> mainHandler.post(() -> callback.onSuccess(jpeg)), callback::onFailure);
+    }
+
+    /**
+     * @param onJpeg 在截图线程上收到 JPEG 字节
+     * @param onFailure 失败回调，回到主线程执行
+     */
+    private void captureInternal(@NonNull AccessibilityService service,
+                                 @NonNull Consumer<byte[]> onJpeg,
+                                 @NonNull Consumer<String> onFailure) {
         if (Build.VERSION.SDK_INT < Build.VERSION_CODES.R) {
-            callback.onFailure("系统版本过低，无障碍截图仅支持 Android 11+");
+            onFailure.accept("系统版本过低，无障碍截图仅支持 Android 11+");
             return;
         }
 
@@ -70,7 +99,7 @@ public class AccessibilityScreenshotManager {
                                 Bitmap bitmap = Bitmap.wrapHardwareBuffer(buffer, colorSpace);
 
                                 if (bitmap == null) {
-                                    postFailure(callback, "生成 Bitmap 失败");
+                                    postFailure(onFailure, "生成 Bitmap 失败");
                                     buffer.close();
                                     return;
                                 }
@@ -83,43 +112,43 @@ public class AccessibilityScreenshotManager {
                                 buffer.close();
                                 bitmap.recycle();
 
-                                // 3. 压缩并转 Base64
-                                String base64 = bitmapToBase64(copy);
+                                // 3. 压缩为 JPEG
+                                byte[] jpeg = bitmapToJpeg(copy);
                                 copy.recycle(); // 释放内存
 
-                                // 4. 回调主线程
-                                mainHandler.post(() -> callback.onSuccess(base64));
+                                // 4. 交给调用方（Base64 或二进制帧）
+                                onJpeg.accept(jpeg);
 
                             } catch (Exception e) {
                                 Log.e(TAG, "处理截图数据失败", e);
-                                postFailure(callback, "处理截图异常: " + e.getMessage());
+                                postFailure(onFailure, "处理截图异常: " + e.getMessage());
                             }
                         }
 
                         @Override
                         public void onFailure(int errorCode) {
                             Log.e(TAG, "系统截图失败，错误码: " + errorCode);
-                            postFailure(callback, "系统截图失败 Code: " + errorCode);
+                            postFailure(onFailure, "系统截图失败 Code: " + errorCode);
                         }
                     }
             );
         } catch (Exception e) {
             Log.e(TAG, "调用 takeScreenshot 异常", e);
-            callback.onFailure("调用异常: " + e.getMessage());
+            onFailure.accept("调用异常: " + e.getMessage());
         }
     }
 
-    private void postFailure(ScreenshotCallback callback, String msg) {
-        mainHandler.post(() -> callback.onFailure(msg));
+    private void postFailure(Consumer<String> onFailure, String msg) {
+        mainHandler.post(() -> onFailure.accept(msg));
     }
 
     /**
-     * 图片压缩转 Base64
+     * 图片压缩为 JPEG
      * 策略：
      * 1. 缩放到合适尺寸 (例如宽 720 或 1080)，因为模型不需要超高清，太大会导致网络卡顿
      * 2. 压缩为 JPEG
      */
-    private String bitmapToBase64(Bitmap bitmap) {
+    private byte[] bitmapToJpeg(Bitmap bitmap) {
         // 目标最大边长 (根据你的模型需求调整，AutoGLM 建议 1000 左右)
         final int MAX_SIZE = 1080;
 
@@ -150,6 +179,6 @@ public class AccessibilityScreenshotManager {
             finalBitmap.recycle();
         }
 
-        return Base64.encodeToString(bytes, Base64.NO_WRAP);
+        return bytes;
     }
 }
@@ -6,6 +6,7 @@ import android.os.Looper;
 import android.util.Log;
 
 import com.example.test_android_dev.App;
+import com.example.test_android_dev.Config;
 import com.example.test_android_dev.model.ConnectionState;
 import com.example.test_android_dev.model.TaskState;
 import com.example.test_android_dev.service.AutoGLMService;
@@ -15,12 +16,16 @@ import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
 
 public class AgentManager {
     private static final String TAG = "AgentManager";
     private static final String SERVER_URL = "ws://localhost:8090/ws/agent";
+    // 二进制帧版本号，需与服务端 AgentBinaryFrame.VERSION 保持一致
+    static final byte BINARY_FRAME_VERSION = 1;
 
     private static AgentManager instance;
     private final Gson gson = new Gson();
@@ -35,6 +40,7 @@ public class AgentManager {
     private int screenWidth;
     private int screenHeight;
     private Context appContext;
+    private long frameSeq;
 
     private AgentManager() {
         connectionManager = WebSocketConnectionManager.getInstance();
@@ -135,7 +141,13 @@ public class AgentManager {
             @Override
             public void onConnected() {
                 updateServiceState(ConnectionState.CONNECTED);
-                captureAndSend(true, initTask);
+                // 重连时优先恢复服务端会话，沿用模型上下文；无凭证或恢复失败时再重新 init
+                String resumeToken = currentTask != null ? currentTask.getResumeToken() : null;
+                if (resumeToken != null) {
+                    sendResume(resumeToken);
+                } else {
+                    captureAndSend(true, initTask);
+                }
             }
 
             @Override
@@ -183,6 +195,13 @@ public class AgentManager {
         connectionManager.send(gson.toJson(json));
     }
 
+    private void sendResume(String resumeToken) {
+        JsonObject json = new JsonObject();
+        json.addProperty("type", "resume");
+        json.addProperty("resume_token", resumeToken);
+        connectionManager.send(gson.toJson(json));
+    }
+
     private void sendStep(String base64Image) {
         if (!isTaskRunning) return;
         JsonObject json = new JsonObject();
@@ -192,11 +211,41 @@ public class AgentManager {
         connectionManager.send(gson.toJson(json));
     }
 
+    /**
+     * 二进制帧模式：头部只携带路由字段，截图以原始 JPEG 字节附在其后
+     */
+    private void sendBinary(String type, String task, String screenInfo, byte[] jpeg) {
+        if (!isTaskRunning) return;
+        JsonObject header = new JsonObject();
+        header.addProperty("type", type);
+        if (task != null) header.addProperty("task", task);
+        header.addProperty("screen_info", screenInfo);
+        header.addProperty("seq", ++frameSeq);
+        connectionManager.send(buildBinaryFrame(gson.toJson(header), jpeg));
+    }
+
+    /**
+     * 帧格式：[1 字节版本][4 字节大端头部长度][UTF-8 JSON 头部][JPEG 字节]
+     */
+    static byte[] buildBinaryFrame(String headerJson, byte[] jpeg) {
+        byte[] header = headerJson.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(5 + header.length + jpeg.length)
+                .put(BINARY_FRAME_VERSION)
+                .putInt(header.length)
+                .put(header)
+                .put(jpeg)
+                .array();
+    }
+
 
     private void handleServerMessage(String text) {
         try {
             JsonObject response = gson.fromJson(text, JsonObject.class);
 
+            if (response.has("type") && handleSessionMessage(response)) {
+                return;
+            }
+
             if (response.has("finished") && response.get("finished").getAsBoolean()) {
                 String msg = "任务完成";
                 if (response.has("action") && response.getAsJsonObject("action").has("message")) {
@@ -237,6 +286,44 @@ public class AgentManager {
         }
     }
 
+    /**
+     * 处理服务端的会话控制消息：
+     * - session：保存恢复凭证
+     * - resumed：会话已恢复；若无补发的回复且无在途请求，重新截图发送 step
+     * - resume_failed：会话已过期，重新 init
+     *
+     * @return 是否为会话控制消息
+     */
+    private boolean handleSessionMessage(JsonObject response) {
+        String type = response.get("type").getAsString();
+        switch (type) {
+            case "session":
+                if (currentTask != null) {
+                    currentTask.setResumeToken(response.get("resume_token").getAsString());
+                    taskStateManager.saveState(currentTask);
+                }
+                return true;
+            case "resumed":
+                Log.d(TAG, "会话已恢复: " + response);
+                boolean awaiting = response.has("awaiting_reply") && response.get("awaiting_reply").getAsBoolean();
+                int replayed = response.has("replayed") ? response.get("replayed").getAsInt() : 0;
+                if (replayed == 0 && !awaiting) {
+                    captureAndSend(false, null);
+                }
+                return true;
+            case "resume_failed":
+                Log.w(TAG, "会话恢复失败，重新开始任务");
+                if (currentTask != null) {
+                    currentTask.setResumeToken(null);
+                    taskStateManager.saveState(currentTask);
+                    captureAndSend(true, currentTask.getTaskPrompt());
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
     private void captureAndSend(boolean isInit, String taskPrompt) {
         if (!isTaskRunning) return;
         AutoGLMService service = AutoGLMService.getInstance();
@@ -245,6 +332,23 @@ public class AgentManager {
             return;
         }
 
+        if (Config.AGENT_BINARY_FRAMES) {
+            AccessibilityScreenshotManager.getInstance().captureJpeg(service,
+                new AccessibilityScreenshotManager.JpegCallback() {
+                    @Override
+                    public void onSuccess(byte[] jpeg) {
+                        if (isInit) sendBinary("init", taskPrompt, "Android Screen", jpeg);
+                        else sendBinary("step", null, "Step Screen", jpeg);
+                    }
+
+                    @Override
+                    public void onFailure(String error) {
+                        Log.e(TAG, "截图失败: " + error);
+                    }
+                });
+            return;
+        }
+
         AccessibilityScreenshotManager.getInstance().capture(service,
             new AccessibilityScreenshotManager.ScreenshotCallback() {
                 @Override
@@ -0,0 +1,149 @@
+package com.example.test_android_dev.manager;
+
+import android.content.Context;
+import android.media.AudioAttributes;
+import android.media.SoundPool;
+import android.util.Log;
+
+import com.example.test_android_dev.ObstacleWarningCode;
+import com.example.test_android_dev.VoiceManager;
+
+import java.io.File;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 避障提示语音片段管理器
+ * 启动时用 TTS 把常见的紧凑避障提示合成为音频文件并载入 SoundPool，收到提示时直接播放，
+ * 省去每条提示的实时合成；片段缓存在 cache 目录，之后启动直接载入。
+ * 尚未就绪的提示由调用方改用 TTS 播报，同时在后台合成，下次即可直接播放。
+ */
+public class WarningClipManager {
+    private static final String TAG = "WarningClipManager";
+    // 播报措辞或合成参数变化时更换目录，避免沿用旧片段
+    private static final String CLIP_DIR = "warning_clips_v1";
+    private static final int MAX_STREAMS = 2;
+
+    private static WarningClipManager instance;
+    private SoundPool soundPool;
+    private File clipDir;
+    // clipKey -> SoundPool 中的 soundId，仅包含已载入完成的片段
+    private final Map<String, Integer> loadedClips = new ConcurrentHashMap<>();
+    // 正在载入的 soundId -> clipKey
+    private final Map<Integer, String> loadingClips = new ConcurrentHashMap<>();
+    // 正在合成或载入的 clipKey，避免重复合成
+    private final Set<String> preparing = ConcurrentHashMap.newKeySet();
+    private int currentStreamId;
+
+    private WarningClipManager() {}
+
+    public static synchronized WarningClipManager getInstance() {
+        if (instance == null) {
+            instance = new WarningClipManager();
+        }
+        return instance;
+    }
+
+    /**
+     * 初始化并开始准备常见提示的语音片段；需在 VoiceManager.init 之后调用
+     */
+    public void init(Context context) {
+        if (soundPool != null) {
+            return;
+        }
+        clipDir = new File(context.getCacheDir(), CLIP_DIR);
+        if (!clipDir.isDirectory() && !clipDir.mkdirs()) {
+            Log.e(TAG, "无法创建片段目录: " + clipDir);
+            return;
+        }
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_STREAMS)
+                .setAudioAttributes(new AudioAttributes.Builder()
+                        .setUsage(AudioAttributes.USAGE_ASSISTANCE_NAVIGATION_GUIDANCE)
+                        .setContentType(AudioAttributes.CONTENT_TYPE_SPEECH)
+                        .build())
+                .build();
+        soundPool.setOnLoadCompleteListener((pool, soundId, status) -> {
+            String key = loadingClips.remove(soundId);
+            if (key == null) {
+                return;
+            }
+            preparing.remove(key);
+            if (status == 0) {
+                loadedClips.put(key, soundId);
+            } else {
+                Log.e(TAG, "片段载入失败: " + key + ", status=" + status);
+            }
+        });
+        for (ObstacleWarningCode code : ObstacleWarningCode.commonWarnings()) {
+            prepare(code);
+        }
+        Log.d(TAG, "WarningClipManager 初始化，片段目录: " + clipDir);
+    }
+
+    /**
+     * 播放提示对应的片段，并打断正在播放的片段
+     *
+     * @return 片段尚未就绪时返回 false（同时开始准备），由调用方改用 TTS 播报
+     */
+    public synchronized boolean play(ObstacleWarningCode code) {
+        if (soundPool == null) {
+            return false;
+        }
+        Integer soundId = loadedClips.get(code.clipKey());
+        if (soundId == null) {
+            prepare(code);
+            return false;
+        }
+        if (currentStreamId != 0) {
+            soundPool.stop(currentStreamId);
+        }
+        currentStreamId = soundPool.play(soundId, 1f, 1f, code.isImminent() ? 1 : 0, 0, 1f);
+        return currentStreamId != 0;
+    }
+
+    /**
+     * 载入已缓存的片段文件，不存在时先合成
+     */
+    private void prepare(ObstacleWarningCode code) {
+        String key = code.clipKey();
+        if (loadedClips.containsKey(key) || !preparing.add(key)) {
+            return;
+        }
+        File file = new File(clipDir, key + ".wav");
+        if (file.length() > 0) {
+            load(key, file);
+            return;
+        }
+        // 先写临时文件，合成完整后再改名，避免中途退出留下不完整的片段
+        File partial = new File(clipDir, key + ".wav.tmp");
+        VoiceManager.getInstance().synthesizeToFile(code.speech(), partial, success -> {
+            if (success && soundPool != null && partial.renameTo(file)) {
+                load(key, file);
+            } else {
+                Log.e(TAG, "片段合成失败: " + key);
+                preparing.remove(key);
+            }
+        });
+    }
+
+    private void load(String key, File file) {
+        loadingClips.put(soundPool.load(file.getAbsolutePath(), 1), key);
+    }
+
+    /**
+     * 释放资源；已合成的片段文件保留，供下次启动使用
+     */
+    public synchronized void release() {
+        if (soundPool != null) {
+            soundPool.release();
+            soundPool = null;
+        }
+        loadedClips.clear();
+        loadingClips.clear();
+        preparing.clear();
+        currentStreamId = 0;
+        Log.d(TAG, "WarningClipManager 已释放");
+    }
+}
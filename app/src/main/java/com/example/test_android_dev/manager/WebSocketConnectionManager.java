@@ -19,6 +19,7 @@ import okhttp3.Request;
 import okhttp3.Response;
 import okhttp3.WebSocket;
 import okhttp3.WebSocketListener;
+import okio.ByteString;
 
 /**
  * WebSocket连接管理器
@@ -123,6 +124,17 @@ public class WebSocketConnectionManager {
         return false;
     }
 
+    /**
+     * 发送二进制消息
+     */
+    public boolean send(byte[] message) {
+        if (webSocket != null && connectionStatus.getState() == ConnectionState.CONNECTED) {
+            return webSocket.send(ByteString.of(message));
+        }
+        Log.w(TAG, "无法发送消息，连接未建立");
+        return false;
+    }
+
     /**
      * 获取当前连接状态
      */
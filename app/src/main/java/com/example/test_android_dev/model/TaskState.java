@@ -18,6 +18,7 @@ public class TaskState implements Serializable {
     private int screenWidth;         // 屏幕宽度
     private int screenHeight;        // 屏幕高度
     private boolean isRunning;       // 是否正在运行
+    private String resumeToken;      // 服务端会话恢复凭证，断线重连时用于恢复模型上下文
 
     public TaskState() {
         this.taskId = UUID.randomUUID().toString();
@@ -43,6 +44,7 @@ public class TaskState implements Serializable {
     public int getScreenWidth() { return screenWidth; }
     public int getScreenHeight() { return screenHeight; }
     public boolean isRunning() { return isRunning; }
+    public String getResumeToken() { return resumeToken; }
 
     // Setters
     public void setTaskId(String taskId) { this.taskId = taskId; }
@@ -53,6 +55,7 @@ public class TaskState implements Serializable {
     public void setScreenWidth(int screenWidth) { this.screenWidth = screenWidth; }
     public void setScreenHeight(int screenHeight) { this.screenHeight = screenHeight; }
     public void setRunning(boolean running) { this.isRunning = running; }
+    public void setResumeToken(String resumeToken) { this.resumeToken = resumeToken; }
 
     /**
      * 更新任务步骤
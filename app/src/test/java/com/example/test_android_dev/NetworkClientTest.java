@@ -0,0 +1,60 @@
+package com.example.test_android_dev;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * NetworkClient 避障帧头部编码单元测试
+ *
+ * 帧格式见 NetworkClient.buildObstacleFrame，需与服务端 ObstacleFrameHeader 保持一致
+ */
+public class NetworkClientTest {
+
+    /**
+     * 不带 IMU 数据时头部为 24 字节，各字段按大端写入
+     */
+    @Test
+    public void testObstacleFrameLayout() {
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, 1, 2, (byte) 0xFF, (byte) 0xD9};
+
+        byte[] frame = NetworkClient.buildObstacleFrame(7, 1_700_000_000_123L, 1280, 720, 90, null, jpeg);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+
+        assertEquals('B', buffer.get());
+        assertEquals('F', buffer.get());
+        assertEquals("版本号", NetworkClient.OBSTACLE_FRAME_VERSION, buffer.get());
+        assertEquals("头部长度", NetworkClient.OBSTACLE_HEADER_LENGTH, buffer.get());
+        assertEquals("无 IMU 标志", 0, buffer.get());
+        assertEquals("旋转按 90° 次数编码", 1, buffer.get());
+        assertEquals(7, buffer.getInt());
+        assertEquals(1_700_000_000_123L, buffer.getLong());
+        assertEquals(1280, buffer.getShort() & 0xFFFF);
+        assertEquals(720, buffer.getShort() & 0xFFFF);
+        assertEquals("保留字段", 0, buffer.getShort());
+
+        byte[] image = new byte[buffer.remaining()];
+        buffer.get(image);
+        assertArrayEquals("图像字节原样保留", jpeg, image);
+    }
+
+    /**
+     * 带 IMU 数据时头部扩展为 32 字节，偏航角、俯仰角紧随保留字段
+     */
+    @Test
+    public void testObstacleFrameWithImu() {
+        byte[] frame = NetworkClient.buildObstacleFrame(1, 0L, 0, 0, 270,
+                new float[]{12.5f, -3.0f}, new byte[]{42});
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+
+        assertEquals(NetworkClient.OBSTACLE_HEADER_LENGTH_IMU + 1, frame.length);
+        assertEquals(NetworkClient.OBSTACLE_HEADER_LENGTH_IMU, buffer.get(3));
+        assertEquals(1, buffer.get(4));
+        assertEquals(3, buffer.get(5));
+        assertEquals(12.5f, buffer.getFloat(24), 0f);
+        assertEquals(-3.0f, buffer.getFloat(28), 0f);
+        assertEquals(42, buffer.get(32));
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.test_android_dev;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * ObstacleWarningCode 紧凑避障提示解码单元测试
+ *
+ * 编码格式需与服务端 ObstacleWarningCode 保持一致
+ */
+public class ObstacleWarningCodeTest {
+
+    /**
+     * 各字段按位置解析，帧序号为大端低 16 位
+     */
+    @Test
+    public void testParse() {
+        byte[] data = {'W', 1, 1, 1, 2, 1, (byte) 0xAB, (byte) 0xCD};
+
+        ObstacleWarningCode code = ObstacleWarningCode.parse(data);
+
+        assertNotNull(code);
+        assertTrue(code.isImminent());
+        assertEquals(0xABCD, code.getSeq());
+        assertEquals("1_r_2_i", code.clipKey());
+        assertEquals("停！正前方约2米有行人，请向右避让。", code.speech());
+    }
+
+    /**
+     * 一般提示与不到 1 米的距离档
+     */
+    @Test
+    public void testAdvisorySpeech() {
+        ObstacleWarningCode code = ObstacleWarningCode.parse(new byte[]{'W', 1, 0, 0, 0, 0, 0, 5});
+
+        assertNotNull(code);
+        assertFalse(code.isImminent());
+        assertEquals("请稍微向左侧偏一点，前方不到1米有障碍物。", code.speech());
+    }
+
+    /**
+     * 未知类别按“障碍物”播报，超出范围的距离档按最大档
+     */
+    @Test
+    public void testUnknownValuesAreClamped() {
+        ObstacleWarningCode code = ObstacleWarningCode.parse(new byte[]{'W', 1, 42, 1, 9, 0, 0, 0});
+
+        assertNotNull(code);
+        assertEquals("0_r_" + ObstacleWarningCode.MAX_DISTANCE_BUCKET + "_n", code.clipKey());
+    }
+
+    /**
+     * 长度不足、标记不符或版本不支持时不解析
+     */
+    @Test
+    public void testRejectsOtherFrames() {
+        assertNull(ObstacleWarningCode.parse(null));
+        assertNull(ObstacleWarningCode.parse(new byte[]{'W', 1, 0, 0}));
+        assertNull(ObstacleWarningCode.parse(new byte[]{'X', 1, 0, 0, 0, 0, 0, 0}));
+        assertNull(ObstacleWarningCode.parse(new byte[]{'W', 2, 0, 0, 0, 0, 0, 0}));
+    }
+
+    /**
+     * 预先合成的提示覆盖两个方向、所有距离档与两种紧急程度，且互不重复
+     */
+    @Test
+    public void testCommonWarningsAreDistinct() {
+        Set<String> keys = new HashSet<>();
+        for (ObstacleWarningCode code : ObstacleWarningCode.commonWarnings()) {
+            assertTrue(keys.add(code.clipKey()));
+        }
+        assertEquals(2 * (ObstacleWarningCode.MAX_DISTANCE_BUCKET + 1) * 2, keys.size());
+    }
+}
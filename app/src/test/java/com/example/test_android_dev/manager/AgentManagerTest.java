@@ -0,0 +1,49 @@
+package com.example.test_android_dev.manager;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * AgentManager 二进制帧编码单元测试
+ *
+ * 帧格式：[1 字节版本][4 字节大端头部长度][UTF-8 JSON 头部][JPEG 字节]
+ */
+public class AgentManagerTest {
+
+    /**
+     * 头部与图像字节应按协议顺序排列，且可被原样切分
+     */
+    @Test
+    public void testBinaryFrameLayout() {
+        String header = "{\"type\":\"step\",\"screen_info\":\"屏幕\",\"seq\":3}";
+        byte[] jpeg = {(byte) 0xFF, (byte) 0xD8, 1, 2, 3, (byte) 0xFF, (byte) 0xD9};
+
+        byte[] frame = AgentManager.buildBinaryFrame(header, jpeg);
+        ByteBuffer buffer = ByteBuffer.wrap(frame);
+
+        assertEquals("版本号", AgentManager.BINARY_FRAME_VERSION, buffer.get());
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        assertEquals("头部长度按 UTF-8 字节计算", headerBytes.length, buffer.getInt());
+
+        byte[] decodedHeader = new byte[headerBytes.length];
+        buffer.get(decodedHeader);
+        assertEquals(header, new String(decodedHeader, StandardCharsets.UTF_8));
+
+        byte[] decodedImage = new byte[buffer.remaining()];
+        buffer.get(decodedImage);
+        assertArrayEquals("图像字节原样保留", jpeg, decodedImage);
+    }
+
+    /**
+     * 空图像也应生成合法帧
+     */
+    @Test
+    public void testBinaryFrameEmptyImage() {
+        byte[] frame = AgentManager.buildBinaryFrame("{}", new byte[0]);
+        assertEquals(5 + 2, frame.length);
+    }
+}
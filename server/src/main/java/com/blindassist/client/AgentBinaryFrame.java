@@ -0,0 +1,62 @@
+package com.blindassist.client;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Agent 通道的二进制帧格式（App -> 中转 -> Python 原样转发）：
+ * <pre>
+ * [1 字节版本][4 字节大端头部长度][UTF-8 JSON 头部][原始 JPEG 字节]
+ * </pre>
+ * 头部字段：type, task, screen_info, seq。截图不再经过 Base64，也无需在中转层重新编码。
+ */
+public final class AgentBinaryFrame {
+
+    public static final byte VERSION = 1;
+    private static final int PREFIX_BYTES = 5;
+
+    private AgentBinaryFrame() {
+    }
+
+    /**
+     * 只解码 JSON 头部，不触碰后面的图像字节；不改变 frame 的 position
+     */
+    public static String readHeader(ByteBuffer frame) {
+        int headerLength = headerLength(frame);
+        byte[] header = new byte[headerLength];
+        frame.duplicate().position(frame.position() + PREFIX_BYTES).get(header);
+        return new String(header, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 图像部分的只读视图，零拷贝
+     */
+    public static ByteBuffer image(ByteBuffer frame) {
+        ByteBuffer view = frame.duplicate();
+        view.position(frame.position() + PREFIX_BYTES + headerLength(frame));
+        return view.slice();
+    }
+
+    /**
+     * 以新的头部重新组帧，图像字节拷贝一次
+     */
+    public static ByteBuffer withHeader(String header, ByteBuffer image) {
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer frame = ByteBuffer.allocate(PREFIX_BYTES + headerBytes.length + image.remaining());
+        frame.put(VERSION).putInt(headerBytes.length).put(headerBytes).put(image.duplicate());
+        frame.flip();
+        return frame;
+    }
+
+    private static int headerLength(ByteBuffer frame) {
+        int start = frame.position();
+        if (frame.remaining() < PREFIX_BYTES || frame.get(start) != VERSION) {
+            throw new IllegalArgumentException("不支持的 Agent 二进制帧");
+        }
+        int headerLength = frame.getInt(start + 1);
+        if (headerLength < 0 || headerLength > frame.remaining() - PREFIX_BYTES) {
+            throw new IllegalArgumentException("Agent 二进制帧头部长度非法: " + headerLength);
+        }
+        return headerLength;
+    }
+}
@@ -0,0 +1,158 @@
+package com.blindassist.client;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.metrics.LatencyHistogram;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 会话建立负载测试：一批 App 同时发起 start_task，由固定大小的线程池（模拟 Tomcat 工作线程）处理，
+ * 本地 {@link StubAgentServer} 的握手注入固定延迟（模拟跨机房或冷启动的模型服务）。对比两种做法：
+ * - blocking：容器线程上 connectBlocking()，握手完成才返回（改为异步连接之前的 startTask）
+ * - async：容器线程只调用 connect() 即返回，握手完成后在客户端读线程上回调（当前的 startTask）
+ * 统计全部会话连通的耗时与吞吐、从 start_task 到上游连通的延迟分布，
+ * 以及同一时间段内投递到容器线程的心跳帧从投递到处理的延迟（其他会话的控制帧、步骤帧同样在这些线程上处理）。
+ * 用法：java -cp blindassist-server.jar com.blindassist.client.AgentConnectBenchmark [容器线程数] [握手延迟ms]
+ */
+public class AgentConnectBenchmark {
+
+    // 同时发起 start_task 的会话数
+    private static final int[] CONCURRENCY = {16, 128, 512, 1024};
+    private static final long HEARTBEAT_INTERVAL_MS = 5;
+
+    public static void main(String[] args) throws Exception {
+        int containerThreads = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        long handshakeMs = args.length > 1 ? Long.parseLong(args[1]) : 50;
+        int maxConcurrency = CONCURRENCY[CONCURRENCY.length - 1];
+        // 解码线程数覆盖最大并发握手数，桩服务自身不成为瓶颈
+        StubAgentServer server = new StubAgentServer(StubAgentServer.freePort(), maxConcurrency, handshakeMs, 0);
+        server.startAndWait();
+        // PythonAgentClient 每次连通、断开都会打印日志
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            // 预热一轮，不计入结果
+            for (String mode : new String[]{"blocking", "async"}) {
+                run(System.out, server.baseUri(), mode, CONCURRENCY[0], containerThreads);
+            }
+            out.printf("%-6s %-9s %10s %10s %10s %10s %10s %8s%n",
+                    "conc", "mode", "total ms", "opens/s", "p50 ms", "p99 ms", "hb p99 ms", "failed");
+            for (int concurrent : CONCURRENCY) {
+                for (String mode : new String[]{"blocking", "async"}) {
+                    run(out, server.baseUri(), mode, concurrent, containerThreads);
+                }
+            }
+        } finally {
+            System.setOut(out);
+            server.kill();
+        }
+    }
+
+    private static void run(PrintStream out, URI base, String mode, int concurrent, int containerThreads)
+            throws InterruptedException {
+        ExecutorService container = Executors.newFixedThreadPool(containerThreads);
+        LatencyHistogram openLatency = new LatencyHistogram();
+        LatencyHistogram heartbeatLatency = new LatencyHistogram();
+        CountDownLatch settled = new CountDownLatch(concurrent);
+        AtomicLong failed = new AtomicLong();
+        List<PythonAgentClient> clients = Collections.synchronizedList(new ArrayList<>());
+
+        Thread heartbeats = new Thread(() -> {
+            while (settled.getCount() > 0) {
+                long posted = System.nanoTime();
+                container.execute(() -> heartbeatLatency.recordNanos(System.nanoTime() - posted));
+                try {
+                    Thread.sleep(HEARTBEAT_INTERVAL_MS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        long start = System.nanoTime();
+        heartbeats.start();
+        for (int i = 0; i < concurrent; i++) {
+            String sessionId = mode + "-" + concurrent + "-" + i;
+            long requested = System.nanoTime();
+            container.execute(() -> {
+                Session session = new Session(requested, openLatency, settled, failed);
+                PythonAgentClient client = new PythonAgentClient(base.resolve("/ws/agent/" + sessionId), session);
+                clients.add(client);
+                if (mode.equals("async")) {
+                    client.connect();
+                    return;
+                }
+                try {
+                    client.connectBlocking();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        boolean done = settled.await(60, TimeUnit.SECONDS);
+        long totalNanos = System.nanoTime() - start;
+        heartbeats.join();
+
+        LatencySummary open = openLatency.summary();
+        LatencySummary heartbeat = heartbeatLatency.summary();
+        out.printf("%-6d %-9s %10.0f %10.0f %10.1f %10.1f %10.1f %8d%s%n",
+                concurrent, mode, totalNanos / 1e6, open.getCount() / (totalNanos / 1e9),
+                open.getP50Ms(), open.getP99Ms(), heartbeat.getP99Ms(), failed.get(), done ? "" : "  超时");
+
+        container.shutdownNow();
+        synchronized (clients) {
+            for (PythonAgentClient client : clients) {
+                client.close();
+            }
+        }
+        // 等连接与客户端线程释放，再开始下一组
+        Thread.sleep(1000);
+    }
+
+    /**
+     * 单个会话的上游回调：记录从 start_task 到连通的耗时
+     */
+    private static final class Session implements PythonAgentClient.Listener {
+        private final long requested;
+        private final LatencyHistogram openLatency;
+        private final CountDownLatch settled;
+        private final AtomicLong failed;
+        private boolean opened;
+
+        Session(long requested, LatencyHistogram openLatency, CountDownLatch settled, AtomicLong failed) {
+            this.requested = requested;
+            this.openLatency = openLatency;
+            this.settled = settled;
+            this.failed = failed;
+        }
+
+        @Override
+        public synchronized void onOpen() {
+            opened = true;
+            openLatency.recordNanos(System.nanoTime() - requested);
+            settled.countDown();
+        }
+
+        @Override
+        public void onMessage(String message) {
+        }
+
+        @Override
+        public synchronized void onClose(int code, String reason) {
+            if (!opened) {
+                opened = true;
+                failed.incrementAndGet();
+                settled.countDown();
+            }
+        }
+    }
+}
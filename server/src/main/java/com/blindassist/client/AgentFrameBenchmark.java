@@ -0,0 +1,124 @@
+package com.blindassist.client;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent 步骤帧编码对比：同一张截图分别以 JSON + Base64 文本帧与 {@link AgentBinaryFrame} 二进制帧发送，统计
+ * - 线上字节数（App -> 中转、中转 -> Python 相同）
+ * - App 组帧的 CPU 耗时：Base64 编码 + JSON 序列化 + UTF-8 编码，或拼接头部与 JPEG 字节
+ * - 中转处理的 CPU 耗时：文本帧按容器的做法先把 UTF-8 解码为字符串，流式读取 type 后
+ *   （多路复用时插入 session_id）重新编码为 UTF-8 发出；二进制帧只解码头部，多路复用时换头重新组帧
+ * 均为单线程 CPU 时间（ThreadMXBean），不含 WebSocket 掩码与网络收发。
+ * 用法：java -cp blindassist-server.jar com.blindassist.client.AgentFrameBenchmark [每项毫秒数]
+ */
+public class AgentFrameBenchmark {
+
+    // 截图 JPEG 大小：低质量小屏、典型 1080p、高质量大屏
+    private static final int[] JPEG_BYTES = {100 * 1024, 300 * 1024, 1024 * 1024};
+    private static final String SESSION_ID = "3f2a9c1e-5b7d-4e8f-a1c2-9d0e6b4f7a21";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    // 防止被当作死代码消除
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 1000;
+        System.out.printf("%-8s %-7s %10s %10s %12s %12s %12s%n",
+                "jpeg", "frame", "wire KB", "overhead", "app us", "relay us", "relay mux us");
+        for (int size : JPEG_BYTES) {
+            byte[] jpeg = new byte[size];
+            new Random(size).nextBytes(jpeg);
+
+            byte[] text = jsonFrame(jpeg);
+            double appJson = cpuMicros(millis, () -> jsonFrame(jpeg).length);
+            double relayJson = cpuMicros(millis, () -> relayText(text, false));
+            double relayJsonMux = cpuMicros(millis, () -> relayText(text, true));
+            print(size, "json", text.length, appJson, relayJson, relayJsonMux);
+
+            ByteBuffer binary = binaryFrame(jpeg);
+            double appBinary = cpuMicros(millis, () -> binaryFrame(jpeg).remaining());
+            double relayBinary = cpuMicros(millis, () -> relayBinary(binary, false));
+            double relayBinaryMux = cpuMicros(millis, () -> relayBinary(binary, true));
+            print(size, "binary", binary.remaining(), appBinary, relayBinary, relayBinaryMux);
+        }
+    }
+
+    /**
+     * App 的 JSON 模式：Base64 编码截图后序列化为文本帧
+     */
+    private static byte[] jsonFrame(byte[] jpeg) throws Exception {
+        ObjectNode json = JSON.createObjectNode();
+        json.put("type", "step");
+        json.put("screenshot", Base64.getEncoder().encodeToString(jpeg));
+        json.put("screen_info", "Step Screen");
+        return JSON.writeValueAsString(json).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * App 的二进制模式：头部只带路由字段，JPEG 字节原样附在其后
+     */
+    private static ByteBuffer binaryFrame(byte[] jpeg) {
+        String header = "{\"type\":\"step\",\"screen_info\":\"Step Screen\",\"seq\":42}";
+        return AgentBinaryFrame.withHeader(header, ByteBuffer.wrap(jpeg));
+    }
+
+    private static long relayText(byte[] frame, boolean mux) {
+        String payload = new String(frame, StandardCharsets.UTF_8);
+        if (!"step".equals(JsonFieldReader.readString(payload, "type"))) {
+            throw new IllegalStateException();
+        }
+        String upstream = mux ? MultiplexedUpstream.tag(SESSION_ID, payload) : payload;
+        return upstream.getBytes(StandardCharsets.UTF_8).length;
+    }
+
+    private static long relayBinary(ByteBuffer frame, boolean mux) {
+        String header = AgentBinaryFrame.readHeader(frame);
+        if (!"step".equals(JsonFieldReader.readString(header, "type"))) {
+            throw new IllegalStateException();
+        }
+        if (!mux) {
+            return frame.remaining();
+        }
+        return AgentBinaryFrame.withHeader(MultiplexedUpstream.tag(SESSION_ID, header),
+                AgentBinaryFrame.image(frame)).remaining();
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        long run() throws Exception;
+    }
+
+    /**
+     * @return 预热后每次操作的平均 CPU 时间（微秒）
+     */
+    private static double cpuMicros(long millis, Op op) throws Exception {
+        for (long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis / 2); System.nanoTime() < end; ) {
+            sink += op.run();
+        }
+        long start = THREADS.getCurrentThreadCpuTime();
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long count = 0;
+        while (System.nanoTime() < end) {
+            sink += op.run();
+            count++;
+        }
+        return (THREADS.getCurrentThreadCpuTime() - start) / 1000.0 / count;
+    }
+
+    private static void print(int jpegBytes, String frame, int wireBytes, double app, double relay, double relayMux) {
+        System.out.printf("%-8s %-7s %10.1f %9.1f%% %12.1f %12.1f %12.1f%n",
+                jpegBytes / 1024 + "KB", frame, wireBytes / 1024.0, 100.0 * (wireBytes - jpegBytes) / jpegBytes,
+                app, relay, relayMux);
+    }
+}
@@ -0,0 +1,18 @@
+package com.blindassist.client;
+
+/**
+ * Python 模型服务的上游传输方式
+ */
+public interface AgentUpstream {
+
+    /**
+     * 为 App 会话创建上游通道，此时尚未连接，需调用 {@link UpstreamChannel#connect()}
+     */
+    UpstreamChannel newChannel(String sessionId, PythonAgentClient.Listener listener);
+
+    /**
+     * 关闭传输层持有的全部连接
+     */
+    default void shutdown() {
+    }
+}
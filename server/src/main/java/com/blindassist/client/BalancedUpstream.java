@@ -0,0 +1,140 @@
+package com.blindassist.client;
+
+import java.nio.ByteBuffer;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 多实例上游：每个新会话从 {@link EndpointPool} 选择在途步骤最少的可用实例，
+ * 再交给该实例自己的传输（独占连接或多路复用）。
+ * 通道层记录握手成败（驱动熔断）与每个 init/step 的回复延迟（驱动离群摘除）。
+ */
+public class BalancedUpstream implements AgentUpstream {
+
+    private final EndpointPool pool;
+    private final Map<UpstreamEndpoint, AgentUpstream> transports = new IdentityHashMap<>();
+
+    public BalancedUpstream(EndpointPool pool, Function<UpstreamEndpoint, AgentUpstream> transportFactory) {
+        this.pool = pool;
+        for (UpstreamEndpoint endpoint : pool.getEndpoints()) {
+            transports.put(endpoint, transportFactory.apply(endpoint));
+        }
+    }
+
+    /**
+     * @throws UpstreamUnavailableException 所有实例均不可用（熔断、探测失败或被摘除）
+     */
+    @Override
+    public UpstreamChannel newChannel(String sessionId, PythonAgentClient.Listener listener) {
+        UpstreamEndpoint endpoint = pool.acquire();
+        if (endpoint == null) {
+            throw new UpstreamUnavailableException("AI 模型服务暂不可用，请稍后再试");
+        }
+        TrackedChannel tracked = new TrackedChannel(endpoint, listener);
+        tracked.delegate = transports.get(endpoint).newChannel(sessionId, tracked);
+        return tracked;
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+        transports.values().forEach(AgentUpstream::shutdown);
+    }
+
+    private final class TrackedChannel implements UpstreamChannel, PythonAgentClient.Listener {
+
+        private final UpstreamEndpoint endpoint;
+        private final PythonAgentClient.Listener listener;
+        private UpstreamChannel delegate;
+
+        private boolean opened;
+        private boolean failed;
+        private long awaitingSince;
+
+        TrackedChannel(UpstreamEndpoint endpoint, PythonAgentClient.Listener listener) {
+            this.endpoint = endpoint;
+            this.listener = listener;
+        }
+
+        @Override
+        public void connect() {
+            delegate.connect();
+        }
+
+        @Override
+        public void send(String payload) {
+            markSent();
+            delegate.send(payload);
+        }
+
+        @Override
+        public void send(ByteBuffer frame) {
+            markSent();
+            delegate.send(frame);
+        }
+
+        @Override
+        public boolean isOpen() {
+            return delegate.isOpen();
+        }
+
+        @Override
+        public void close() {
+            // 握手期间被关闭（通常是连接超时）同样计入熔断
+            recordFailureIfNotOpened();
+            settleOutstanding();
+            delegate.close();
+        }
+
+        @Override
+        public void onOpen() {
+            synchronized (this) {
+                if (!opened) {
+                    opened = true;
+                    endpoint.recordConnectSuccess();
+                }
+            }
+            listener.onOpen();
+        }
+
+        @Override
+        public void onMessage(String message) {
+            synchronized (this) {
+                if (awaitingSince != 0) {
+                    endpoint.stepReplied(System.currentTimeMillis() - awaitingSince);
+                    awaitingSince = 0;
+                }
+            }
+            listener.onMessage(message);
+        }
+
+        @Override
+        public void onClose(int code, String reason) {
+            recordFailureIfNotOpened();
+            settleOutstanding();
+            listener.onClose(code, reason);
+        }
+
+        private synchronized void recordFailureIfNotOpened() {
+            if (!opened && !failed) {
+                failed = true;
+                pool.recordConnectFailure(endpoint);
+            }
+        }
+
+        private synchronized void markSent() {
+            if (awaitingSince == 0) {
+                awaitingSince = System.currentTimeMillis();
+                endpoint.stepSent();
+            }
+        }
+
+        private synchronized void settleOutstanding() {
+            if (awaitingSince != 0) {
+                awaitingSince = 0;
+                endpoint.stepAbandoned();
+            }
+        }
+    }
+}
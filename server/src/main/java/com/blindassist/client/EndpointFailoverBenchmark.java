@@ -0,0 +1,287 @@
+package com.blindassist.client;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.metrics.LatencyHistogram;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多实例故障注入测试：若干个本地 {@link StubAgentServer} 经 {@link EndpointPool} 与 {@link BalancedUpstream} 接入，
+ * 一组闭环客户端不断开始短任务（每个会话 init + 若干 step，收到回复立即发下一个，做完即结束并开始新会话）。
+ * 运行分三段：全部正常；一个实例变慢；再杀掉另一个实例（断开其全部连接并停止监听）。
+ * 对比两种实例池配置：
+ * - guarded：主动探测、熔断与离群摘除按默认参数开启（探测间隔缩短以适应测试时长）
+ * - least-outstanding：只按在途步骤数选择实例，不探测、不熔断、不摘除
+ * 统计每段的步骤延迟分布、会话开始失败（无可用实例或握手失败）与被断开的会话数，以及新会话在各实例间的分布。
+ * 用法：java -cp blindassist-server.jar com.blindassist.client.EndpointFailoverBenchmark
+ * [每段秒数] [客户端数] [实例数] [正常回复ms] [慢实例回复ms]
+ */
+public class EndpointFailoverBenchmark {
+
+    private static final String[] PHASES = {"normal", "slow", "killed"};
+    private static final int STEPS_PER_SESSION = 5;
+    private static final long RETRY_MS = 50;
+
+    public static void main(String[] args) throws Exception {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 8;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int instances = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long replyMs = args.length > 3 ? Long.parseLong(args[3]) : 20;
+        long slowReplyMs = args.length > 4 ? Long.parseLong(args[4]) : 500;
+        // PythonAgentClient 每次连通、断开、出错都会打印日志，熔断与摘除日志同样不在此输出
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            out.printf("%-18s %-7s %7s %9s %9s %9s %8s %8s %8s  %s%n", "pool", "phase", "steps",
+                    "p50 ms", "p99 ms", "max ms", "unavail", "connfail", "dropped", "new sessions per instance");
+            for (String mode : new String[]{"least-outstanding", "guarded"}) {
+                run(out, mode, seconds, clients, instances, replyMs, slowReplyMs);
+            }
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+        }
+    }
+
+    private static void run(PrintStream out, String mode, long seconds, int clientCount, int instances,
+                            long replyMs, long slowReplyMs) throws Exception {
+        List<StubAgentServer> servers = new ArrayList<>();
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            StubAgentServer server = new StubAgentServer(StubAgentServer.freePort(), 2, 0, replyMs);
+            server.startAndWait();
+            servers.add(server);
+            uris.add(server.baseUri());
+        }
+        EndpointPool.Settings settings = new EndpointPool.Settings();
+        if (mode.equals("guarded")) {
+            settings.probeIntervalMs = 500;
+        } else {
+            settings.probeIntervalMs = TimeUnit.HOURS.toMillis(1);
+            settings.breakerFailureThreshold = Integer.MAX_VALUE;
+            settings.outlierLatencyFactor = Double.MAX_VALUE;
+        }
+        EndpointPool pool = new EndpointPool(uris, settings);
+        BalancedUpstream upstream = new BalancedUpstream(pool,
+                endpoint -> new PerSessionUpstream(endpoint.getUri().resolve("/ws/agent/").toString()));
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        Stats stats = new Stats();
+
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < clientCount; i++) {
+            Client client = new Client(mode + "-" + i, upstream, scheduler, stats);
+            clients.add(client);
+            client.startSession();
+        }
+        StubAgentServer slow = servers.get(instances - 2);
+        StubAgentServer killed = servers.get(instances - 1);
+        for (int phase = 0; phase < PHASES.length; phase++) {
+            if (phase == 1) {
+                slow.setReplyDelayMs(slowReplyMs);
+            } else if (phase == 2) {
+                killed.kill();
+            }
+            long[] acceptedBefore = accepted(servers);
+            Stats.Phase current = stats.begin();
+            Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+            long[] acceptedAfter = accepted(servers);
+
+            LatencySummary summary = current.latency.summary();
+            StringBuilder spread = new StringBuilder();
+            for (int i = 0; i < instances; i++) {
+                String label = servers.get(i) == slow ? "slow" : servers.get(i) == killed ? "killed" : "ok";
+                spread.append(String.format("%s=%d ", label, acceptedAfter[i] - acceptedBefore[i]));
+            }
+            out.printf("%-18s %-7s %7d %9.1f %9.1f %9.1f %8d %8d %8d  %s%n", mode, PHASES[phase],
+                    summary.getCount(), summary.getP50Ms(), summary.getP99Ms(), summary.getMaxMs(),
+                    current.unavailable.get(), current.connectFailures.get(), current.dropped.get(), spread);
+        }
+
+        for (Client client : clients) {
+            client.stop();
+        }
+        scheduler.shutdownNow();
+        upstream.shutdown();
+        for (StubAgentServer server : servers) {
+            if (server != killed) {
+                server.kill();
+            }
+        }
+        Thread.sleep(1000);
+    }
+
+    private static long[] accepted(List<StubAgentServer> servers) {
+        long[] accepted = new long[servers.size()];
+        for (int i = 0; i < accepted.length; i++) {
+            accepted[i] = servers.get(i).getAccepted();
+        }
+        return accepted;
+    }
+
+    /**
+     * 按阶段分开的计数，事件计入发生时所在的阶段
+     */
+    private static final class Stats {
+
+        static final class Phase {
+            final LatencyHistogram latency = new LatencyHistogram();
+            final AtomicLong unavailable = new AtomicLong();
+            final AtomicLong connectFailures = new AtomicLong();
+            final AtomicLong dropped = new AtomicLong();
+        }
+
+        private volatile Phase current = new Phase();
+
+        Phase begin() {
+            current = new Phase();
+            return current;
+        }
+
+        Phase current() {
+            return current;
+        }
+    }
+
+    /**
+     * 一个闭环客户端：依次开始会话，每个会话做完固定步数后结束并开始下一个
+     */
+    private static final class Client {
+        private final String name;
+        private final AgentUpstream upstream;
+        private final ScheduledExecutorService scheduler;
+        private final Stats stats;
+        private long sessions;
+        private volatile boolean stopped;
+        private volatile Session session;
+
+        Client(String name, AgentUpstream upstream, ScheduledExecutorService scheduler, Stats stats) {
+            this.name = name;
+            this.upstream = upstream;
+            this.scheduler = scheduler;
+            this.stats = stats;
+        }
+
+        void startSession() {
+            if (stopped) {
+                return;
+            }
+            Session next = new Session(this);
+            try {
+                next.channel = upstream.newChannel(name + "-" + (++sessions), next);
+            } catch (UpstreamUnavailableException e) {
+                stats.current().unavailable.incrementAndGet();
+                retryLater();
+                return;
+            }
+            session = next;
+            // 与 stop 交叉执行时由这里结束新会话，未关闭的客户端线程会让进程无法退出
+            if (stopped) {
+                next.finish();
+                return;
+            }
+            next.channel.connect();
+        }
+
+        void retryLater() {
+            try {
+                scheduler.schedule(this::startSession, RETRY_MS, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // 本组已结束
+            }
+        }
+
+        void stop() {
+            stopped = true;
+            Session current = session;
+            if (current != null) {
+                current.finish();
+            }
+        }
+    }
+
+    /**
+     * 一个 Agent 会话的上游回调
+     */
+    private static final class Session implements PythonAgentClient.Listener {
+        private final Client client;
+        private UpstreamChannel channel;
+        private boolean opened;
+        private boolean finished;
+        private int steps;
+        private long sentAt;
+
+        Session(Client client) {
+            this.client = client;
+        }
+
+        @Override
+        public void onOpen() {
+            synchronized (this) {
+                opened = true;
+            }
+            send("{\"type\":\"init\",\"task\":\"打开外卖应用\",\"screenshot\":\"\"}");
+        }
+
+        @Override
+        public void onMessage(String message) {
+            boolean done;
+            synchronized (this) {
+                client.stats.current().latency.recordNanos(System.nanoTime() - sentAt);
+                done = ++steps > STEPS_PER_SESSION;
+            }
+            if (!done) {
+                send("{\"type\":\"step\",\"screenshot\":\"\"}");
+                return;
+            }
+            finish();
+            client.scheduler.execute(client::startSession);
+        }
+
+        @Override
+        public void onClose(int code, String reason) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+                if (opened) {
+                    client.stats.current().dropped.incrementAndGet();
+                } else {
+                    client.stats.current().connectFailures.incrementAndGet();
+                }
+            }
+            client.retryLater();
+        }
+
+        void finish() {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+                finished = true;
+            }
+            channel.close();
+        }
+
+        private void send(String message) {
+            synchronized (this) {
+                sentAt = System.nanoTime();
+            }
+            try {
+                channel.send(message);
+            } catch (RuntimeException e) {
+                // 连接恰好断开，由 onClose 处理
+            }
+        }
+    }
+}
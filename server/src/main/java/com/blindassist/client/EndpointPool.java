@@ -0,0 +1,143 @@
+package com.blindassist.client;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Python 模型服务实例池：
+ * - acquire 按在途步骤数最少选择实例，跳过探测失败、被摘除或熔断中的实例
+ * - 后台周期性对每个实例做 TCP 探测，并按步骤延迟摘除离群实例
+ */
+public class EndpointPool {
+
+    /**
+     * 健康检查、熔断与离群摘除参数
+     */
+    public static class Settings {
+        public long probeIntervalMs = 5000;
+        public int probeTimeoutMs = 1000;
+        public int breakerFailureThreshold = 3;
+        public long breakerOpenMs = 15000;
+        public double outlierLatencyFactor = 3.0;
+        public int outlierMinSamples = 5;
+        public long outlierEjectionMs = 30000;
+        public int outlierMaxEjectionPercent = 50;
+    }
+
+    private final List<UpstreamEndpoint> endpoints;
+    private final Settings settings;
+    private final ScheduledExecutorService prober = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "agent-endpoint-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public EndpointPool(List<URI> uris, Settings settings) {
+        if (uris.isEmpty()) {
+            throw new IllegalArgumentException("至少需要配置一个 Python 模型服务地址");
+        }
+        this.endpoints = new ArrayList<>();
+        for (URI uri : uris) {
+            endpoints.add(new UpstreamEndpoint(uri));
+        }
+        this.settings = settings;
+        prober.scheduleWithFixedDelay(this::probeAndEject, 0, settings.probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    public List<UpstreamEndpoint> getEndpoints() {
+        return endpoints;
+    }
+
+    /**
+     * @return 选中的实例；全部不可用时返回 null，调用方应立即向 App 报错
+     */
+    public UpstreamEndpoint acquire() {
+        long now = System.currentTimeMillis();
+        List<UpstreamEndpoint> candidates = new ArrayList<>(endpoints);
+        // 在途数随时变化，逐个取当前最小者，避免并发修改下排序比较器不一致
+        while (!candidates.isEmpty()) {
+            UpstreamEndpoint best = candidates.get(0);
+            for (UpstreamEndpoint endpoint : candidates) {
+                if (endpoint.getOutstanding() < best.getOutstanding()) {
+                    best = endpoint;
+                }
+            }
+            if (best.tryAcquire(now)) {
+                return best;
+            }
+            candidates.remove(best);
+        }
+        return null;
+    }
+
+    void recordConnectFailure(UpstreamEndpoint endpoint) {
+        endpoint.recordConnectFailure(System.currentTimeMillis(),
+                settings.breakerFailureThreshold, settings.breakerOpenMs);
+    }
+
+    public void shutdown() {
+        prober.shutdownNow();
+    }
+
+    private void probeAndEject() {
+        for (UpstreamEndpoint endpoint : endpoints) {
+            endpoint.setHealthy(probe(endpoint.getUri()));
+        }
+        ejectOutliers(System.currentTimeMillis());
+    }
+
+    private boolean probe(URI uri) {
+        int port = uri.getPort() != -1 ? uri.getPort() : ("wss".equals(uri.getScheme()) ? 443 : 80);
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress(uri.getHost(), port), settings.probeTimeoutMs);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 步骤延迟超过中位数 N 倍的实例被摘除一段时间；同时被摘除的实例数不超过上限，且至少保留一个
+     */
+    private void ejectOutliers(long now) {
+        List<UpstreamEndpoint> sampled = new ArrayList<>();
+        List<Double> latencies = new ArrayList<>();
+        int ejected = 0;
+        for (UpstreamEndpoint endpoint : endpoints) {
+            if (endpoint.isEjected(now)) {
+                ejected++;
+            } else if (endpoint.getLatencySamples() >= settings.outlierMinSamples) {
+                sampled.add(endpoint);
+                latencies.add(endpoint.getLatencyEwmaMs());
+            }
+        }
+        if (sampled.size() < 2) {
+            return;
+        }
+        List<Double> sorted = new ArrayList<>(latencies);
+        sorted.sort(Comparator.naturalOrder());
+        // 取下中位数：两实例时以较快者为基准
+        double median = sorted.get((sorted.size() - 1) / 2);
+        double threshold = median * settings.outlierLatencyFactor;
+        int maxEjected = Math.min(endpoints.size() - 1, endpoints.size() * settings.outlierMaxEjectionPercent / 100);
+        for (int i = 0; i < sampled.size() && ejected < maxEjected; i++) {
+            double latency = latencies.get(i);
+            if (latency <= threshold) {
+                continue;
+            }
+            UpstreamEndpoint endpoint = sampled.get(i);
+            System.err.println("Python 模型服务步骤延迟离群，暂时摘除: " + endpoint.getUri()
+                    + " (" + Math.round(latency) + "ms, 中位数 " + Math.round(median) + "ms)");
+            endpoint.eject(now + settings.outlierEjectionMs);
+            ejected++;
+        }
+    }
+}
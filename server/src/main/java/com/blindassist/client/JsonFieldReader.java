@@ -0,0 +1,43 @@
+package com.blindassist.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * 流式读取 JSON 顶层的单个字符串字段：
+ * - 读到目标字段立即返回，不构建对象树
+ * - 其余字段（包括几百 KB 的 Base64 截图）只被扫描跳过，不会被解码成 String
+ * 用于中转层仅凭路由字段转发整条原始消息。
+ */
+public final class JsonFieldReader {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private JsonFieldReader() {
+    }
+
+    /**
+     * @return 字段值；字段不存在、不是标量或 JSON 非法时返回 null
+     */
+    public static String readString(String json, String field) {
+        try (JsonParser parser = JSON.createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (field.equals(name)) {
+                    return value.isScalarValue() ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+        } catch (IOException e) {
+            System.err.println("无法读取 JSON 字段 " + field + ": " + e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,178 @@
+package com.blindassist.client;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import org.java_websocket.exceptions.WebsocketNotConnectedException;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 多路复用模式：固定数量的上游连接承载全部 App 会话。
+ * - 发往 Python 的每一帧都在顶层带上 "session_id" 字段（二进制帧写入其 JSON 头部）
+ * - Python 的回复同样需携带 "session_id"，流式读取该字段后原样分发回对应的会话
+ * - 会话结束时发送 {"session_id": ..., "type": "close"} 通知 Python 释放上下文
+ */
+public class MultiplexedUpstream implements AgentUpstream {
+
+    private final URI uri;
+    private final Connection[] pool;
+
+    public MultiplexedUpstream(URI uri, int poolSize) {
+        this.uri = uri;
+        this.pool = new Connection[Math.max(1, poolSize)];
+        for (int i = 0; i < pool.length; i++) {
+            pool[i] = new Connection();
+        }
+    }
+
+    @Override
+    public UpstreamChannel newChannel(String sessionId, PythonAgentClient.Listener listener) {
+        Connection connection = pool[Math.floorMod(sessionId.hashCode(), pool.length)];
+        return new MuxChannel(connection, sessionId, listener);
+    }
+
+    @Override
+    public void shutdown() {
+        for (Connection connection : pool) {
+            connection.close();
+        }
+    }
+
+    /**
+     * 在 JSON 对象的最前面插入 session_id 字段，不重新序列化其余内容
+     */
+    static String tag(String sessionId, String payload) {
+        String quoted = "\"session_id\":\"" + new String(JsonStringEncoder.getInstance().quoteAsString(sessionId)) + "\"";
+        String body = payload.substring(payload.indexOf('{') + 1).stripLeading();
+        return body.startsWith("}") ? "{" + quoted + "}" : "{" + quoted + "," + body;
+    }
+
+    /**
+     * 池中的一条物理连接，断开后在下一个会话接入时懒重建。
+     * 每个会话绑定到注册时的那个客户端：客户端断开时，绑定在它上面的会话全部收到 onClose 并由上层结束，
+     * 不会被悄悄转移到重建后的新连接上（Python 侧的会话上下文已随旧连接丢失）。
+     */
+    private final class Connection {
+
+        private final Map<String, MuxChannel> channels = new ConcurrentHashMap<>();
+        private volatile PythonAgentClient client;
+
+        void register(MuxChannel channel) {
+            boolean open;
+            synchronized (this) {
+                PythonAgentClient current = client;
+                if (current == null || current.isClosing() || current.isClosed()) {
+                    ClientListener listener = new ClientListener();
+                    current = new PythonAgentClient(uri, listener);
+                    listener.client = current;
+                    client = current;
+                    current.connect();
+                }
+                channel.client = current;
+                channels.put(channel.sessionId, channel);
+                open = current.isOpen();
+            }
+            // 回调放在锁外执行，避免与会话锁形成环
+            if (open) {
+                channel.listener.onOpen();
+            }
+        }
+
+        void unregister(MuxChannel channel) {
+            if (channels.remove(channel.sessionId, channel) && channel.client.isOpen()) {
+                try {
+                    channel.client.send(tag(channel.sessionId, "{\"type\":\"close\"}"));
+                } catch (WebsocketNotConnectedException e) {
+                    // 连接恰好断开，Python 侧的上下文随连接一起释放
+                }
+            }
+        }
+
+        synchronized void close() {
+            if (client != null) {
+                client.close();
+            }
+        }
+
+        /**
+         * 单个物理客户端的回调，只分发给绑定在该客户端上的会话
+         */
+        private final class ClientListener implements PythonAgentClient.Listener {
+
+            private PythonAgentClient client;
+
+            @Override
+            public void onOpen() {
+                for (MuxChannel channel : channels.values()) {
+                    if (channel.client == client) {
+                        channel.listener.onOpen();
+                    }
+                }
+            }
+
+            @Override
+            public void onMessage(String message) {
+                String sessionId = JsonFieldReader.readString(message, "session_id");
+                MuxChannel channel = sessionId != null ? channels.get(sessionId) : null;
+                if (channel != null && channel.client == client) {
+                    channel.listener.onMessage(message);
+                } else {
+                    System.err.println("丢弃无法路由的 Python 回复, session_id=" + sessionId);
+                }
+            }
+
+            @Override
+            public void onClose(int code, String reason) {
+                for (MuxChannel channel : channels.values()) {
+                    if (channel.client == client && channels.remove(channel.sessionId, channel)) {
+                        channel.listener.onClose(code, reason);
+                    }
+                }
+            }
+        }
+    }
+
+    private static final class MuxChannel implements UpstreamChannel {
+
+        private final Connection connection;
+        private final String sessionId;
+        private final PythonAgentClient.Listener listener;
+        // 注册时绑定的物理客户端，之后不再改变
+        private volatile PythonAgentClient client;
+
+        MuxChannel(Connection connection, String sessionId, PythonAgentClient.Listener listener) {
+            this.connection = connection;
+            this.sessionId = sessionId;
+            this.listener = listener;
+        }
+
+        @Override
+        public void connect() {
+            connection.register(this);
+        }
+
+        @Override
+        public void send(String payload) {
+            client.send(tag(sessionId, payload));
+        }
+
+        @Override
+        public void send(ByteBuffer frame) {
+            String header = tag(sessionId, AgentBinaryFrame.readHeader(frame));
+            client.send(AgentBinaryFrame.withHeader(header, AgentBinaryFrame.image(frame)));
+        }
+
+        @Override
+        public boolean isOpen() {
+            PythonAgentClient bound = client;
+            return bound != null && bound.isOpen() && connection.channels.get(sessionId) == this;
+        }
+
+        @Override
+        public void close() {
+            connection.unregister(this);
+        }
+    }
+}
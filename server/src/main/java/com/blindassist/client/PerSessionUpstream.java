@@ -0,0 +1,47 @@
+package com.blindassist.client;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+
+/**
+ * 兼容模式：每个 App 会话独占一条到 ws/agent/{sessionId} 的连接
+ */
+public class PerSessionUpstream implements AgentUpstream {
+
+    private final String baseUri;
+
+    public PerSessionUpstream(String baseUri) {
+        this.baseUri = baseUri;
+    }
+
+    @Override
+    public UpstreamChannel newChannel(String sessionId, PythonAgentClient.Listener listener) {
+        PythonAgentClient client = new PythonAgentClient(URI.create(baseUri + sessionId), listener);
+        return new UpstreamChannel() {
+            @Override
+            public void connect() {
+                client.connect();
+            }
+
+            @Override
+            public void send(String payload) {
+                client.send(payload);
+            }
+
+            @Override
+            public void send(ByteBuffer frame) {
+                client.send(frame);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return client.isOpen();
+            }
+
+            @Override
+            public void close() {
+                client.close();
+            }
+        };
+    }
+}
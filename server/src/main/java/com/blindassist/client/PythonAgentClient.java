@@ -1,42 +1,58 @@
-package com.blindassist.server.client;
+package com.blindassist.client;
 
 import org.java_websocket.client.WebSocketClient;
 import org.java_websocket.handshake.ServerHandshake;
 import java.net.URI;
-import java.util.function.Consumer;
 
 /**
  * 负责与 Python AutoGLM 服务维持长连接
  */
 public class PythonAgentClient extends WebSocketClient {
 
-    private final Consumer<String> onMessageCallback;
+    /**
+     * 连接生命周期回调，均在 Java-WebSocket 自身的读线程上触发
+     */
+    public interface Listener {
+        void onOpen();
 
-    public PythonAgentClient(URI serverUri, Consumer<String> onMessageCallback) {
+        void onMessage(String message);
+
+        void onClose(int code, String reason);
+    }
+
+    private final Listener listener;
+
+    public PythonAgentClient(URI serverUri, Listener listener) {
         super(serverUri);
-        this.onMessageCallback = onMessageCallback;
+        this.listener = listener;
     }
 
     @Override
     public void onOpen(ServerHandshake handshakedata) {
         System.out.println("已连接到 Python 模型服务: " + getURI());
+        if (listener != null) {
+            listener.onOpen();
+        }
     }
 
     @Override
     public void onMessage(String message) {
         // 收到 Python 的回复，触发回调传回给 AgentService
-        if (onMessageCallback != null) {
-            onMessageCallback.accept(message);
+        if (listener != null) {
+            listener.onMessage(message);
         }
     }
 
     @Override
     public void onClose(int code, String reason, boolean remote) {
         System.out.println("Python 模型连接已断开: " + reason);
+        if (listener != null) {
+            listener.onClose(code, reason);
+        }
     }
 
     @Override
     public void onError(Exception ex) {
         System.err.println("Python 连接错误: " + ex.getMessage());
     }
-}
\ No newline at end of file
+}
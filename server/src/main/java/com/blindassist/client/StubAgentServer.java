@@ -0,0 +1,168 @@
+package com.blindassist.client;
+
+import org.java_websocket.WebSocket;
+import org.java_websocket.drafts.Draft;
+import org.java_websocket.exceptions.InvalidDataException;
+import org.java_websocket.framing.CloseFrame;
+import org.java_websocket.handshake.ClientHandshake;
+import org.java_websocket.handshake.ServerHandshakeBuilder;
+import org.java_websocket.server.WebSocketServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Python 模型服务桩，仅供 Agent 上游相关的基准测试使用，不注册到服务中：
+ * - 接受独占连接（ws/agent/{sessionId}）与多路复用连接，握手可注入延迟（在解码线程上等待，解码线程数需覆盖并发握手数）
+ * - 每收到一个 init/step 帧（文本或二进制）回复一帧 {"type":"step_result"}；多路复用帧原样带回 session_id，
+ *   会话结束的 close 帧不回复。回复延迟可随时调整，模拟变慢的实例
+ * - 单独运行时在子进程中提供服务，启动完成后在标准输出打印 ready：
+ *   java -cp blindassist-server.jar com.blindassist.client.StubAgentServer 端口 [回复延迟ms]
+ */
+public class StubAgentServer extends WebSocketServer {
+
+    private final long handshakeDelayMs;
+    private final ScheduledExecutorService replies;
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final AtomicLong accepted = new AtomicLong();
+    private volatile long replyDelayMs;
+
+    public StubAgentServer(int port, int decoders, long handshakeDelayMs, long replyDelayMs) {
+        super(new InetSocketAddress("127.0.0.1", port), decoders);
+        this.handshakeDelayMs = handshakeDelayMs;
+        this.replyDelayMs = replyDelayMs;
+        this.replies = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stub-agent-reply");
+            t.setDaemon(true);
+            return t;
+        });
+        setReuseAddr(true);
+        setTcpNoDelay(true);
+    }
+
+    public static void main(String[] args) throws Exception {
+        int port = Integer.parseInt(args[0]);
+        long replyDelayMs = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        StubAgentServer server = new StubAgentServer(port, Runtime.getRuntime().availableProcessors(), 0, replyDelayMs);
+        server.startAndWait();
+        System.out.println("ready");
+        Thread.currentThread().join();
+    }
+
+    /**
+     * @return 本机当前空闲的端口
+     */
+    public static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    public URI baseUri() {
+        return URI.create("ws://127.0.0.1:" + getPort());
+    }
+
+    public void startAndWait() throws InterruptedException {
+        start();
+        started.await();
+    }
+
+    /**
+     * @return 累计建立的连接数
+     */
+    public long getAccepted() {
+        return accepted.get();
+    }
+
+    public void setReplyDelayMs(long replyDelayMs) {
+        this.replyDelayMs = replyDelayMs;
+    }
+
+    /**
+     * 关闭监听并断开全部连接，模拟实例被杀
+     */
+    public void kill() throws InterruptedException {
+        replies.shutdownNow();
+        stop(0);
+    }
+
+    @Override
+    public ServerHandshakeBuilder onWebsocketHandshakeReceivedAsServer(WebSocket conn, Draft draft,
+                                                                     ClientHandshake request)
+            throws InvalidDataException {
+        if (handshakeDelayMs > 0) {
+            try {
+                Thread.sleep(handshakeDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InvalidDataException(CloseFrame.GOING_AWAY, "stub server stopping");
+            }
+        }
+        return super.onWebsocketHandshakeReceivedAsServer(conn, draft, request);
+    }
+
+    @Override
+    public void onOpen(WebSocket conn, ClientHandshake handshake) {
+        accepted.incrementAndGet();
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, String message) {
+        reply(conn, message);
+    }
+
+    @Override
+    public void onMessage(WebSocket conn, ByteBuffer message) {
+        reply(conn, AgentBinaryFrame.readHeader(message));
+    }
+
+    @Override
+    public void onClose(WebSocket conn, int code, String reason, boolean remote) {
+    }
+
+    @Override
+    public void onError(WebSocket conn, Exception ex) {
+    }
+
+    @Override
+    public void onStart() {
+        started.countDown();
+    }
+
+    private void reply(WebSocket conn, String request) {
+        if ("close".equals(JsonFieldReader.readString(request, "type"))) {
+            return;
+        }
+        String sessionId = JsonFieldReader.readString(request, "session_id");
+        String reply = "{\"type\":\"step_result\",\"action\":\"tap\",\"x\":540,\"y\":1200}";
+        String tagged = sessionId != null ? MultiplexedUpstream.tag(sessionId, reply) : reply;
+        long delay = replyDelayMs;
+        if (delay <= 0) {
+            send(conn, tagged);
+            return;
+        }
+        try {
+            replies.schedule(() -> send(conn, tagged), delay, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            // 已被 kill
+        }
+    }
+
+    private static void send(WebSocket conn, String message) {
+        if (conn.isOpen()) {
+            try {
+                conn.send(message);
+            } catch (RuntimeException e) {
+                // 对端恰好断开
+            }
+        }
+    }
+}
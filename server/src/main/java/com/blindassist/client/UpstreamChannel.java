@@ -0,0 +1,26 @@
+package com.blindassist.client;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 单个 App 会话到 Python 模型服务的逻辑通道。
+ * 既可以是独占的一条 WebSocket 连接，也可以是共享连接上的一个子会话。
+ */
+public interface UpstreamChannel {
+
+    /**
+     * 发起连接（非阻塞），结果通过 {@link PythonAgentClient.Listener} 回调
+     */
+    void connect();
+
+    void send(String payload);
+
+    /**
+     * 发送二进制帧（见 {@link AgentBinaryFrame}），缓冲区在调用返回前即被消费
+     */
+    void send(ByteBuffer frame);
+
+    boolean isOpen();
+
+    void close();
+}
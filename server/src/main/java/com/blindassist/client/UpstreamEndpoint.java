@@ -0,0 +1,131 @@
+package com.blindassist.client;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 一个 Python 模型服务实例的运行状态：
+ * - outstanding：已发出、尚未收到回复的 init/step 数，用于最少在途路由
+ * - 主动探测结果（healthy）与基于步骤延迟的离群摘除（ejectedUntil）
+ * - 熔断器：连续握手失败达到阈值后打开，冷却结束后放行一次试探连接
+ */
+public class UpstreamEndpoint {
+
+    public enum BreakerState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final URI uri;
+    private final AtomicInteger outstanding = new AtomicInteger();
+
+    private volatile boolean healthy = true;
+    private volatile long ejectedUntil;
+
+    private BreakerState breakerState = BreakerState.CLOSED;
+    private int consecutiveFailures;
+    private long breakerOpenUntil;
+
+    private double latencyEwmaMs;
+    private long latencySamples;
+
+    public UpstreamEndpoint(URI uri) {
+        this.uri = uri;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getOutstanding() {
+        return outstanding.get();
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isEjected(long now) {
+        return now < ejectedUntil;
+    }
+
+    public synchronized BreakerState getBreakerState() {
+        return breakerState;
+    }
+
+    public synchronized double getLatencyEwmaMs() {
+        return latencyEwmaMs;
+    }
+
+    public synchronized long getLatencySamples() {
+        return latencySamples;
+    }
+
+    /**
+     * 尝试为新会话占用该实例；熔断冷却结束时只放行一个试探会话
+     */
+    synchronized boolean tryAcquire(long now) {
+        if (!healthy || isEjected(now)) {
+            return false;
+        }
+        switch (breakerState) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now >= breakerOpenUntil) {
+                    breakerState = BreakerState.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    synchronized void recordConnectSuccess() {
+        breakerState = BreakerState.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    synchronized void recordConnectFailure(long now, int failureThreshold, long openMs) {
+        consecutiveFailures++;
+        if (breakerState == BreakerState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (breakerState != BreakerState.OPEN) {
+                System.err.println("Python 模型服务熔断: " + uri);
+            }
+            breakerState = BreakerState.OPEN;
+            breakerOpenUntil = now + openMs;
+        }
+    }
+
+    void stepSent() {
+        outstanding.incrementAndGet();
+    }
+
+    void stepAbandoned() {
+        outstanding.decrementAndGet();
+    }
+
+    synchronized void stepReplied(long latencyMs) {
+        outstanding.decrementAndGet();
+        latencyEwmaMs = latencySamples == 0 ? latencyMs : latencyEwmaMs * 0.8 + latencyMs * 0.2;
+        latencySamples++;
+    }
+
+    void setHealthy(boolean healthy) {
+        if (this.healthy != healthy) {
+            System.out.println("Python 模型服务" + (healthy ? "恢复" : "探测失败") + ": " + uri);
+        }
+        this.healthy = healthy;
+    }
+
+    /**
+     * 摘除一段时间，并清空延迟统计，回归后重新积累样本
+     */
+    synchronized void eject(long until) {
+        ejectedUntil = until;
+        latencyEwmaMs = 0;
+        latencySamples = 0;
+    }
+}
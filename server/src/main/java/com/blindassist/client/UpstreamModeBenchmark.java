@@ -0,0 +1,241 @@
+package com.blindassist.client;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.metrics.LatencyHistogram;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 上游传输方式对比：同样数量的 Agent 会话分别经 {@link PerSessionUpstream}（每会话一条连接）
+ * 与 {@link MultiplexedUpstream}（固定连接池）接入子进程中的 {@link StubAgentServer}，
+ * 每个会话按固定间隔发送一个步骤帧、收到回复后等待下一个间隔。
+ * 统计中转进程（本进程）在全部会话连通后的线程数与堆占用（GC 后），以及步骤从发出到收到回复的延迟分布。
+ * 桩服务在单独的进程中运行，其线程与内存不计入结果。
+ * 用法：java -cp blindassist-server.jar com.blindassist.client.UpstreamModeBenchmark
+ * [每组秒数] [步骤间隔ms] [步骤帧字节数] [多路复用连接数]
+ */
+public class UpstreamModeBenchmark {
+
+    private static final int[] SESSIONS = {100, 1000, 5000};
+    // 每批发起的连接数，等这一批全部连通再发起下一批
+    private static final int CONNECT_BATCH = 250;
+
+    public static void main(String[] args) throws Exception {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 10;
+        long stepIntervalMs = args.length > 1 ? Long.parseLong(args[1]) : 2000;
+        int stepBytes = args.length > 2 ? Integer.parseInt(args[2]) : 8192;
+        int muxPoolSize = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        String step = "{\"type\":\"step\",\"screenshot\":\"" + "A".repeat(stepBytes) + "\"}";
+
+        int port = StubAgentServer.freePort();
+        Process stub = startStub(port);
+        // PythonAgentClient 每次连通、断开、出错都会打印日志
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            URI base = URI.create("ws://127.0.0.1:" + port);
+            out.printf("%-12s %8s %8s %9s %8s %9s %9s %9s %7s%n",
+                    "mode", "sessions", "threads", "heap MB", "steps", "p50 ms", "p99 ms", "max ms", "failed");
+            for (int sessions : SESSIONS) {
+                for (String mode : new String[]{"per-session", "multiplexed"}) {
+                    AgentUpstream upstream = mode.equals("multiplexed")
+                            ? new MultiplexedUpstream(base.resolve("/ws/agent-mux"), muxPoolSize)
+                            : new PerSessionUpstream(base.resolve("/ws/agent/").toString());
+                    run(out, upstream, mode, sessions, step, stepIntervalMs, seconds);
+                }
+            }
+        } finally {
+            System.setOut(out);
+            System.setErr(err);
+            stub.destroyForcibly();
+        }
+    }
+
+    private static void run(PrintStream out, AgentUpstream upstream, String mode, int sessionCount, String step,
+                            long stepIntervalMs, long seconds) throws InterruptedException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        ScheduledExecutorService ticker = Executors.newScheduledThreadPool(2, r -> {
+            Thread t = new Thread(r, "bench-step");
+            t.setDaemon(true);
+            return t;
+        });
+        AtomicReference<LatencyHistogram> latency = new AtomicReference<>(new LatencyHistogram());
+        AtomicLong failed = new AtomicLong();
+        settle();
+        int threadsBefore = threads.getThreadCount();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+
+        List<Session> sessions = new ArrayList<>();
+        for (int offset = 0; offset < sessionCount; offset += CONNECT_BATCH) {
+            int batch = Math.min(CONNECT_BATCH, sessionCount - offset);
+            CountDownLatch settled = new CountDownLatch(batch);
+            for (int i = 0; i < batch; i++) {
+                Session session = new Session(step, stepIntervalMs, ticker, latency, settled, failed);
+                session.channel = upstream.newChannel(mode + "-" + sessionCount + "-" + (offset + i), session);
+                sessions.add(session);
+                session.channel.connect();
+            }
+            if (!settled.await(30, TimeUnit.SECONDS)) {
+                failed.addAndGet(settled.getCount());
+            }
+        }
+
+        // 预热一个间隔后开始计数
+        for (Session session : sessions) {
+            session.start();
+        }
+        Thread.sleep(stepIntervalMs);
+        latency.set(new LatencyHistogram());
+        Thread.sleep(TimeUnit.SECONDS.toMillis(seconds));
+        int threadsDuring = threads.getThreadCount();
+        LatencySummary summary = latency.get().summary();
+        settle();
+        long heap = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+
+        out.printf("%-12s %8d %8d %9.1f %8d %9.1f %9.1f %9.1f %7d%n",
+                mode, sessionCount, threadsDuring - threadsBefore, heap / 1048576.0, summary.getCount(),
+                summary.getP50Ms(), summary.getP99Ms(), summary.getMaxMs(), failed.get());
+
+        ticker.shutdownNow();
+        for (Session session : sessions) {
+            session.channel.close();
+        }
+        upstream.shutdown();
+        // 等连接与客户端线程释放，再开始下一组
+        Thread.sleep(3000);
+    }
+
+    private static Process startStub(int port) throws IOException {
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+        Process process = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                StubAgentServer.class.getName(), Integer.toString(port))
+                .redirectErrorStream(true)
+                .start();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.equals("ready")) {
+                // 之后的输出不再读取，交给后台线程丢弃，避免管道写满阻塞子进程
+                Thread drain = new Thread(() -> {
+                    try {
+                        reader.transferTo(Writer.nullWriter());
+                    } catch (IOException ignored) {
+                        // 子进程已退出
+                    }
+                });
+                drain.setDaemon(true);
+                drain.start();
+                return process;
+            }
+        }
+        throw new IOException("桩服务启动失败");
+    }
+
+    private static void settle() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(200);
+        }
+    }
+
+    /**
+     * 单个 Agent 会话：连通后每隔 stepIntervalMs 发出一个步骤帧，收到回复前不发下一个
+     */
+    private static final class Session implements PythonAgentClient.Listener {
+        private final String step;
+        private final long stepIntervalMs;
+        private final ScheduledExecutorService ticker;
+        private final AtomicReference<LatencyHistogram> latency;
+        private final CountDownLatch settled;
+        private final AtomicLong failed;
+        private UpstreamChannel channel;
+        private boolean opened;
+        private long sentAt;
+
+        Session(String step, long stepIntervalMs, ScheduledExecutorService ticker,
+                AtomicReference<LatencyHistogram> latency,
+                CountDownLatch settled, AtomicLong failed) {
+            this.step = step;
+            this.stepIntervalMs = stepIntervalMs;
+            this.ticker = ticker;
+            this.latency = latency;
+            this.settled = settled;
+            this.failed = failed;
+        }
+
+        void start() {
+            // 各会话的发送时刻在一个间隔内均匀错开
+            schedule(ThreadLocalRandom.current().nextLong(stepIntervalMs));
+        }
+
+        @Override
+        public synchronized void onOpen() {
+            if (!opened) {
+                opened = true;
+                settled.countDown();
+            }
+        }
+
+        @Override
+        public void onMessage(String message) {
+            long delay;
+            synchronized (this) {
+                long now = System.nanoTime();
+                latency.get().recordNanos(now - sentAt);
+                delay = stepIntervalMs - TimeUnit.NANOSECONDS.toMillis(now - sentAt);
+            }
+            schedule(Math.max(0, delay));
+        }
+
+        @Override
+        public synchronized void onClose(int code, String reason) {
+            if (!opened) {
+                opened = true;
+                failed.incrementAndGet();
+                settled.countDown();
+            }
+        }
+
+        private void schedule(long delayMs) {
+            try {
+                ticker.schedule(this::send, delayMs, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                // 本组已结束
+            }
+        }
+
+        private void send() {
+            synchronized (this) {
+                sentAt = System.nanoTime();
+            }
+            try {
+                channel.send(step);
+            } catch (RuntimeException e) {
+                failed.incrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.blindassist.client;
+
+/**
+ * 没有可用的 Python 模型服务实例时抛出，调用方应立即向 App 报错而不是等待连接
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public UpstreamUnavailableException(String message) {
+        super(message);
+    }
+}
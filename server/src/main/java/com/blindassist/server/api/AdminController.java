@@ -0,0 +1,120 @@
+package com.blindassist.server.api;
+
+import com.blindassist.client.EndpointPool;
+import com.blindassist.client.UpstreamEndpoint;
+import com.blindassist.server.api.dto.AgentSessionStats;
+import com.blindassist.server.api.dto.EndpointExecutorStats;
+import com.blindassist.server.api.dto.GuidanceUserStats;
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.api.dto.ObstacleSessionStats;
+import com.blindassist.server.api.dto.OcrHedgeStats;
+import com.blindassist.server.api.dto.UpstreamEndpointStats;
+import com.blindassist.server.api.dto.VisionCacheStats;
+import com.blindassist.server.service.AgentService;
+import com.blindassist.server.service.GuidanceService;
+import com.blindassist.server.service.ObstacleService;
+import com.blindassist.server.service.VisionService;
+import com.blindassist.server.ws.ControlFrames;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 运维管理接口：
+ * - Agent 中转：当前会话（含宽限期内的）及其存活时长、步骤数、估算内存占用、发送队列深度、丢弃计数、心跳 RTT 等指标
+ * - Python 模型服务实例的健康、熔断、离群摘除状态与在途步骤数
+ * - 避障通道：各会话收到、处理、丢弃的帧数以及从收帧到处理完成的延迟分布
+ * - 播报仲裁：各用户提交、合并、去重、过期、下发的消息数
+ * - 视觉结果缓存：各接口的条目数、估算内存、命中率与命中节省的识别耗时
+ * - OCR 对冲：对冲次数与比例、对冲胜出与故障转移次数，各引擎的调用、胜出、取消计数与近期 p90
+ * - HTTP 接口执行器：各接口的线程、排队、处理耗时与拒绝、超时计数
+ * - 各 WebSocket 通道汇总的心跳 RTT 分布，用于调整客户端心跳间隔
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+
+    private final AgentService agentService;
+    private final ControlFrames controlFrames;
+    private final EndpointPool endpointPool;
+    private final ObstacleService obstacleService;
+    private final GuidanceService guidanceService;
+    private final VisionService visionService;
+    private final List<BoundedEndpointExecutor> endpointExecutors;
+
+    public AdminController(AgentService agentService, ControlFrames controlFrames, EndpointPool endpointPool,
+                           ObstacleService obstacleService, GuidanceService guidanceService,
+                           VisionService visionService, List<BoundedEndpointExecutor> endpointExecutors) {
+        this.agentService = agentService;
+        this.controlFrames = controlFrames;
+        this.endpointPool = endpointPool;
+        this.obstacleService = obstacleService;
+        this.guidanceService = guidanceService;
+        this.visionService = visionService;
+        this.endpointExecutors = endpointExecutors;
+    }
+
+    @GetMapping("/agent/sessions")
+    public List<AgentSessionStats> agentSessions() {
+        List<AgentSessionStats> sessions = agentService.listSessions();
+        for (AgentSessionStats stats : sessions) {
+            stats.setRtt(controlFrames.sessionRtt(stats.getSessionId()));
+        }
+        return sessions;
+    }
+
+    @GetMapping("/agent/endpoints")
+    public List<UpstreamEndpointStats> agentEndpoints() {
+        long now = System.currentTimeMillis();
+        List<UpstreamEndpointStats> result = new ArrayList<>();
+        for (UpstreamEndpoint endpoint : endpointPool.getEndpoints()) {
+            UpstreamEndpointStats stats = new UpstreamEndpointStats();
+            stats.setUri(endpoint.getUri().toString());
+            stats.setHealthy(endpoint.isHealthy());
+            stats.setEjected(endpoint.isEjected(now));
+            stats.setBreakerState(endpoint.getBreakerState().name());
+            stats.setOutstanding(endpoint.getOutstanding());
+            stats.setLatencyEwmaMs(Math.round(endpoint.getLatencyEwmaMs()));
+            result.add(stats);
+        }
+        return result;
+    }
+
+    @GetMapping("/obstacle/sessions")
+    public List<ObstacleSessionStats> obstacleSessions() {
+        return obstacleService.listSessions();
+    }
+
+    @GetMapping("/guidance/users")
+    public List<GuidanceUserStats> guidanceUsers() {
+        return guidanceService.listUsers();
+    }
+
+    @GetMapping("/vision/caches")
+    public List<VisionCacheStats> visionCaches() {
+        return visionService.cacheStats();
+    }
+
+    @GetMapping("/vision/ocr-hedging")
+    public OcrHedgeStats ocrHedging() {
+        return visionService.ocrHedgeStats();
+    }
+
+    @GetMapping("/endpoints")
+    public List<EndpointExecutorStats> endpoints() {
+        List<EndpointExecutorStats> result = new ArrayList<>();
+        for (BoundedEndpointExecutor executor : endpointExecutors) {
+            result.add(executor.stats());
+        }
+        return result;
+    }
+
+    @GetMapping("/rtt")
+    public Map<String, LatencySummary> rtt() {
+        return controlFrames.channelRtt();
+    }
+}
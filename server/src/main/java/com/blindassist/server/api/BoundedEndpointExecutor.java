@@ -0,0 +1,299 @@
+package com.blindassist.server.api;
+
+import com.blindassist.server.api.dto.EndpointExecutorStats;
+import org.springframework.http.HttpHeaders;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+
+/**
+ * 单个 HTTP 接口的有界执行器：处理逻辑在固定数量的专用线程上执行，Tomcat 线程只负责接收请求，
+ * 慢后端占满的是该接口自己的线程与队列，不会拖住其他接口和避障 WebSocket。
+ * 过载时快速拒绝（{@link LoadSheddingException}，503 + Retry-After）：
+ * - 提交时队列已满
+ * - 按单个请求处理耗时的 EWMA 与排在前面的请求数估算，完成时间会超过截止时间（空闲时不按估算拒绝）
+ * - 开始执行时已超过截止时间（排队期间估算偏乐观），直接放弃
+ * - 截止时间到仍未完成时结束请求，并中断仍在执行的处理任务
+ * 请求结束后容器会回收请求对象，处理任务需要读取请求体时须通过 {@link #submit(InputStream, BodyTask)} 提交：
+ * 请求结束后不再读取；截止时间到时立即结束请求，正在进行的读取返回后丢弃读到的数据。
+ * 此时请求体可能没有读完，503 响应带 Connection: close，剩余数据不会被当作同一连接上的下一个请求。
+ * 截止时间由每个执行器自己的定时线程触发，定时任务只结束请求并中断执行线程，不做阻塞操作；请求完成时随即取消。
+ */
+public class BoundedEndpointExecutor {
+
+    /**
+     * 执行器参数
+     */
+    public static class Settings {
+        public int threads = 4;
+        public int queueCapacity = 32;
+        // 从提交到完成的时限（毫秒）
+        public long deadlineMs = 5000;
+    }
+
+    /**
+     * 读取请求体的处理逻辑
+     */
+    @FunctionalInterface
+    public interface BodyTask<T> {
+        T call(InputStream body) throws Exception;
+    }
+
+    /**
+     * 一个处理任务的执行线程：截止时间到时据此中断执行线程
+     */
+    private static final class Running {
+        // 处理任务读取请求体，超时结束时需要关闭连接
+        final boolean readsBody;
+        private Thread thread;
+
+        Running(boolean readsBody) {
+            this.readsBody = readsBody;
+        }
+
+        synchronized void enter() {
+            thread = Thread.currentThread();
+        }
+
+        synchronized void exit() {
+            thread = null;
+            // 清除截止时间到达时可能留下的中断标记，线程回到池中处理下一个任务
+            Thread.interrupted();
+        }
+
+        synchronized void interrupt() {
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+
+    /**
+     * 只在请求仍未结束时读取的请求体：以请求结果是否完成作为标志，读取前后各检查一次，
+     * 读取期间请求结束时丢弃本次读到的数据
+     */
+    private static final class LiveBodyInputStream extends FilterInputStream {
+        private final CompletableFuture<?> result;
+
+        LiveBodyInputStream(InputStream body, CompletableFuture<?> result) {
+            super(body);
+            this.result = result;
+        }
+
+        @Override
+        public int read() throws IOException {
+            ensureLive();
+            int b = super.read();
+            ensureLive();
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            ensureLive();
+            int n = super.read(b, off, len);
+            ensureLive();
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            ensureLive();
+            long skipped = super.skip(n);
+            ensureLive();
+            return skipped;
+        }
+
+        @Override
+        public int available() throws IOException {
+            ensureLive();
+            return super.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            // 请求已结束时请求体已由容器回收，不再关闭
+            if (!result.isDone()) {
+                super.close();
+            }
+        }
+
+        private void ensureLive() throws IOException {
+            if (result.isDone()) {
+                throw new IOException("请求已结束，不再读取请求体");
+            }
+        }
+    }
+
+    // 处理耗时 EWMA 的平滑系数
+    private static final double EWMA_ALPHA = 0.2;
+
+    private final String endpoint;
+    private final Settings settings;
+    private final ThreadPoolExecutor pool;
+    private final ScheduledThreadPoolExecutor deadlineTimer;
+
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private volatile double serviceEwmaMs;
+
+    public BoundedEndpointExecutor(String endpoint, Settings settings) {
+        this.endpoint = endpoint;
+        this.settings = settings;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.pool = new ThreadPoolExecutor(settings.threads, settings.threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(settings.queueCapacity), r -> {
+            Thread t = new Thread(r, "endpoint-" + endpoint + "-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.deadlineTimer = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "endpoint-" + endpoint + "-deadline");
+            t.setDaemon(true);
+            return t;
+        });
+        // 请求完成时取消的定时任务立即移出队列，不随请求数累积
+        deadlineTimer.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * 提交处理逻辑；过载时直接抛出 {@link LoadSheddingException}，不占用队列
+     *
+     * @return 处理结果，超过截止时间时以 {@link LoadSheddingException} 异常完成
+     */
+    public <T> CompletableFuture<T> submit(Callable<T> task) {
+        return schedule(false, (result, running) -> task);
+    }
+
+    /**
+     * 提交需要读取请求体的处理逻辑；请求结束（处理完成或超过截止时间）后读取请求体抛出 IOException
+     *
+     * @param body 请求体，由处理逻辑结束后关闭
+     * @return 处理结果，超过截止时间时以 {@link LoadSheddingException} 异常完成
+     */
+    public <T> CompletableFuture<T> submit(InputStream body, BodyTask<T> task) {
+        try {
+            return schedule(true, (result, running) -> () -> {
+                try (InputStream live = new LiveBodyInputStream(body, result)) {
+                    return task.call(live);
+                }
+            });
+        } catch (LoadSheddingException e) {
+            try {
+                body.close();
+            } catch (IOException ignored) {
+                // 请求随即以 503 结束
+            }
+            throw e;
+        }
+    }
+
+    public EndpointExecutorStats stats() {
+        EndpointExecutorStats stats = new EndpointExecutorStats();
+        stats.setEndpoint(endpoint);
+        stats.setThreads(settings.threads);
+        stats.setActive(pool.getActiveCount());
+        stats.setQueued(pool.getQueue().size());
+        stats.setQueueCapacity(settings.queueCapacity);
+        stats.setDeadlineMs(settings.deadlineMs);
+        stats.setServiceEwmaMs(Math.round(serviceEwmaMs));
+        stats.setCompleted(completed.get());
+        stats.setRejected(rejected.get());
+        stats.setExpired(expired.get());
+        return stats;
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+        deadlineTimer.shutdownNow();
+    }
+
+    private <T> CompletableFuture<T> schedule(boolean readsBody,
+                                              BiFunction<CompletableFuture<T>, Running, Callable<T>> taskFactory) {
+        long estimatedMs = estimatedCompletionMs();
+        // 空闲时总是接受，让一次偶发的慢请求推高的估算能被新的样本拉回
+        boolean idle = pool.getQueue().isEmpty() && pool.getActiveCount() == 0;
+        if (!idle && estimatedMs > settings.deadlineMs) {
+            rejected.incrementAndGet();
+            throw new LoadSheddingException(endpoint, "繁忙，预计等待 " + estimatedMs + "ms", retryAfterSeconds());
+        }
+        long deadlineNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.deadlineMs);
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Running running = new Running(readsBody);
+        Callable<T> task = taskFactory.apply(result, running);
+        try {
+            pool.execute(() -> run(task, result, running, deadlineNanos));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            throw new LoadSheddingException(endpoint, "排队请求已满", retryAfterSeconds());
+        }
+        ScheduledFuture<?> timer = deadlineTimer.schedule(() -> {
+            if (result.completeExceptionally(expiredException(running))) {
+                expired.incrementAndGet();
+                running.interrupt();
+            }
+        }, settings.deadlineMs, TimeUnit.MILLISECONDS);
+        result.whenComplete((value, error) -> timer.cancel(false));
+        return result;
+    }
+
+    private <T> void run(Callable<T> task, CompletableFuture<T> result, Running running, long deadlineNanos) {
+        if (result.isDone()) {
+            return;
+        }
+        if (System.nanoTime() > deadlineNanos) {
+            if (result.completeExceptionally(expiredException(running))) {
+                expired.incrementAndGet();
+            }
+            return;
+        }
+        long start = System.nanoTime();
+        running.enter();
+        try {
+            result.complete(task.call());
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        } finally {
+            running.exit();
+            double elapsedMs = (System.nanoTime() - start) / 1_000_000.0;
+            double previous = serviceEwmaMs;
+            // 并发更新偶有丢失，对估算无影响
+            serviceEwmaMs = previous == 0 ? elapsedMs : previous + EWMA_ALPHA * (elapsedMs - previous);
+            completed.incrementAndGet();
+        }
+    }
+
+    private LoadSheddingException expiredException(Running running) {
+        LoadSheddingException e = new LoadSheddingException(endpoint, "处理超时", retryAfterSeconds());
+        if (running.readsBody) {
+            e.getHeaders().set(HttpHeaders.CONNECTION, "close");
+        }
+        return e;
+    }
+
+    /**
+     * 新请求从现在起到处理完成的估计耗时：排在前面的请求按线程数分摊，再加上自身的处理耗时
+     */
+    private long estimatedCompletionMs() {
+        double service = serviceEwmaMs;
+        int ahead = pool.getQueue().size() + pool.getActiveCount();
+        return Math.round(service * (1 + (double) ahead / settings.threads));
+    }
+
+    private long retryAfterSeconds() {
+        return Math.max(1, (long) Math.ceil(estimatedCompletionMs() / 1000.0));
+    }
+}
@@ -0,0 +1,48 @@
+package com.blindassist.server.api;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 各 HTTP 接口的有界执行器：线程数、排队上限与从提交到完成的时限
+ */
+@Configuration
+public class EndpointExecutorConfig {
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedEndpointExecutor visionOcrExecutor(@Value("${endpoint.vision-ocr.threads:4}") int threads,
+                                                     @Value("${endpoint.vision-ocr.queue-capacity:32}") int queueCapacity,
+                                                     @Value("${endpoint.vision-ocr.deadline-ms:8000}") long deadlineMs) {
+        return create("vision-ocr", threads, queueCapacity, deadlineMs);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedEndpointExecutor visionSceneExecutor(@Value("${endpoint.vision-scene.threads:4}") int threads,
+                                                       @Value("${endpoint.vision-scene.queue-capacity:32}") int queueCapacity,
+                                                       @Value("${endpoint.vision-scene.deadline-ms:8000}") long deadlineMs) {
+        return create("vision-scene", threads, queueCapacity, deadlineMs);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedEndpointExecutor qaExecutor(@Value("${endpoint.qa.threads:4}") int threads,
+                                              @Value("${endpoint.qa.queue-capacity:64}") int queueCapacity,
+                                              @Value("${endpoint.qa.deadline-ms:5000}") long deadlineMs) {
+        return create("qa", threads, queueCapacity, deadlineMs);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public BoundedEndpointExecutor navigationExecutor(@Value("${endpoint.navigation.threads:2}") int threads,
+                                                      @Value("${endpoint.navigation.queue-capacity:64}") int queueCapacity,
+                                                      @Value("${endpoint.navigation.deadline-ms:5000}") long deadlineMs) {
+        return create("navigation", threads, queueCapacity, deadlineMs);
+    }
+
+    private static BoundedEndpointExecutor create(String endpoint, int threads, int queueCapacity, long deadlineMs) {
+        BoundedEndpointExecutor.Settings settings = new BoundedEndpointExecutor.Settings();
+        settings.threads = threads;
+        settings.queueCapacity = queueCapacity;
+        settings.deadlineMs = deadlineMs;
+        return new BoundedEndpointExecutor(endpoint, settings);
+    }
+}
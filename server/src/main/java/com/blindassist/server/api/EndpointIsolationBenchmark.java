@@ -0,0 +1,154 @@
+package com.blindassist.server.api;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.metrics.LatencyHistogram;
+import com.blindassist.server.obstacle.GrayFrame;
+import com.blindassist.server.obstacle.HeuristicObstacleDetector;
+import com.blindassist.server.obstacle.ObstacleDetector;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 接口隔离负载测试：用固定大小的线程池模拟 Tomcat 工作线程，一组闭环客户端持续调用一个慢 OCR 接口把它压满，
+ * 同时以固定帧率发送避障帧（在容器线程上接收并检测），统计避障帧从发送到检测完成的延迟。
+ * 对比三种情况：无 OCR 负载、OCR 在容器线程上同步处理、OCR 经 {@link BoundedEndpointExecutor} 异步处理。
+ * 被拒绝的 OCR 客户端按 Retry-After 的量级（此处固定 50ms）退避后重试，保持压力。
+ * 用法：java -cp blindassist-server.jar com.blindassist.server.api.EndpointIsolationBenchmark
+ * [每组秒数] [容器线程数] [OCR 客户端数] [OCR 耗时ms]
+ */
+public class EndpointIsolationBenchmark {
+
+    private static final int OBSTACLE_FPS = 15;
+    private static final long RETRY_BACKOFF_MS = 50;
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        int containerThreads = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int ocrClients = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        long ocrMs = args.length > 3 ? Long.parseLong(args[3]) : 2000;
+        ObstacleDetector detector = new HeuristicObstacleDetector(1.2, 65, 50, 5);
+        GrayFrame frame = syntheticFrame(new Random(42));
+
+        System.out.printf("%-10s %10s %10s %10s %10s %10s %10s%n",
+                "ocr", "frames", "p50 ms", "p99 ms", "max ms", "ocr ok", "ocr 503");
+        for (String mode : new String[]{"none", "sync", "async"}) {
+            ExecutorService container = Executors.newFixedThreadPool(containerThreads);
+            BoundedEndpointExecutor.Settings settings = new BoundedEndpointExecutor.Settings();
+            settings.threads = 4;
+            settings.queueCapacity = 32;
+            settings.deadlineMs = ocrMs * 4;
+            BoundedEndpointExecutor ocrExecutor = new BoundedEndpointExecutor("vision-ocr", settings);
+            AtomicLong ocrOk = new AtomicLong();
+            AtomicLong ocrRejected = new AtomicLong();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+            List<Thread> clients = new ArrayList<>();
+            if (!mode.equals("none")) {
+                for (int i = 0; i < ocrClients; i++) {
+                    Thread t = new Thread(() -> ocrClient(mode, container, ocrExecutor, ocrMs, deadline,
+                            ocrOk, ocrRejected));
+                    t.setDaemon(true);
+                    t.start();
+                    clients.add(t);
+                }
+                // 等 OCR 负载先把容器或接口队列压满
+                Thread.sleep(Math.min(ocrMs, 1000));
+            }
+            LatencyHistogram latency = obstacleChannel(container, detector, frame, deadline);
+            for (Thread t : clients) {
+                t.join();
+            }
+            LatencySummary summary = latency.summary();
+            System.out.printf("%-10s %10d %10.1f %10.1f %10.1f %10d %10d%n",
+                    mode, summary.getCount(), summary.getP50Ms(), summary.getP99Ms(), summary.getMaxMs(),
+                    ocrOk.get(), ocrRejected.get());
+            container.shutdownNow();
+            ocrExecutor.shutdown();
+        }
+    }
+
+    /**
+     * 单个 OCR 客户端：同步模式下处理占用容器线程直到完成；异步模式下容器线程只负责提交，随即释放
+     */
+    private static void ocrClient(String mode, ExecutorService container, BoundedEndpointExecutor ocrExecutor,
+                                  long ocrMs, long deadline, AtomicLong ok, AtomicLong rejected) {
+        while (System.nanoTime() < deadline) {
+            try {
+                if (mode.equals("sync")) {
+                    container.submit(() -> slowOcr(ocrMs)).get();
+                } else {
+                    CompletableFuture<String> response = CompletableFuture
+                            .supplyAsync(() -> ocrExecutor.submit(() -> slowOcr(ocrMs)), container)
+                            .thenCompose(f -> f);
+                    response.join();
+                }
+                ok.incrementAndGet();
+            } catch (Exception e) {
+                if (!(e.getCause() instanceof LoadSheddingException)) {
+                    return;
+                }
+                rejected.incrementAndGet();
+                try {
+                    Thread.sleep(RETRY_BACKOFF_MS);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static String slowOcr(long ocrMs) throws InterruptedException {
+        Thread.sleep(ocrMs);
+        return "药品说明书";
+    }
+
+    /**
+     * 按固定帧率发送避障帧，每帧在容器线程上接收并检测；记录从发送到检测完成的延迟
+     */
+    private static LatencyHistogram obstacleChannel(ExecutorService container, ObstacleDetector detector,
+                                                    GrayFrame frame, long deadline) throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / OBSTACLE_FPS;
+        long next = System.nanoTime();
+        while (next < deadline) {
+            long sent = System.nanoTime();
+            container.execute(() -> {
+                detector.detect(frame);
+                latency.recordNanos(System.nanoTime() - sent);
+            });
+            next += intervalNanos;
+            long sleepNanos = next - System.nanoTime();
+            if (sleepNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            }
+        }
+        // 给最后一批帧留出完成时间；同步模式下仍排在容器队列中的帧不计入
+        Thread.sleep(200);
+        return latency;
+    }
+
+    /**
+     * 合成帧：上半部为背景，下半部为带噪声的地面，中间放置一个深色障碍物
+     */
+    private static GrayFrame syntheticFrame(Random random) {
+        int width = 160;
+        int height = 120;
+        byte[] pixels = new byte[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int v = y < height / 2 ? 180 : 110 + random.nextInt(12);
+                if (x >= 60 && x < 100 && y >= 50 && y < 100) {
+                    v = 35;
+                }
+                pixels[y * width + x] = (byte) v;
+            }
+        }
+        return new GrayFrame(width, height, pixels);
+    }
+}
@@ -0,0 +1,20 @@
+package com.blindassist.server.api;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.ErrorResponseException;
+
+/**
+ * 接口过载时的快速拒绝：返回 503 并在 Retry-After 头中给出建议的重试间隔（秒），
+ * 客户端据此退避，而不是在队列中等到超时
+ */
+public class LoadSheddingException extends ErrorResponseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public LoadSheddingException(String endpoint, String reason, long retryAfterSeconds) {
+        super(HttpStatus.SERVICE_UNAVAILABLE);
+        setDetail(endpoint + " " + reason + "，请 " + retryAfterSeconds + " 秒后重试");
+        getHeaders().set(HttpHeaders.RETRY_AFTER, Long.toString(retryAfterSeconds));
+    }
+}
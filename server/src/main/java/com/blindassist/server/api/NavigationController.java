@@ -3,29 +3,35 @@ package com.blindassist.server.api;
 import com.blindassist.server.api.dto.NavigationRouteRequest;
 import com.blindassist.server.api.dto.NavigationRouteResponse;
 import com.blindassist.server.service.NavigationService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 导航接口：
  * - 客户端提供起终点坐标（或由后端依据语音再解析）
  * - 返回一系列可以直接语音播报的导航步骤
+ * - 在接口的有界执行器上异步处理，过载时返回 503 + Retry-After
  */
 @RestController
 @RequestMapping("/api/navigation")
 public class NavigationController {
 
     private final NavigationService navigationService;
+    private final BoundedEndpointExecutor executor;
 
-    public NavigationController(NavigationService navigationService) {
+    public NavigationController(NavigationService navigationService, @Qualifier("navigationExecutor") BoundedEndpointExecutor executor) {
         this.navigationService = navigationService;
+        this.executor = executor;
     }
 
     @PostMapping("/route")
-    public NavigationRouteResponse planRoute(@RequestBody NavigationRouteRequest req) {
-        return navigationService.planRoute(req);
+    public CompletableFuture<NavigationRouteResponse> planRoute(@RequestBody NavigationRouteRequest req) {
+        return executor.submit(() -> navigationService.planRoute(req));
     }
 }
 
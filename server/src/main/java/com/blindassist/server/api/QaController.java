@@ -3,28 +3,34 @@ package com.blindassist.server.api;
 import com.blindassist.server.api.dto.QaRequest;
 import com.blindassist.server.api.dto.QaResponse;
 import com.blindassist.server.service.QaService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 语音问答接口：
  * - 前端只需发送文本问题，服务端负责调用大模型或搜索
+ * - 在接口的有界执行器上异步处理，过载时返回 503 + Retry-After
  */
 @RestController
 @RequestMapping("/api/qa")
 public class QaController {
 
     private final QaService qaService;
+    private final BoundedEndpointExecutor executor;
 
-    public QaController(QaService qaService) {
+    public QaController(QaService qaService, @Qualifier("qaExecutor") BoundedEndpointExecutor executor) {
         this.qaService = qaService;
+        this.executor = executor;
     }
 
     @PostMapping("/ask")
-    public QaResponse ask(@RequestBody QaRequest req) {
-        return qaService.answer(req);
+    public CompletableFuture<QaResponse> ask(@RequestBody QaRequest req) {
+        return executor.submit(() -> qaService.answer(req));
     }
 }
 
@@ -3,38 +3,66 @@ package com.blindassist.server.api;
 import com.blindassist.server.api.dto.VisionOcrResponse;
 import com.blindassist.server.api.dto.VisionSceneResponse;
 import com.blindassist.server.service.VisionService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 图像相关接口：
  * - OCR：读取说明书、药品包装等文字
  * - 场景描述：综合描述用户面前的环境
  *
- * 这里以二进制图像数据为例，实际可使用 multipart/form-data 传文件。
+ * 图像可直接作为请求体上传（application/octet-stream 或 image/*），服务端读入后降采样解码；
+ * 也可用 multipart/form-data 的 image 字段上传，此时由容器先把文件暂存到磁盘再解码。
+ * 超过 vision.max-upload-bytes 的图像返回 413。
+ * 接收与识别在各接口的有界执行器上异步进行（连同读取上传数据），过载时返回 503 + Retry-After；
+ * 超过截止时间返回 503 后不再读取上传数据。
  */
 @RestController
 @RequestMapping("/api/vision")
 public class VisionController {
 
     private final VisionService visionService;
+    private final BoundedEndpointExecutor ocrExecutor;
+    private final BoundedEndpointExecutor sceneExecutor;
 
-    public VisionController(VisionService visionService) {
+    public VisionController(VisionService visionService,
+                            @Qualifier("visionOcrExecutor") BoundedEndpointExecutor ocrExecutor,
+                            @Qualifier("visionSceneExecutor") BoundedEndpointExecutor sceneExecutor) {
         this.visionService = visionService;
+        this.ocrExecutor = ocrExecutor;
+        this.sceneExecutor = sceneExecutor;
     }
 
-    @PostMapping(value = "/ocr", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public VisionOcrResponse ocr(@RequestBody byte[] imageBytes) {
-        return visionService.ocr(imageBytes);
+    @PostMapping(value = "/ocr", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public CompletableFuture<VisionOcrResponse> ocr(HttpServletRequest request) throws IOException {
+        long declaredBytes = request.getContentLengthLong();
+        return ocrExecutor.submit(request.getInputStream(), image -> visionService.ocr(image, declaredBytes));
     }
 
-    @PostMapping(value = "/scene", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
-    public VisionSceneResponse scene(@RequestBody byte[] imageBytes) {
-        return visionService.describeScene(imageBytes);
+    @PostMapping(value = "/ocr", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<VisionOcrResponse> ocr(@RequestPart("image") MultipartFile image)
+            throws IOException {
+        return ocrExecutor.submit(image.getInputStream(), in -> visionService.ocr(in, image.getSize()));
     }
-}
 
+    @PostMapping(value = "/scene", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, "image/*"})
+    public CompletableFuture<VisionSceneResponse> scene(HttpServletRequest request) throws IOException {
+        long declaredBytes = request.getContentLengthLong();
+        return sceneExecutor.submit(request.getInputStream(), image -> visionService.describeScene(image, declaredBytes));
+    }
 
+    @PostMapping(value = "/scene", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public CompletableFuture<VisionSceneResponse> scene(@RequestPart("image") MultipartFile image)
+            throws IOException {
+        return sceneExecutor.submit(image.getInputStream(), in -> visionService.describeScene(in, image.getSize()));
+    }
+}
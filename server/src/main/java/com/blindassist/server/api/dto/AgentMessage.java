@@ -27,6 +27,9 @@ public class AgentMessage {
     @JsonProperty("screen_info")
     private String screenInfo;
 
+    // 二进制帧模式下由 App 递增的帧序号
+    private Long seq;
+
     // --- Python 返回的字段 ---
     private String status;
     private String thinking; // 模型的思考过程
@@ -0,0 +1,125 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * Agent 会话运行指标 DTO（管理接口使用）
+ */
+public class AgentSessionStats {
+
+    private String sessionId;
+    private String upstreamState;
+    private boolean detached;
+    private long ageMs;
+    private long idleMs;
+    private long retainedBytes;
+    private long forwardedSteps;
+    private long coalescedSteps;
+    private int sendQueueDepth;
+    private int sendBufferedSize;
+    private long sentCount;
+    private long dropCount;
+    private LatencySummary rtt;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUpstreamState() {
+        return upstreamState;
+    }
+
+    public void setUpstreamState(String upstreamState) {
+        this.upstreamState = upstreamState;
+    }
+
+    public boolean isDetached() {
+        return detached;
+    }
+
+    public void setDetached(boolean detached) {
+        this.detached = detached;
+    }
+
+    public long getAgeMs() {
+        return ageMs;
+    }
+
+    public void setAgeMs(long ageMs) {
+        this.ageMs = ageMs;
+    }
+
+    public long getIdleMs() {
+        return idleMs;
+    }
+
+    public void setIdleMs(long idleMs) {
+        this.idleMs = idleMs;
+    }
+
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    public void setRetainedBytes(long retainedBytes) {
+        this.retainedBytes = retainedBytes;
+    }
+
+    public long getForwardedSteps() {
+        return forwardedSteps;
+    }
+
+    public void setForwardedSteps(long forwardedSteps) {
+        this.forwardedSteps = forwardedSteps;
+    }
+
+    public long getCoalescedSteps() {
+        return coalescedSteps;
+    }
+
+    public void setCoalescedSteps(long coalescedSteps) {
+        this.coalescedSteps = coalescedSteps;
+    }
+
+    public int getSendQueueDepth() {
+        return sendQueueDepth;
+    }
+
+    public void setSendQueueDepth(int sendQueueDepth) {
+        this.sendQueueDepth = sendQueueDepth;
+    }
+
+    public int getSendBufferedSize() {
+        return sendBufferedSize;
+    }
+
+    public void setSendBufferedSize(int sendBufferedSize) {
+        this.sendBufferedSize = sendBufferedSize;
+    }
+
+    public long getSentCount() {
+        return sentCount;
+    }
+
+    public void setSentCount(long sentCount) {
+        this.sentCount = sentCount;
+    }
+
+    public long getDropCount() {
+        return dropCount;
+    }
+
+    public void setDropCount(long dropCount) {
+        this.dropCount = dropCount;
+    }
+
+    public LatencySummary getRtt() {
+        return rtt;
+    }
+
+    public void setRtt(LatencySummary rtt) {
+        this.rtt = rtt;
+    }
+}
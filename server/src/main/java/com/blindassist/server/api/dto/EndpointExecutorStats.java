@@ -0,0 +1,98 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * 单个 HTTP 接口执行器指标 DTO（管理接口使用）
+ */
+public class EndpointExecutorStats {
+
+    private String endpoint;
+    private int threads;
+    private int active;
+    private int queued;
+    private int queueCapacity;
+    private long deadlineMs;
+    private long serviceEwmaMs;
+    private long completed;
+    private long rejected;
+    private long expired;
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public void setActive(int active) {
+        this.active = active;
+    }
+
+    public int getQueued() {
+        return queued;
+    }
+
+    public void setQueued(int queued) {
+        this.queued = queued;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+
+    public long getDeadlineMs() {
+        return deadlineMs;
+    }
+
+    public void setDeadlineMs(long deadlineMs) {
+        this.deadlineMs = deadlineMs;
+    }
+
+    public long getServiceEwmaMs() {
+        return serviceEwmaMs;
+    }
+
+    public void setServiceEwmaMs(long serviceEwmaMs) {
+        this.serviceEwmaMs = serviceEwmaMs;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public void setCompleted(long completed) {
+        this.completed = completed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public void setExpired(long expired) {
+        this.expired = expired;
+    }
+}
@@ -0,0 +1,107 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * 单个用户播报仲裁指标 DTO（管理接口使用）
+ */
+public class GuidanceUserStats {
+
+    private String userId;
+    private boolean connected;
+    private boolean compact;
+    private int pending;
+    private long submitted;
+    private long merged;
+    private long deduplicated;
+    private long expired;
+    private long dropped;
+    private long emitted;
+    private long sentBytes;
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public boolean isConnected() {
+        return connected;
+    }
+
+    public void setConnected(boolean connected) {
+        this.connected = connected;
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public void setPending(int pending) {
+        this.pending = pending;
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public void setSubmitted(long submitted) {
+        this.submitted = submitted;
+    }
+
+    public long getMerged() {
+        return merged;
+    }
+
+    public void setMerged(long merged) {
+        this.merged = merged;
+    }
+
+    public long getDeduplicated() {
+        return deduplicated;
+    }
+
+    public void setDeduplicated(long deduplicated) {
+        this.deduplicated = deduplicated;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public void setExpired(long expired) {
+        this.expired = expired;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public void setDropped(long dropped) {
+        this.dropped = dropped;
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    public void setEmitted(long emitted) {
+        this.emitted = emitted;
+    }
+
+    public boolean isCompact() {
+        return compact;
+    }
+
+    public void setCompact(boolean compact) {
+        this.compact = compact;
+    }
+
+    public long getSentBytes() {
+        return sentBytes;
+    }
+
+    public void setSentBytes(long sentBytes) {
+        this.sentBytes = sentBytes;
+    }
+}
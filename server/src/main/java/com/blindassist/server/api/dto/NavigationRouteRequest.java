@@ -10,6 +10,8 @@ public class NavigationRouteRequest {
     private double endLat;
     private double endLng;
     private String description;
+    // App 的 guidance id；提供时导航指令经播报仲裁从该用户的避障通道下发
+    private String userId;
 
     public double getStartLat() {
         return startLat;
@@ -50,6 +52,14 @@ public class NavigationRouteRequest {
     public void setDescription(String description) {
         this.description = description;
     }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
 }
 
 
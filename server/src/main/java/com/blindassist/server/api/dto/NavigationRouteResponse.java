@@ -9,6 +9,8 @@ import java.util.List;
 public class NavigationRouteResponse {
 
     private List<String> voiceSteps;
+    // 为 true 时步骤已交给播报仲裁，从避障通道按序下发，App 无需自行播报 voiceSteps
+    private boolean streamed;
 
     public List<String> getVoiceSteps() {
         return voiceSteps;
@@ -17,6 +19,14 @@ public class NavigationRouteResponse {
     public void setVoiceSteps(List<String> voiceSteps) {
         this.voiceSteps = voiceSteps;
     }
+
+    public boolean isStreamed() {
+        return streamed;
+    }
+
+    public void setStreamed(boolean streamed) {
+        this.streamed = streamed;
+    }
 }
 
 
@@ -0,0 +1,125 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * 避障会话运行指标 DTO（管理接口使用）
+ */
+public class ObstacleSessionStats {
+
+    private String sessionId;
+    private String userId;
+    private long receivedFrames;
+    private long processedFrames;
+    private long droppedFrames;
+    private long reorderedFrames;
+    private long blurredFrames;
+    private long warningsSent;
+    private double targetFps;
+    private int frameWidth;
+    private int frameHeight;
+    private int frameRotation;
+    private LatencySummary processingLatency;
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public void setSessionId(String sessionId) {
+        this.sessionId = sessionId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public void setUserId(String userId) {
+        this.userId = userId;
+    }
+
+    public long getReceivedFrames() {
+        return receivedFrames;
+    }
+
+    public void setReceivedFrames(long receivedFrames) {
+        this.receivedFrames = receivedFrames;
+    }
+
+    public long getProcessedFrames() {
+        return processedFrames;
+    }
+
+    public void setProcessedFrames(long processedFrames) {
+        this.processedFrames = processedFrames;
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames;
+    }
+
+    public void setDroppedFrames(long droppedFrames) {
+        this.droppedFrames = droppedFrames;
+    }
+
+    public long getReorderedFrames() {
+        return reorderedFrames;
+    }
+
+    public void setReorderedFrames(long reorderedFrames) {
+        this.reorderedFrames = reorderedFrames;
+    }
+
+    public long getBlurredFrames() {
+        return blurredFrames;
+    }
+
+    public void setBlurredFrames(long blurredFrames) {
+        this.blurredFrames = blurredFrames;
+    }
+
+    public int getFrameWidth() {
+        return frameWidth;
+    }
+
+    public void setFrameWidth(int frameWidth) {
+        this.frameWidth = frameWidth;
+    }
+
+    public int getFrameHeight() {
+        return frameHeight;
+    }
+
+    public void setFrameHeight(int frameHeight) {
+        this.frameHeight = frameHeight;
+    }
+
+    public int getFrameRotation() {
+        return frameRotation;
+    }
+
+    public void setFrameRotation(int frameRotation) {
+        this.frameRotation = frameRotation;
+    }
+
+    public double getTargetFps() {
+        return targetFps;
+    }
+
+    public void setTargetFps(double targetFps) {
+        this.targetFps = targetFps;
+    }
+
+    public long getWarningsSent() {
+        return warningsSent;
+    }
+
+    public void setWarningsSent(long warningsSent) {
+        this.warningsSent = warningsSent;
+    }
+
+    public LatencySummary getProcessingLatency() {
+        return processingLatency;
+    }
+
+    public void setProcessingLatency(LatencySummary processingLatency) {
+        this.processingLatency = processingLatency;
+    }
+}
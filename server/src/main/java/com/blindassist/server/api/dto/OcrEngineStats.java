@@ -0,0 +1,62 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * 单个 OCR 引擎的调用、胜出、失败与取消计数及近期耗时 p90 DTO（管理接口使用）
+ */
+public class OcrEngineStats {
+
+    private String name;
+    private long calls;
+    private long wins;
+    private long failures;
+    private long cancelled;
+    private double recentP90Ms;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public void setCalls(long calls) {
+        this.calls = calls;
+    }
+
+    public long getWins() {
+        return wins;
+    }
+
+    public void setWins(long wins) {
+        this.wins = wins;
+    }
+
+    public long getFailures() {
+        return failures;
+    }
+
+    public void setFailures(long failures) {
+        this.failures = failures;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public void setCancelled(long cancelled) {
+        this.cancelled = cancelled;
+    }
+
+    public double getRecentP90Ms() {
+        return recentP90Ms;
+    }
+
+    public void setRecentP90Ms(double recentP90Ms) {
+        this.recentP90Ms = recentP90Ms;
+    }
+}
@@ -0,0 +1,82 @@
+package com.blindassist.server.api.dto;
+
+import java.util.List;
+
+/**
+ * OCR 对冲请求指标 DTO（管理接口使用）
+ */
+public class OcrHedgeStats {
+
+    private long requests;
+    private long hedges;
+    private long hedgeWins;
+    private long budgetDenied;
+    private long failovers;
+    private double hedgeRatio;
+    private double maxHedgeRatio;
+    private List<OcrEngineStats> engines;
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getHedges() {
+        return hedges;
+    }
+
+    public void setHedges(long hedges) {
+        this.hedges = hedges;
+    }
+
+    public long getHedgeWins() {
+        return hedgeWins;
+    }
+
+    public void setHedgeWins(long hedgeWins) {
+        this.hedgeWins = hedgeWins;
+    }
+
+    public long getBudgetDenied() {
+        return budgetDenied;
+    }
+
+    public void setBudgetDenied(long budgetDenied) {
+        this.budgetDenied = budgetDenied;
+    }
+
+    public long getFailovers() {
+        return failovers;
+    }
+
+    public void setFailovers(long failovers) {
+        this.failovers = failovers;
+    }
+
+    public double getHedgeRatio() {
+        return hedgeRatio;
+    }
+
+    public void setHedgeRatio(double hedgeRatio) {
+        this.hedgeRatio = hedgeRatio;
+    }
+
+    public double getMaxHedgeRatio() {
+        return maxHedgeRatio;
+    }
+
+    public void setMaxHedgeRatio(double maxHedgeRatio) {
+        this.maxHedgeRatio = maxHedgeRatio;
+    }
+
+    public List<OcrEngineStats> getEngines() {
+        return engines;
+    }
+
+    public void setEngines(List<OcrEngineStats> engines) {
+        this.engines = engines;
+    }
+}
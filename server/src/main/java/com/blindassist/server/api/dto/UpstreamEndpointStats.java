@@ -0,0 +1,62 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * Python 模型服务实例状态 DTO（管理接口使用）
+ */
+public class UpstreamEndpointStats {
+
+    private String uri;
+    private boolean healthy;
+    private boolean ejected;
+    private String breakerState;
+    private int outstanding;
+    private long latencyEwmaMs;
+
+    public String getUri() {
+        return uri;
+    }
+
+    public void setUri(String uri) {
+        this.uri = uri;
+    }
+
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    public void setEjected(boolean ejected) {
+        this.ejected = ejected;
+    }
+
+    public String getBreakerState() {
+        return breakerState;
+    }
+
+    public void setBreakerState(String breakerState) {
+        this.breakerState = breakerState;
+    }
+
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    public void setOutstanding(int outstanding) {
+        this.outstanding = outstanding;
+    }
+
+    public long getLatencyEwmaMs() {
+        return latencyEwmaMs;
+    }
+
+    public void setLatencyEwmaMs(long latencyEwmaMs) {
+        this.latencyEwmaMs = latencyEwmaMs;
+    }
+}
@@ -0,0 +1,71 @@
+package com.blindassist.server.api.dto;
+
+/**
+ * 单个视觉接口的结果缓存指标 DTO（管理接口使用）
+ */
+public class VisionCacheStats {
+
+    private String endpoint;
+    private int entries;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private double hitRatio;
+    private long savedMs;
+
+    public String getEndpoint() {
+        return endpoint;
+    }
+
+    public void setEndpoint(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public void setEntries(int entries) {
+        this.entries = entries;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public void setHits(long hits) {
+        this.hits = hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public void setMisses(long misses) {
+        this.misses = misses;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    public long getSavedMs() {
+        return savedMs;
+    }
+
+    public void setSavedMs(long savedMs) {
+        this.savedMs = savedMs;
+    }
+}
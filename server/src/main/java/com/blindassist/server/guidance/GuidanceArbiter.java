@@ -0,0 +1,164 @@
+package com.blindassist.server.guidance;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * 单个用户的播报仲裁：避障与导航等来源的消息进入同一优先级队列，按顺序逐条下发
+ * - 优先级：即将碰撞 > 避障 > 转向指令 > 一般信息，同优先级先到先发
+ * - 合并：同一 key 的待发消息只保留最新内容，沿用原来的排队位置
+ * - 去重：去重窗口内已下发过的相同 key 与文本直接丢弃
+ * - 限速：两条消息之间至少间隔 minIntervalMs，避免手机端播报重叠；即将碰撞提示不受限制
+ * - 过期：超过各自有效期仍未下发的消息直接丢弃（过时的避障提示没有意义）
+ * - 队列满时丢弃优先级最低、最晚到达的消息
+ * 本类不是线程安全的，由 GuidanceService 按用户加锁访问。
+ */
+public class GuidanceArbiter {
+
+    /**
+     * 限速、去重与队列容量参数
+     */
+    public static class Settings {
+        public long minIntervalMs = 1500;
+        public long dedupWindowMs = 5000;
+        public int capacity = 32;
+    }
+
+    private static final Comparator<GuidanceMessage> ORDER = Comparator
+            .comparing(GuidanceMessage::getPriority)
+            .thenComparingLong(message -> message.sequence);
+
+    private static final class Emitted {
+        final String text;
+        final long at;
+
+        Emitted(String text, long at) {
+            this.text = text;
+            this.at = at;
+        }
+    }
+
+    private final Settings settings;
+    private final PriorityQueue<GuidanceMessage> pending = new PriorityQueue<>(ORDER);
+    private final Map<String, GuidanceMessage> pendingByKey = new HashMap<>();
+    private final Map<String, Emitted> recent = new HashMap<>();
+    private long nextSequence;
+    private long lastEmittedAt = Long.MIN_VALUE / 2;
+
+    private long submitted;
+    private long merged;
+    private long deduplicated;
+    private long expired;
+    private long dropped;
+    private long emitted;
+
+    public GuidanceArbiter(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @return 是否进入队列；去重窗口内的重复消息返回 false
+     */
+    public boolean submit(GuidanceMessage message, long now) {
+        submitted++;
+        Emitted last = recent.get(message.getKey());
+        if (last != null && now - last.at < settings.dedupWindowMs && last.text.equals(message.getText())) {
+            deduplicated++;
+            return false;
+        }
+        GuidanceMessage existing = pendingByKey.get(message.getKey());
+        if (existing != null) {
+            pending.remove(existing);
+            message.sequence = existing.sequence;
+            merged++;
+        } else {
+            message.sequence = nextSequence++;
+        }
+        pending.add(message);
+        pendingByKey.put(message.getKey(), message);
+        if (pending.size() > settings.capacity) {
+            GuidanceMessage lowest = null;
+            for (GuidanceMessage candidate : pending) {
+                if (lowest == null || ORDER.compare(candidate, lowest) > 0) {
+                    lowest = candidate;
+                }
+            }
+            remove(lowest);
+            dropped++;
+        }
+        return true;
+    }
+
+    /**
+     * @return 当前应下发的消息；队列为空或仍在播报间隔内时返回 null
+     */
+    public GuidanceMessage poll(long now) {
+        expire(now);
+        GuidanceMessage head = pending.peek();
+        if (head == null) {
+            return null;
+        }
+        if (head.getPriority() != GuidancePriority.COLLISION_IMMINENT
+                && now - lastEmittedAt < settings.minIntervalMs) {
+            return null;
+        }
+        remove(head);
+        lastEmittedAt = now;
+        recent.put(head.getKey(), new Emitted(head.getText(), now));
+        emitted++;
+        return head;
+    }
+
+    public boolean isEmpty() {
+        return pending.isEmpty();
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public long getSubmitted() {
+        return submitted;
+    }
+
+    public long getMerged() {
+        return merged;
+    }
+
+    public long getDeduplicated() {
+        return deduplicated;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getEmitted() {
+        return emitted;
+    }
+
+    private void expire(long now) {
+        Iterator<GuidanceMessage> it = pending.iterator();
+        while (it.hasNext()) {
+            GuidanceMessage message = it.next();
+            if (now >= message.getExpiresAt()) {
+                it.remove();
+                pendingByKey.remove(message.getKey());
+                expired++;
+            }
+        }
+        recent.values().removeIf(entry -> now - entry.at >= settings.dedupWindowMs);
+    }
+
+    private void remove(GuidanceMessage message) {
+        pending.remove(message);
+        pendingByKey.remove(message.getKey());
+    }
+}
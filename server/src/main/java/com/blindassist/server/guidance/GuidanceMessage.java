@@ -0,0 +1,70 @@
+package com.blindassist.server.guidance;
+
+import java.util.Map;
+
+/**
+ * 一条待播报的引导消息：
+ * - key：合并与去重的依据，同一 key 的待发消息只保留最新一条
+ * - text：播报文本
+ * - fields：随消息下发的结构化字段（如避障提示的方位、距离、seq）
+ * - code：可选的紧凑二进制编码（见 ObstacleWarningCode），声明支持的连接下发它而不是 JSON
+ */
+public final class GuidanceMessage {
+
+    private final GuidancePriority priority;
+    private final String key;
+    private final String text;
+    private final Map<String, Object> fields;
+    private final byte[] code;
+    private final long createdAt;
+    private final long expiresAt;
+    // 进入队列的顺序，同优先级内先到先发；合并时沿用被替换消息的顺序
+    long sequence;
+
+    public GuidanceMessage(GuidancePriority priority, String key, String text, Map<String, Object> fields,
+                           long createdAt, long expiresAt) {
+        this(priority, key, text, fields, null, createdAt, expiresAt);
+    }
+
+    public GuidanceMessage(GuidancePriority priority, String key, String text, Map<String, Object> fields,
+                           byte[] code, long createdAt, long expiresAt) {
+        this.priority = priority;
+        this.key = key;
+        this.text = text;
+        this.fields = fields;
+        this.code = code;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+
+    public GuidancePriority getPriority() {
+        return priority;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public Map<String, Object> getFields() {
+        return fields;
+    }
+
+    /**
+     * @return 紧凑编码，没有时为 null
+     */
+    public byte[] getCode() {
+        return code;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
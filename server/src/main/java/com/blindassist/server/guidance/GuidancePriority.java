@@ -0,0 +1,35 @@
+package com.blindassist.server.guidance;
+
+/**
+ * 播报优先级，声明顺序即优先顺序（越靠前越优先）
+ */
+public enum GuidancePriority {
+    // 即将碰撞：正前方近距离障碍物，不受播报间隔限制
+    COLLISION_IMMINENT("collision"),
+    // 一般避障提示
+    OBSTACLE("obstacle"),
+    // 导航转向 / 路线指令
+    TURN("turn"),
+    // 一般信息
+    INFO("info");
+
+    private final String wireName;
+
+    GuidancePriority(String wireName) {
+        this.wireName = wireName;
+    }
+
+    /**
+     * @return 下发给 App 的 priority 字段取值
+     */
+    public String getWireName() {
+        return wireName;
+    }
+
+    /**
+     * @return 是否打断正在进行的播报；安全相关提示总是立即插播
+     */
+    public boolean interrupts() {
+        return this == COLLISION_IMMINENT || this == OBSTACLE;
+    }
+}
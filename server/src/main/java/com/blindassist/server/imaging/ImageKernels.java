@@ -0,0 +1,78 @@
+package com.blindassist.server.imaging;
+
+/**
+ * 逐帧图像预处理内核（避障与视觉接口共用）：
+ * - 输入输出均为调用方提供的按行存储的数组（灰度每像素 1 字节），内核本身不做每次调用的分配，
+ *   需要的行缓冲按线程复用
+ * - 所有实现使用相同的定点公式，结果逐像素一致，可随时在实现之间切换
+ * - 实现：{@link ScalarImageKernels}（标量，可由 JIT 自动向量化的简单循环）与
+ *   VectorImageKernels（jdk.incubator.vector）；由 {@link #create} 按运行环境选择
+ * 实现无共享可变状态，可被多个线程并发调用。
+ */
+public interface ImageKernels {
+
+    /**
+     * @return 实现名称，用于日志与基准测试输出
+     */
+    String name();
+
+    /**
+     * 紧凑排列的 BGR（TYPE_3BYTE_BGR）转灰度：(77R + 150G + 29B) >> 8
+     */
+    void bgrToGray(byte[] bgr, byte[] gray, int pixels);
+
+    /**
+     * 双线性缩放（像素中心对齐，权重精度 1/256）；用于缩小时比例应不超过 2，更大的比例先降采样
+     */
+    void resize(byte[] src, int srcWidth, int srcHeight, byte[] dst, int dstWidth, int dstHeight);
+
+    /**
+     * 顺时针旋转 90 / 180 / 270 度，0 度时直接复制；旋转 90 / 270 度时输出宽高对调
+     */
+    void rotate(byte[] src, int width, int height, int rotation, byte[] dst);
+
+    /**
+     * 3x3 均值模糊：(sum * 7282 + 32768) >> 16；最外一圈像素原样复制
+     */
+    void boxBlur3x3(byte[] src, byte[] dst, int width, int height);
+
+    /**
+     * 3x3 高斯模糊（1 2 1 / 2 4 2 / 1 2 1）：(sum + 8) >> 4；最外一圈像素原样复制
+     */
+    void gaussianBlur3x3(byte[] src, byte[] dst, int width, int height);
+
+    /**
+     * 4 邻域拉普拉斯响应的方差（不含最外一圈），数值越小图像越模糊
+     */
+    double laplacianVariance(byte[] src, int width, int height);
+
+    /**
+     * 差值感知哈希（dHash）：把图像按 9 列 x 8 行分块求均值，每行相邻两块左暗右亮时置位，
+     * 第 r 行第 c 位为 bit (r * 8 + c)
+     */
+    long differenceHash(byte[] src, int width, int height);
+
+    static int hammingDistance(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    /**
+     * @param mode auto（向量 API 可用时使用向量实现）、vector 或 scalar
+     */
+    static ImageKernels create(String mode) {
+        if (!"scalar".equals(mode)) {
+            // 需以 --add-modules jdk.incubator.vector 启动；未加载该模块时不触碰向量实现的类
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                try {
+                    return (ImageKernels) Class.forName("com.blindassist.server.imaging.VectorImageKernels")
+                            .getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    System.err.println("向量图像内核加载失败，使用标量实现: " + e);
+                }
+            } else if ("vector".equals(mode)) {
+                System.err.println("未启用 jdk.incubator.vector 模块，使用标量图像内核");
+            }
+        }
+        return new ScalarImageKernels();
+    }
+}
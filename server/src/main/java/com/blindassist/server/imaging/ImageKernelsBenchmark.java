@@ -0,0 +1,177 @@
+package com.blindassist.server.imaging;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 图像内核基准测试：在 640x480 与 1920x1080 下单线程循环执行各内核，输出每秒处理的百万像素数、
+ * 每次调用分配的字节数，以及向量实现相对标量实现的加速比；同时校验两种实现的结果逐字节一致。
+ * 用法：java --add-modules jdk.incubator.vector -cp blindassist-server.jar \
+ *       com.blindassist.server.imaging.ImageKernelsBenchmark [每项秒数]
+ * 未启用向量模块时只测试标量实现。
+ */
+public class ImageKernelsBenchmark {
+
+    private interface Kernel {
+        long run(ImageKernels kernels);
+    }
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        List<ImageKernels> implementations = new ArrayList<>();
+        implementations.add(new ScalarImageKernels());
+        ImageKernels vector = ImageKernels.create("vector");
+        if (!(vector.getClass() == ScalarImageKernels.class)) {
+            implementations.add(vector);
+        }
+        boolean consistent = true;
+        for (int[] size : new int[][]{{640, 480}, {1920, 1080}}) {
+            consistent &= benchmark(implementations, size[0], size[1], (long) (seconds * 1000));
+        }
+        if (!consistent) {
+            System.out.println("实现之间的结果不一致");
+            System.exit(1);
+        }
+    }
+
+    private static boolean benchmark(List<ImageKernels> implementations, int width, int height, long durationMs) {
+        int pixels = width * height;
+        byte[] bgr = syntheticBgr(width, height, new Random(42));
+        byte[] gray = new byte[pixels];
+        new ScalarImageKernels().bgrToGray(bgr, gray, pixels);
+        int halfWidth = width / 2;
+        int halfHeight = height / 2;
+
+        List<String> names = List.of("bgrToGray", "resize 1/2", "rotate 90", "boxBlur3x3", "gaussianBlur3x3",
+                "laplacianVar", "dHash");
+        // 每个实现各自的输出缓冲，运行后逐字节比较
+        byte[][][] outputs = new byte[implementations.size()][names.size()][];
+        long[][] scalars = new long[implementations.size()][names.size()];
+        System.out.printf("%n== %dx%d ==%n", width, height);
+        System.out.printf("%-16s", "kernel");
+        for (ImageKernels kernels : implementations) {
+            System.out.printf("%22s", kernels.name() + " Mpx/s");
+        }
+        System.out.printf("%12s%12s%n", "加速比", "分配 B/次");
+
+        boolean consistent = true;
+        for (int k = 0; k < names.size(); k++) {
+            double[] rates = new double[implementations.size()];
+            double allocation = 0;
+            for (int i = 0; i < implementations.size(); i++) {
+                byte[] out = new byte[pixels];
+                outputs[i][k] = out;
+                Kernel kernel = kernel(k, bgr, gray, out, width, height, halfWidth, halfHeight);
+                ImageKernels kernels = implementations.get(i);
+                // 预热，让 JIT 完成编译
+                measure(kernel, kernels, 1000);
+                double[] result = measure(kernel, kernels, durationMs);
+                rates[i] = result[0] * pixels / 1e6;
+                allocation = Math.max(allocation, result[1]);
+                scalars[i][k] = kernel.run(kernels);
+            }
+            System.out.printf("%-16s", names.get(k));
+            for (double rate : rates) {
+                System.out.printf("%22.1f", rate);
+            }
+            System.out.printf("%12s%12.0f%n",
+                    rates.length > 1 ? String.format("%.2fx", rates[rates.length - 1] / rates[0]) : "-", allocation);
+            for (int i = 1; i < implementations.size(); i++) {
+                if (!Arrays.equals(outputs[0][k], outputs[i][k]) || scalars[0][k] != scalars[i][k]) {
+                    System.out.println("  结果不一致: " + names.get(k) + " / " + implementations.get(i).name());
+                    consistent = false;
+                }
+            }
+        }
+        return consistent;
+    }
+
+    private static Kernel kernel(int index, byte[] bgr, byte[] gray, byte[] out, int width, int height,
+                                 int halfWidth, int halfHeight) {
+        switch (index) {
+            case 0:
+                return kernels -> {
+                    kernels.bgrToGray(bgr, out, width * height);
+                    return 0;
+                };
+            case 1:
+                return kernels -> {
+                    kernels.resize(gray, width, height, out, halfWidth, halfHeight);
+                    return 0;
+                };
+            case 2:
+                return kernels -> {
+                    kernels.rotate(gray, width, height, 90, out);
+                    return 0;
+                };
+            case 3:
+                return kernels -> {
+                    kernels.boxBlur3x3(gray, out, width, height);
+                    return 0;
+                };
+            case 4:
+                return kernels -> {
+                    kernels.gaussianBlur3x3(gray, out, width, height);
+                    return 0;
+                };
+            case 5:
+                return kernels -> Double.doubleToLongBits(kernels.laplacianVariance(gray, width, height));
+            default:
+                return kernels -> kernels.differenceHash(gray, width, height);
+        }
+    }
+
+    /**
+     * @return {每秒调用次数, 每次调用分配字节数}；分配量取自当前线程的分配计数（HotSpot 扩展接口）
+     */
+    private static double[] measure(Kernel kernel, ImageKernels kernels, long durationMs) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long calls = 0;
+        long sink = 0;
+        long start = System.nanoTime();
+        long deadline = start + durationMs * 1_000_000;
+        while (System.nanoTime() < deadline) {
+            sink += kernel.run(kernels);
+            calls++;
+        }
+        double rate = calls / ((System.nanoTime() - start) / 1e9);
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (sink == 42) {
+            System.out.println(sink);
+        }
+        return new double[]{rate, (double) allocated / calls};
+    }
+
+    /**
+     * 合成帧：横向渐变叠加噪声与若干矩形，使模糊、拉普拉斯与哈希都有非平凡的输入
+     */
+    private static byte[] syntheticBgr(int width, int height, Random random) {
+        byte[] bgr = new byte[width * height * 3];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int base = x * 200 / width + random.nextInt(40);
+                int p = (y * width + x) * 3;
+                bgr[p] = (byte) base;
+                bgr[p + 1] = (byte) (base + y * 50 / height);
+                bgr[p + 2] = (byte) (255 - base);
+            }
+        }
+        for (int i = 0; i < 12; i++) {
+            int x0 = random.nextInt(width - width / 8);
+            int y0 = random.nextInt(height - height / 8);
+            int value = random.nextInt(256);
+            for (int y = y0; y < y0 + height / 8; y++) {
+                for (int x = x0; x < x0 + width / 8; x++) {
+                    int p = (y * width + x) * 3;
+                    bgr[p] = bgr[p + 1] = bgr[p + 2] = (byte) value;
+                }
+            }
+        }
+        return bgr;
+    }
+}
@@ -0,0 +1,19 @@
+package com.blindassist.server.imaging;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 图像内核实现的选择：auto 时向量 API 可用则使用向量实现
+ */
+@Configuration
+public class ImagingConfig {
+
+    @Bean
+    public ImageKernels imageKernels(@Value("${imaging.kernels:auto}") String mode) {
+        ImageKernels kernels = ImageKernels.create(mode);
+        System.out.println("图像内核实现: " + kernels.name());
+        return kernels;
+    }
+}
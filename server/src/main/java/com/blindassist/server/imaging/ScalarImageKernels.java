@@ -0,0 +1,234 @@
+package com.blindassist.server.imaging;
+
+import java.util.Arrays;
+
+/**
+ * 标量实现，同时是各内核定点公式的参考实现；VectorImageKernels 继承本类，只覆盖可向量化的内核
+ */
+public class ScalarImageKernels implements ImageKernels {
+
+    // 缩放的纵向插值结果（每像素放大 256 倍）与 dHash 的分块和，按线程复用
+    private final ThreadLocal<int[]> rowBuffers = ThreadLocal.withInitial(() -> new int[0]);
+    private final ThreadLocal<long[]> hashSums = ThreadLocal.withInitial(() -> new long[9 * 8]);
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+
+    @Override
+    public void bgrToGray(byte[] bgr, byte[] gray, int pixels) {
+        for (int i = 0, p = 0; i < pixels; i++, p += 3) {
+            gray[i] = (byte) ((29 * (bgr[p] & 0xFF) + 150 * (bgr[p + 1] & 0xFF) + 77 * (bgr[p + 2] & 0xFF)) >> 8);
+        }
+    }
+
+    @Override
+    public void resize(byte[] src, int srcWidth, int srcHeight, byte[] dst, int dstWidth, int dstHeight) {
+        int[] row = rowBuffer(srcWidth);
+        for (int y = 0; y < dstHeight; y++) {
+            int fy = sourceCoordinate(y, srcHeight, dstHeight);
+            int y0 = fy >> 8;
+            int y1 = Math.min(y0 + 1, srcHeight - 1);
+            int wy = fy & 0xFF;
+            lerpRows(src, y0 * srcWidth, y1 * srcWidth, 256 - wy, wy, row, srcWidth);
+            horizontal(row, srcWidth, dst, y * dstWidth, dstWidth);
+        }
+    }
+
+    @Override
+    public void rotate(byte[] src, int width, int height, int rotation, byte[] dst) {
+        switch (rotation) {
+            case 90:
+                // 源 (x, y) -> 目标 (height - 1 - y, x)，目标宽为 height
+                for (int y = 0; y < height; y++) {
+                    int column = height - 1 - y;
+                    for (int x = 0; x < width; x++) {
+                        dst[x * height + column] = src[y * width + x];
+                    }
+                }
+                break;
+            case 180:
+                for (int i = 0, j = width * height - 1; j >= 0; i++, j--) {
+                    dst[i] = src[j];
+                }
+                break;
+            case 270:
+                // 源 (x, y) -> 目标 (y, width - 1 - x)
+                for (int y = 0; y < height; y++) {
+                    for (int x = 0; x < width; x++) {
+                        dst[(width - 1 - x) * height + y] = src[y * width + x];
+                    }
+                }
+                break;
+            default:
+                System.arraycopy(src, 0, dst, 0, width * height);
+                break;
+        }
+    }
+
+    @Override
+    public void boxBlur3x3(byte[] src, byte[] dst, int width, int height) {
+        copyBorder(src, dst, width, height);
+        for (int y = 1; y < height - 1; y++) {
+            boxRow(src, dst, width, y, 1, width - 1);
+        }
+    }
+
+    @Override
+    public void gaussianBlur3x3(byte[] src, byte[] dst, int width, int height) {
+        copyBorder(src, dst, width, height);
+        for (int y = 1; y < height - 1; y++) {
+            gaussianRow(src, dst, width, y, 1, width - 1);
+        }
+    }
+
+    @Override
+    public double laplacianVariance(byte[] src, int width, int height) {
+        if (width < 3 || height < 3) {
+            return 0;
+        }
+        long sum = 0;
+        long sumSquares = 0;
+        for (int y = 1; y < height - 1; y++) {
+            int up = (y - 1) * width;
+            int mid = y * width;
+            int down = (y + 1) * width;
+            for (int x = 1; x < width - 1; x++) {
+                int response = laplacian(src, up, mid, down, x);
+                sum += response;
+                sumSquares += response * response;
+            }
+        }
+        return variance(sum, sumSquares, (long) (width - 2) * (height - 2));
+    }
+
+    @Override
+    public long differenceHash(byte[] src, int width, int height) {
+        long[] sums = hashSums();
+        for (int r = 0; r < 8; r++) {
+            for (int y = r * height / 8; y < (r + 1) * height / 8; y++) {
+                int offset = y * width;
+                for (int c = 0; c < 9; c++) {
+                    sums[r * 9 + c] += sumRange(src, offset + c * width / 9, offset + (c + 1) * width / 9);
+                }
+            }
+        }
+        return hashFromSums(sums, width, height);
+    }
+
+    // --- 供向量实现复用的行级与收尾计算 ---
+
+    int[] rowBuffer(int width) {
+        int[] row = rowBuffers.get();
+        if (row.length < width) {
+            row = new int[width];
+            rowBuffers.set(row);
+        }
+        return row;
+    }
+
+    long[] hashSums() {
+        long[] sums = hashSums.get();
+        Arrays.fill(sums, 0);
+        return sums;
+    }
+
+    /**
+     * @return 目标坐标 i 对应的源坐标（1/256 像素），像素中心对齐并截断到 [0, srcSize - 1]
+     */
+    static int sourceCoordinate(int i, int srcSize, int dstSize) {
+        int f = (int) (((2L * i + 1) * srcSize * 128) / dstSize) - 128;
+        return Math.max(0, Math.min(f, (srcSize - 1) << 8));
+    }
+
+    void lerpRows(byte[] src, int offset0, int offset1, int w0, int w1, int[] row, int width) {
+        for (int x = 0; x < width; x++) {
+            row[x] = (src[offset0 + x] & 0xFF) * w0 + (src[offset1 + x] & 0xFF) * w1;
+        }
+    }
+
+    static void horizontal(int[] row, int srcWidth, byte[] dst, int offset, int dstWidth) {
+        for (int x = 0; x < dstWidth; x++) {
+            int fx = sourceCoordinate(x, srcWidth, dstWidth);
+            int x0 = fx >> 8;
+            int x1 = Math.min(x0 + 1, srcWidth - 1);
+            int wx = fx & 0xFF;
+            dst[offset + x] = (byte) ((row[x0] * (256 - wx) + row[x1] * wx + 32768) >> 16);
+        }
+    }
+
+    static void copyBorder(byte[] src, byte[] dst, int width, int height) {
+        System.arraycopy(src, 0, dst, 0, width);
+        if (height > 1) {
+            System.arraycopy(src, (height - 1) * width, dst, (height - 1) * width, width);
+        }
+        for (int y = 1; y < height - 1; y++) {
+            dst[y * width] = src[y * width];
+            dst[y * width + width - 1] = src[y * width + width - 1];
+        }
+    }
+
+    static void boxRow(byte[] src, byte[] dst, int width, int y, int from, int to) {
+        int up = (y - 1) * width;
+        int mid = y * width;
+        int down = (y + 1) * width;
+        for (int x = from; x < to; x++) {
+            int sum = (src[up + x - 1] & 0xFF) + (src[up + x] & 0xFF) + (src[up + x + 1] & 0xFF)
+                    + (src[mid + x - 1] & 0xFF) + (src[mid + x] & 0xFF) + (src[mid + x + 1] & 0xFF)
+                    + (src[down + x - 1] & 0xFF) + (src[down + x] & 0xFF) + (src[down + x + 1] & 0xFF);
+            dst[mid + x] = (byte) ((sum * 7282 + 32768) >> 16);
+        }
+    }
+
+    static void gaussianRow(byte[] src, byte[] dst, int width, int y, int from, int to) {
+        int up = (y - 1) * width;
+        int mid = y * width;
+        int down = (y + 1) * width;
+        for (int x = from; x < to; x++) {
+            int sum = (src[up + x - 1] & 0xFF) + 2 * (src[up + x] & 0xFF) + (src[up + x + 1] & 0xFF)
+                    + 2 * (src[mid + x - 1] & 0xFF) + 4 * (src[mid + x] & 0xFF) + 2 * (src[mid + x + 1] & 0xFF)
+                    + (src[down + x - 1] & 0xFF) + 2 * (src[down + x] & 0xFF) + (src[down + x + 1] & 0xFF);
+            dst[mid + x] = (byte) ((sum + 8) >> 4);
+        }
+    }
+
+    static int laplacian(byte[] src, int up, int mid, int down, int x) {
+        return 4 * (src[mid + x] & 0xFF) - (src[up + x] & 0xFF) - (src[down + x] & 0xFF)
+                - (src[mid + x - 1] & 0xFF) - (src[mid + x + 1] & 0xFF);
+    }
+
+    static double variance(long sum, long sumSquares, long count) {
+        if (count <= 0) {
+            return 0;
+        }
+        double mean = (double) sum / count;
+        return (double) sumSquares / count - mean * mean;
+    }
+
+    static long sumRange(byte[] src, int from, int to) {
+        long sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += src[i] & 0xFF;
+        }
+        return sum;
+    }
+
+    /**
+     * 按块像素数折算均值后比较相邻两块：sums[r][c] / area(c) < sums[r][c+1] / area(c+1)
+     */
+    static long hashFromSums(long[] sums, int width, int height) {
+        long hash = 0;
+        for (int r = 0; r < 8; r++) {
+            long rows = (r + 1) * height / 8 - r * height / 8;
+            for (int c = 0; c < 8; c++) {
+                long left = (long) ((c + 1) * width / 9 - c * width / 9) * rows;
+                long right = (long) ((c + 2) * width / 9 - (c + 1) * width / 9) * rows;
+                if (sums[r * 9 + c] * right < sums[r * 9 + c + 1] * left) {
+                    hash |= 1L << (r * 8 + c);
+                }
+            }
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,152 @@
+package com.blindassist.server.imaging;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShape;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * 基于 jdk.incubator.vector 的实现：字节按 B2I 扩展为整型向量后做定点运算，再按 I2B 截回字节。
+ * 只覆盖逐行可并行的部分（缩放的纵向插值、3x3 模糊、拉普拉斯方差、dHash 分块求和），
+ * 3x3 模糊按行先求纵向和再横向合并，每个输出向量只需加载三次字节数据；
+ * 行尾不足一个向量的部分、交错 BGR 转灰度、缩放的横向插值和旋转需要 gather，沿用标量实现。
+ * 仅由 {@link ImageKernels#create} 在模块可用时反射加载。
+ */
+class VectorImageKernels extends ScalarImageKernels {
+
+    // 整型向量至少 256 位，使对应的字节向量不短于 64 位
+    private static final VectorSpecies<Integer> INTS = IntVector.SPECIES_PREFERRED.vectorBitSize() >= 256
+            ? IntVector.SPECIES_PREFERRED : IntVector.SPECIES_256;
+    private static final VectorSpecies<Byte> BYTES =
+            VectorSpecies.of(byte.class, VectorShape.forBitSize(INTS.vectorBitSize() / 4));
+    private static final int LANES = INTS.length();
+
+    @Override
+    public String name() {
+        return "vector(" + INTS.vectorBitSize() + "bit)";
+    }
+
+    @Override
+    void lerpRows(byte[] src, int offset0, int offset1, int w0, int w1, int[] row, int width) {
+        int x = 0;
+        for (; x <= width - LANES; x += LANES) {
+            load(src, offset0 + x).mul(w0).add(load(src, offset1 + x).mul(w1)).intoArray(row, x);
+        }
+        for (; x < width; x++) {
+            row[x] = (src[offset0 + x] & 0xFF) * w0 + (src[offset1 + x] & 0xFF) * w1;
+        }
+    }
+
+    @Override
+    public void boxBlur3x3(byte[] src, byte[] dst, int width, int height) {
+        copyBorder(src, dst, width, height);
+        int[] column = rowBuffer(width);
+        for (int y = 1; y < height - 1; y++) {
+            int mid = y * width;
+            verticalSums(src, mid - width, mid, mid + width, 1, column, width);
+            int x = 1;
+            for (; x <= width - 1 - LANES; x += LANES) {
+                IntVector sum = IntVector.fromArray(INTS, column, x - 1).add(IntVector.fromArray(INTS, column, x))
+                        .add(IntVector.fromArray(INTS, column, x + 1));
+                store(sum.mul(7282).add(32768).lanewise(VectorOperators.ASHR, 16), dst, mid + x);
+            }
+            boxRow(src, dst, width, y, x, width - 1);
+        }
+    }
+
+    @Override
+    public void gaussianBlur3x3(byte[] src, byte[] dst, int width, int height) {
+        copyBorder(src, dst, width, height);
+        int[] column = rowBuffer(width);
+        for (int y = 1; y < height - 1; y++) {
+            int mid = y * width;
+            verticalSums(src, mid - width, mid, mid + width, 2, column, width);
+            int x = 1;
+            for (; x <= width - 1 - LANES; x += LANES) {
+                IntVector sum = IntVector.fromArray(INTS, column, x - 1)
+                        .add(IntVector.fromArray(INTS, column, x).lanewise(VectorOperators.LSHL, 1))
+                        .add(IntVector.fromArray(INTS, column, x + 1));
+                store(sum.add(8).lanewise(VectorOperators.ASHR, 4), dst, mid + x);
+            }
+            gaussianRow(src, dst, width, y, x, width - 1);
+        }
+    }
+
+    @Override
+    public double laplacianVariance(byte[] src, int width, int height) {
+        if (width < 3 || height < 3) {
+            return 0;
+        }
+        long sum = 0;
+        long sumSquares = 0;
+        for (int y = 1; y < height - 1; y++) {
+            int up = (y - 1) * width;
+            int mid = y * width;
+            int down = (y + 1) * width;
+            // 单行每个通道的平方和不超过 (width / LANES) * 1020^2，逐行归约即可避免 int 溢出
+            IntVector rowSum = IntVector.zero(INTS);
+            IntVector rowSquares = IntVector.zero(INTS);
+            int x = 1;
+            for (; x <= width - 1 - LANES; x += LANES) {
+                IntVector response = load(src, mid + x).lanewise(VectorOperators.LSHL, 2)
+                        .sub(load(src, up + x)).sub(load(src, down + x))
+                        .sub(load(src, mid + x - 1)).sub(load(src, mid + x + 1));
+                rowSum = rowSum.add(response);
+                rowSquares = rowSquares.add(response.mul(response));
+            }
+            sum += rowSum.reduceLanes(VectorOperators.ADD);
+            sumSquares += rowSquares.reduceLanes(VectorOperators.ADD);
+            for (; x < width - 1; x++) {
+                int response = laplacian(src, up, mid, down, x);
+                sum += response;
+                sumSquares += response * response;
+            }
+        }
+        return variance(sum, sumSquares, (long) (width - 2) * (height - 2));
+    }
+
+    @Override
+    public long differenceHash(byte[] src, int width, int height) {
+        long[] sums = hashSums();
+        for (int r = 0; r < 8; r++) {
+            for (int y = r * height / 8; y < (r + 1) * height / 8; y++) {
+                int offset = y * width;
+                for (int c = 0; c < 9; c++) {
+                    int from = offset + c * width / 9;
+                    int to = offset + (c + 1) * width / 9;
+                    IntVector acc = IntVector.zero(INTS);
+                    int i = from;
+                    for (; i <= to - LANES; i += LANES) {
+                        acc = acc.add(load(src, i));
+                    }
+                    sums[r * 9 + c] += acc.reduceLanes(VectorOperators.ADD) + sumRange(src, i, to);
+                }
+            }
+        }
+        return hashFromSums(sums, width, height);
+    }
+
+    private static IntVector load(byte[] src, int offset) {
+        return ((IntVector) ByteVector.fromArray(BYTES, src, offset)
+                .convertShape(VectorOperators.B2I, INTS, 0)).and(0xFF);
+    }
+
+    private static void store(IntVector values, byte[] dst, int offset) {
+        ((ByteVector) values.convertShape(VectorOperators.I2B, BYTES, 0)).intoArray(dst, offset);
+    }
+
+    /**
+     * 每列的纵向三点加权和：up + middleWeight * mid + down，横向再按同样的权重合并即为 3x3 卷积
+     */
+    private static void verticalSums(byte[] src, int up, int mid, int down, int middleWeight, int[] column,
+                                     int width) {
+        int x = 0;
+        for (; x <= width - LANES; x += LANES) {
+            load(src, up + x).add(load(src, mid + x).mul(middleWeight)).add(load(src, down + x)).intoArray(column, x);
+        }
+        for (; x < width; x++) {
+            column[x] = (src[up + x] & 0xFF) + middleWeight * (src[mid + x] & 0xFF) + (src[down + x] & 0xFF);
+        }
+    }
+}
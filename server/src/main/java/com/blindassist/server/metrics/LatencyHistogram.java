@@ -0,0 +1,84 @@
+package com.blindassist.server.metrics;
+
+import com.blindassist.server.api.dto.LatencySummary;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁的延迟直方图：
+ * - 桶边界按 1.25 倍指数增长，覆盖 0.05ms ~ 约 2 分钟，分位数误差约 12%
+ * - record 只做一次桶定位和几次原子加，可在 I/O 线程上直接调用
+ */
+public class LatencyHistogram {
+
+    private static final double FIRST_BUCKET_MICROS = 50;
+    private static final double GROWTH = 1.25;
+    private static final int BUCKETS = 68;
+    private static final long[] UPPER_BOUNDS_MICROS = new long[BUCKETS];
+
+    static {
+        double bound = FIRST_BUCKET_MICROS;
+        for (int i = 0; i < BUCKETS; i++) {
+            UPPER_BOUNDS_MICROS[i] = (long) bound;
+            bound *= GROWTH;
+        }
+    }
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS + 1);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sumMicros = new AtomicLong();
+    private final AtomicLong maxMicros = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(bucketOf(micros));
+        count.incrementAndGet();
+        sumMicros.addAndGet(micros);
+        maxMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public void recordMillis(long millis) {
+        recordNanos(millis * 1_000_000);
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public LatencySummary summary() {
+        LatencySummary summary = new LatencySummary();
+        long total = count.get();
+        summary.setCount(total);
+        if (total == 0) {
+            return summary;
+        }
+        summary.setMeanMs(sumMicros.get() / 1000.0 / total);
+        summary.setMaxMs(maxMicros.get() / 1000.0);
+        summary.setP50Ms(percentileMs(0.50, total));
+        summary.setP90Ms(percentileMs(0.90, total));
+        summary.setP99Ms(percentileMs(0.99, total));
+        return summary;
+    }
+
+    private double percentileMs(double quantile, long total) {
+        long rank = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i <= BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                long upper = i < BUCKETS ? UPPER_BOUNDS_MICROS[i] : maxMicros.get();
+                return Math.min(upper, maxMicros.get()) / 1000.0;
+            }
+        }
+        return maxMicros.get() / 1000.0;
+    }
+
+    private static int bucketOf(long micros) {
+        if (micros <= FIRST_BUCKET_MICROS) {
+            return 0;
+        }
+        int index = (int) Math.ceil(Math.log(micros / FIRST_BUCKET_MICROS) / Math.log(GROWTH));
+        return Math.min(index, BUCKETS);
+    }
+}
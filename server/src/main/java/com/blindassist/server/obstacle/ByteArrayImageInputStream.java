@@ -0,0 +1,59 @@
+package com.blindassist.server.obstacle;
+
+import javax.imageio.stream.ImageInputStreamImpl;
+
+/**
+ * 直接读取字节数组的 ImageInputStream，不像 ImageIO.createImageInputStream 那样另建内存缓存或临时文件
+ */
+public final class ByteArrayImageInputStream extends ImageInputStreamImpl {
+
+    private final byte[] data;
+    private final int offset;
+    private final int length;
+
+    public ByteArrayImageInputStream(byte[] data, int offset, int length) {
+        this.data = data;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    @Override
+    public int read() {
+        bitOffset = 0;
+        if (streamPos >= length) {
+            return -1;
+        }
+        return data[offset + (int) streamPos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) {
+        bitOffset = 0;
+        if (len == 0) {
+            return 0;
+        }
+        int available = (int) (length - streamPos);
+        if (available <= 0) {
+            return -1;
+        }
+        int n = Math.min(len, available);
+        System.arraycopy(data, offset + (int) streamPos, b, off, n);
+        streamPos += n;
+        return n;
+    }
+
+    @Override
+    public long length() {
+        return length;
+    }
+
+    @Override
+    public boolean isCached() {
+        return true;
+    }
+
+    @Override
+    public boolean isCachedMemory() {
+        return true;
+    }
+}
@@ -0,0 +1,43 @@
+package com.blindassist.server.obstacle;
+
+/**
+ * 单帧检测结果
+ * - bearing：相对正前方的水平角（度），负值在左、正值在右
+ * - distance：估计距离（米）
+ * - confidence：0 ~ 1
+ */
+public final class Detection {
+
+    private final String label;
+    private final double bearing;
+    private final double distance;
+    private final double confidence;
+
+    public Detection(String label, double bearing, double distance, double confidence) {
+        this.label = label;
+        this.bearing = bearing;
+        this.distance = distance;
+        this.confidence = confidence;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public double getBearing() {
+        return bearing;
+    }
+
+    public double getDistance() {
+        return distance;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
+    @Override
+    public String toString() {
+        return label + "@" + Math.round(bearing) + "°/" + String.format("%.1f", distance) + "m(" + String.format("%.2f", confidence) + ")";
+    }
+}
@@ -0,0 +1,82 @@
+package com.blindassist.server.obstacle;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图像帧字节缓冲池：
+ * - 按 2 的幂分级（最小 16KB），acquire 返回的数组长度不小于请求长度
+ * - 每级最多缓存 buffersPerClass 个，超出时直接交给 GC
+ * - 超过 maxBufferBytes 的帧不入池，按需分配
+ * 缓冲区归还后可能立即被其它线程取走，调用方归还后不得再访问
+ */
+public class FrameBufferPool {
+
+    private static final int MIN_CLASS_SHIFT = 14;
+
+    private final int maxBufferBytes;
+    private final ArrayBlockingQueue<byte[]>[] classes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public FrameBufferPool(int buffersPerClass, int maxBufferBytes) {
+        int maxShift = 32 - Integer.numberOfLeadingZeros(Math.max(maxBufferBytes, 1 << MIN_CLASS_SHIFT) - 1);
+        this.maxBufferBytes = 1 << maxShift;
+        this.classes = new ArrayBlockingQueue[maxShift - MIN_CLASS_SHIFT + 1];
+        for (int i = 0; i < classes.length; i++) {
+            classes[i] = new ArrayBlockingQueue<>(Math.max(buffersPerClass, 1));
+        }
+    }
+
+    public byte[] acquire(int length) {
+        if (length > maxBufferBytes) {
+            misses.incrementAndGet();
+            return new byte[length];
+        }
+        int index = classIndex(length);
+        byte[] buffer = classes[index].poll();
+        if (buffer != null) {
+            hits.incrementAndGet();
+            return buffer;
+        }
+        misses.incrementAndGet();
+        return new byte[1 << (index + MIN_CLASS_SHIFT)];
+    }
+
+    /**
+     * 归还缓冲区；非本池分配的尺寸直接忽略
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null || buffer.length > maxBufferBytes || Integer.bitCount(buffer.length) != 1
+                || buffer.length < 1 << MIN_CLASS_SHIFT) {
+            return;
+        }
+        classes[classIndex(buffer.length)].offer(buffer);
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * @return 当前缓存的缓冲区总字节数
+     */
+    public long getPooledBytes() {
+        long bytes = 0;
+        for (int i = 0; i < classes.length; i++) {
+            bytes += (long) classes[i].size() << (i + MIN_CLASS_SHIFT);
+        }
+        return bytes;
+    }
+
+    private static int classIndex(int length) {
+        int shift = 32 - Integer.numberOfLeadingZeros(Math.max(length, 1 << MIN_CLASS_SHIFT) - 1);
+        return shift - MIN_CLASS_SHIFT;
+    }
+}
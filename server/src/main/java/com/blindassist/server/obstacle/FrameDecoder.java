@@ -0,0 +1,378 @@
+package com.blindassist.server.obstacle;
+
+import com.blindassist.server.imaging.ImageKernels;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentSampleModel;
+import java.awt.image.DataBufferByte;
+import java.awt.image.Raster;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * 将客户端上传的图像帧（JPEG / PNG）解码为固定尺寸的灰度帧，供检测器使用；
+ * 缩放时一并按帧头部的旋转角度旋正。
+ * 两条路径：
+ * - decode：每帧新建 BufferedImage，结果可长期持有
+ * - decodeReusing：JPEG 按目标尺寸做降采样解码，解码缓冲与灰度输出按线程复用，
+ *   每帧只产生少量小对象；供工作线程在同一任务内解码并检测使用。
+ *   紧凑排列的 BGR / 灰度解码结果经 ImageKernels 转灰度、双线性缩放和旋转，其余布局逐像素映射
+ * - decodeSubsampled：与 decodeReusing 相同，但不限于 JPEG，其他格式同样按目标尺寸降采样解码
+ */
+public class FrameDecoder {
+
+    /**
+     * 单个线程的解码工作区：JPEG 读取器、降采样解码目标图与灰度输出缓冲
+     */
+    private static final class Workspace {
+        final ImageReader reader;
+        final ImageReadParam param;
+        BufferedImage scratch;
+        final byte[] luma;
+        // 降采样图的灰度与按源图方向缩放后的灰度，供 ImageKernels 路径使用
+        byte[] gray = new byte[0];
+        byte[] resized = new byte[0];
+        // 目标坐标（按源图方向）到降采样图坐标的映射
+        int[] columns = new int[0];
+        int[] rows = new int[0];
+
+        Workspace(ImageReader reader, int pixels) {
+            this.reader = reader;
+            this.param = reader.getDefaultReadParam();
+            this.luma = new byte[pixels];
+        }
+    }
+
+    private final int width;
+    private final int height;
+    private final ImageKernels kernels;
+    private final ThreadLocal<Workspace> workspaces;
+
+    public FrameDecoder(int width, int height) {
+        this(width, height, ImageKernels.create("auto"));
+    }
+
+    public FrameDecoder(int width, int height, ImageKernels kernels) {
+        this.width = width;
+        this.height = height;
+        this.kernels = kernels;
+        this.workspaces = ThreadLocal.withInitial(() -> {
+            Iterator<ImageReader> readers = ImageIO.getImageReadersByFormatName("jpeg");
+            return readers.hasNext() ? new Workspace(readers.next(), width * height) : null;
+        });
+    }
+
+    /**
+     * @return 灰度帧；数据为空或无法识别的图像格式时返回 null
+     */
+    public GrayFrame decode(byte[] data, int offset, int length) throws IOException {
+        return decode(data, offset, length, 0, 0);
+    }
+
+    /**
+     * @param rotation 图像需顺时针旋转的角度（0 / 90 / 180 / 270）
+     * @param pitchDeg 采集时的相机俯仰角，原样记录到灰度帧
+     */
+    public GrayFrame decode(byte[] data, int offset, int length, int rotation, double pitchDeg) throws IOException {
+        if (length == 0) {
+            return null;
+        }
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(data, offset, length));
+        if (image == null) {
+            return null;
+        }
+        BufferedImage gray = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D g = gray.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            if (rotation == 0) {
+                g.drawImage(image, 0, 0, width, height, null);
+            } else {
+                // 以目标中心为原点旋转；90° / 270° 时源图的宽高对调后铺满目标
+                boolean quarter = rotation == 90 || rotation == 270;
+                int drawWidth = quarter ? height : width;
+                int drawHeight = quarter ? width : height;
+                g.translate(width / 2.0, height / 2.0);
+                g.rotate(Math.toRadians(rotation));
+                g.drawImage(image, -drawWidth / 2, -drawHeight / 2, drawWidth, drawHeight, null);
+            }
+        } finally {
+            g.dispose();
+        }
+        return new GrayFrame(width, height, ((DataBufferByte) gray.getRaster().getDataBuffer()).getData(), pitchDeg);
+    }
+
+    /**
+     * 复用当前线程工作区的解码路径；非 JPEG 数据退回 {@link #decode}。
+     * 返回帧的 luma 属于当前线程，下次在同一线程调用前有效，调用方不得跨任务持有
+     *
+     * @param rotation 图像需顺时针旋转的角度（0 / 90 / 180 / 270）
+     * @param pitchDeg 采集时的相机俯仰角，原样记录到灰度帧
+     * @return 灰度帧；数据为空或无法识别的图像格式时返回 null
+     */
+    public GrayFrame decodeReusing(byte[] data, int offset, int length, int rotation, double pitchDeg)
+            throws IOException {
+        Workspace workspace = workspaces.get();
+        if (workspace == null || !isJpeg(data, offset, length)) {
+            return decode(data, offset, length, rotation, pitchDeg);
+        }
+        ImageReader reader = workspace.reader;
+        BufferedImage image;
+        try {
+            reader.setInput(new ByteArrayImageInputStream(data, offset, length), true, true);
+            image = readSubsampled(workspace, reader, rotation, true);
+        } catch (IOException | RuntimeException e) {
+            // 损坏的数据可能让读取器停留在异常状态
+            reader.reset();
+            throw e instanceof IOException ? (IOException) e : new IOException(e);
+        } finally {
+            // 不持有已归还到缓冲池的数组
+            reader.setInput(null);
+        }
+        return toFrame(image, workspace, rotation, pitchDeg);
+    }
+
+    /**
+     * 任意格式的降采样解码，供 HTTP 上传等已整体读入内存、格式不限于 JPEG 的场景使用：
+     * 读取器直接读取字节数组，不另建缓存或临时文件；解码时按目标尺寸降采样，堆上只保留降采样后的图像。
+     * JPEG 复用当前线程工作区的读取器与解码目标图，其余格式使用对应的读取器、每次新建目标图。
+     * 返回帧的 luma 与 {@link #decodeReusing} 一样属于当前线程
+     *
+     * @param rotation 图像需顺时针旋转的角度（0 / 90 / 180 / 270）
+     * @param pitchDeg 采集时的相机俯仰角，原样记录到灰度帧
+     * @return 灰度帧；数据为空或无法识别的图像格式时返回 null
+     */
+    public GrayFrame decodeSubsampled(byte[] data, int offset, int length, int rotation, double pitchDeg)
+            throws IOException {
+        Workspace workspace = workspaces.get();
+        if (workspace == null) {
+            return decode(data, offset, length, rotation, pitchDeg);
+        }
+        if (length == 0) {
+            return null;
+        }
+        try (ImageInputStream input = new ByteArrayImageInputStream(data, offset, length)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader found = readers.next();
+            boolean jpeg = found.getClass() == workspace.reader.getClass();
+            ImageReader reader = jpeg ? workspace.reader : found;
+            if (jpeg) {
+                found.dispose();
+            }
+            BufferedImage image;
+            try {
+                reader.setInput(input, true, true);
+                image = readSubsampled(workspace, reader, rotation, jpeg);
+            } catch (IOException | RuntimeException e) {
+                reader.reset();
+                throw e instanceof IOException ? (IOException) e : new IOException(e);
+            } finally {
+                if (jpeg) {
+                    reader.setInput(null);
+                } else {
+                    reader.dispose();
+                }
+            }
+            return toFrame(image, workspace, rotation, pitchDeg);
+        }
+    }
+
+    /**
+     * 按整数步长降采样读取第一帧，使结果不小于按源图方向的目标尺寸，剩余的缩放在转灰度时完成
+     *
+     * @param reuseScratch 是否解码到工作区的目标图（仅限工作区自己的 JPEG 读取器）
+     */
+    private BufferedImage readSubsampled(Workspace workspace, ImageReader reader, int rotation,
+                                         boolean reuseScratch) throws IOException {
+        boolean quarter = rotation == 90 || rotation == 270;
+        int targetWidth = quarter ? height : width;
+        int targetHeight = quarter ? width : height;
+        int sourceWidth = reader.getWidth(0);
+        int sourceHeight = reader.getHeight(0);
+        int stepX = Math.max(1, sourceWidth / targetWidth);
+        int stepY = Math.max(1, sourceHeight / targetHeight);
+        if (!reuseScratch) {
+            ImageReadParam param = reader.getDefaultReadParam();
+            param.setSourceSubsampling(stepX, stepY, 0, 0);
+            return reader.read(0, param);
+        }
+        int scaledWidth = (sourceWidth + stepX - 1) / stepX;
+        int scaledHeight = (sourceHeight + stepY - 1) / stepY;
+        ImageTypeSpecifier type = reader.getImageTypes(0).next();
+        BufferedImage scratch = workspace.scratch;
+        if (scratch == null || scratch.getWidth() != scaledWidth || scratch.getHeight() != scaledHeight
+                || !type.getColorModel().equals(scratch.getColorModel())
+                || !type.getSampleModel().getClass().equals(scratch.getSampleModel().getClass())) {
+            scratch = type.createBufferedImage(scaledWidth, scaledHeight);
+            workspace.scratch = scratch;
+        }
+        workspace.param.setSourceSubsampling(stepX, stepY, 0, 0);
+        workspace.param.setDestination(scratch);
+        return reader.read(0, workspace.param);
+    }
+
+    /**
+     * 把降采样后的图像转灰度、缩放并旋正到工作区的 luma
+     */
+    private GrayFrame toFrame(BufferedImage image, Workspace workspace, int rotation, double pitchDeg) {
+        boolean quarter = rotation == 90 || rotation == 270;
+        // 按源图方向的目标尺寸
+        int targetWidth = quarter ? height : width;
+        int targetHeight = quarter ? width : height;
+        if (toGrayPacked(image, workspace, targetWidth, targetHeight, rotation)) {
+            return new GrayFrame(width, height, workspace.luma, pitchDeg);
+        }
+
+        if (workspace.columns.length != targetWidth) {
+            workspace.columns = new int[targetWidth];
+            workspace.rows = new int[targetHeight];
+        }
+        int[] columns = workspace.columns;
+        int[] rows = workspace.rows;
+        for (int u = 0; u < targetWidth; u++) {
+            columns[u] = Math.min(image.getWidth() - 1, (int) ((u + 0.5) * image.getWidth() / targetWidth));
+        }
+        for (int v = 0; v < targetHeight; v++) {
+            rows[v] = Math.min(image.getHeight() - 1, (int) ((v + 0.5) * image.getHeight() / targetHeight));
+        }
+        toGray(image, columns, rows, rotation, workspace.luma);
+        return new GrayFrame(width, height, workspace.luma, pitchDeg);
+    }
+
+    /**
+     * 紧凑排列的 8 位 BGR 或灰度图：整图转灰度、双线性缩放到按源图方向的目标尺寸，再旋正写入 luma
+     *
+     * @return 布局不符合时返回 false，由调用方逐像素映射
+     */
+    private boolean toGrayPacked(BufferedImage image, Workspace workspace, int targetWidth, int targetHeight,
+                                 int rotation) {
+        Raster raster = image.getRaster();
+        if (!(raster.getSampleModel() instanceof ComponentSampleModel)
+                || !(raster.getDataBuffer() instanceof DataBufferByte)
+                || raster.getDataBuffer().getOffset() != 0
+                || raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0) {
+            return false;
+        }
+        ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+        int scaledWidth = image.getWidth();
+        int scaledHeight = image.getHeight();
+        int bands = raster.getNumBands();
+        int[] bandOffsets = model.getBandOffsets();
+        boolean bgr = bands == 3 && model.getPixelStride() == 3 && model.getScanlineStride() == scaledWidth * 3
+                && bandOffsets[0] == 2 && bandOffsets[1] == 1 && bandOffsets[2] == 0;
+        boolean gray = bands == 1 && model.getPixelStride() == 1 && model.getScanlineStride() == scaledWidth;
+        if (!bgr && !gray) {
+            return false;
+        }
+        byte[] pixels = ((DataBufferByte) raster.getDataBuffer()).getData();
+        int scaledPixels = scaledWidth * scaledHeight;
+        if (bgr) {
+            if (workspace.gray.length < scaledPixels) {
+                workspace.gray = new byte[scaledPixels];
+            }
+            kernels.bgrToGray(pixels, workspace.gray, scaledPixels);
+            pixels = workspace.gray;
+        }
+        if (rotation == 0) {
+            kernels.resize(pixels, scaledWidth, scaledHeight, workspace.luma, width, height);
+            return true;
+        }
+        if (workspace.resized.length < targetWidth * targetHeight) {
+            workspace.resized = new byte[targetWidth * targetHeight];
+        }
+        kernels.resize(pixels, scaledWidth, scaledHeight, workspace.resized, targetWidth, targetHeight);
+        kernels.rotate(workspace.resized, targetWidth, targetHeight, rotation, workspace.luma);
+        return true;
+    }
+
+    /**
+     * 按旋转角度把降采样图转为目标尺寸的灰度图；输出 (x, y) 对应源方向坐标 (u, v)：
+     * 90° 时 u = y, v = th - 1 - x；180° 时 u = tw - 1 - x, v = th - 1 - y；270° 时 u = tw - 1 - y, v = x
+     */
+    private void toGray(BufferedImage image, int[] columns, int[] rows, int rotation, byte[] luma) {
+        Raster raster = image.getRaster();
+        int targetWidth = columns.length;
+        int targetHeight = rows.length;
+        // 常见布局（8 位灰度 / BGR / RGB）直接读像素数组；其余（如 CMYK、16 位）逐像素取 RGB
+        boolean direct = raster.getSampleModel() instanceof ComponentSampleModel
+                && raster.getDataBuffer() instanceof DataBufferByte
+                && (raster.getNumBands() == 1 || raster.getNumBands() >= 3);
+        byte[] pixels = null;
+        int pixelStride = 0;
+        int scanlineStride = 0;
+        int base = 0;
+        int red = 0;
+        int green = 0;
+        int blue = 0;
+        boolean color = raster.getNumBands() >= 3;
+        if (direct) {
+            ComponentSampleModel model = (ComponentSampleModel) raster.getSampleModel();
+            DataBufferByte buffer = (DataBufferByte) raster.getDataBuffer();
+            pixels = buffer.getData();
+            pixelStride = model.getPixelStride();
+            scanlineStride = model.getScanlineStride();
+            base = buffer.getOffset() - raster.getSampleModelTranslateY() * scanlineStride
+                    - raster.getSampleModelTranslateX() * pixelStride;
+            int[] bandOffsets = model.getBandOffsets();
+            red = bandOffsets[0];
+            green = color ? bandOffsets[1] : red;
+            blue = color ? bandOffsets[2] : red;
+        }
+        int i = 0;
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                int u;
+                int v;
+                switch (rotation) {
+                    case 90:
+                        u = y;
+                        v = targetHeight - 1 - x;
+                        break;
+                    case 180:
+                        u = targetWidth - 1 - x;
+                        v = targetHeight - 1 - y;
+                        break;
+                    case 270:
+                        u = targetWidth - 1 - y;
+                        v = x;
+                        break;
+                    default:
+                        u = x;
+                        v = y;
+                        break;
+                }
+                if (direct) {
+                    int p = base + rows[v] * scanlineStride + columns[u] * pixelStride;
+                    luma[i++] = color
+                            ? luma(pixels[p + red] & 0xFF, pixels[p + green] & 0xFF, pixels[p + blue] & 0xFF)
+                            : pixels[p + red];
+                } else {
+                    int rgb = image.getRGB(columns[u], rows[v]);
+                    luma[i++] = luma((rgb >> 16) & 0xFF, (rgb >> 8) & 0xFF, rgb & 0xFF);
+                }
+            }
+        }
+    }
+
+    /**
+     * BT.601 加权灰度，定点计算
+     */
+    private static byte luma(int r, int g, int b) {
+        return (byte) ((77 * r + 150 * g + 29 * b) >> 8);
+    }
+
+    private static boolean isJpeg(byte[] data, int offset, int length) {
+        return length > 2 && data[offset] == (byte) 0xFF && data[offset + 1] == (byte) 0xD8;
+    }
+}
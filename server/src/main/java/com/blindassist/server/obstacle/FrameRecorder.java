@@ -0,0 +1,231 @@
+package com.blindassist.server.obstacle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 避障帧录制：把收到的原始帧（含 ObstacleFrameHeader 头部）追加写入分段文件，供 ObstacleReplay 离线回放
+ * - 容器线程只复制帧并放入有界队列，由后台线程顺序写盘；队列满时丢弃并计数，不影响实时处理
+ * - 单个分段超过 segmentBytes 后换新文件，目录内分段总大小超过 maxBytes 时删除最旧的分段
+ * 分段格式（小端）：
+ * <pre>
+ * 分段头：magic "BAFR"(4) | version(2) | reserved(2)
+ * 记录：  length(4，不含本字段) | receivedAtMillis(8) | sessionIdLength(2) | sessionId(UTF-8) | 原始帧字节
+ * </pre>
+ * 进程异常退出时最后一条记录可能不完整，读取时忽略
+ */
+public class FrameRecorder {
+
+    static final byte[] MAGIC = {'B', 'A', 'F', 'R'};
+    static final short VERSION = 1;
+    static final int SEGMENT_HEADER_LENGTH = 8;
+    static final String SEGMENT_PREFIX = "obstacle-";
+    static final String SEGMENT_SUFFIX = ".seg";
+
+    private static final class Record {
+        final String sessionId;
+        final long receivedAtMillis;
+        final byte[] frame;
+
+        Record(String sessionId, long receivedAtMillis, byte[] frame) {
+            this.sessionId = sessionId;
+            this.receivedAtMillis = receivedAtMillis;
+            this.frame = frame;
+        }
+    }
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final long maxBytes;
+    private final BlockingQueue<Record> queue;
+    private final Thread writer;
+    private volatile boolean running;
+
+    private final Deque<Path> segments = new ArrayDeque<>();
+    private FileChannel channel;
+    private long segmentSize;
+    private long totalBytes;
+    private int segmentCounter;
+
+    private final AtomicLong recordedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+
+    /**
+     * @return 不录制的实例，record 直接返回
+     */
+    public static FrameRecorder disabled() {
+        return new FrameRecorder();
+    }
+
+    private FrameRecorder() {
+        this.directory = null;
+        this.segmentBytes = 0;
+        this.maxBytes = 0;
+        this.queue = null;
+        this.writer = null;
+    }
+
+    public FrameRecorder(Path directory, long segmentBytes, long maxBytes, int queueCapacity) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxBytes = maxBytes;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        Files.createDirectories(directory);
+        // 目录中已有的分段计入保留总量，按文件名（创建时间）从旧到新排列
+        for (Path existing : listSegments(directory)) {
+            segments.add(existing);
+            totalBytes += Files.size(existing);
+        }
+        this.running = true;
+        this.writer = new Thread(this::writeLoop, "obstacle-recorder");
+        writer.setDaemon(true);
+        writer.start();
+        System.out.println("避障帧录制已开启: " + directory.toAbsolutePath());
+    }
+
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * 复制并排队一帧，不阻塞调用线程
+     */
+    public void record(String sessionId, ByteBuffer payload) {
+        if (writer == null || !running) {
+            return;
+        }
+        byte[] frame = new byte[payload.remaining()];
+        payload.duplicate().get(frame);
+        if (queue.offer(new Record(sessionId, System.currentTimeMillis(), frame))) {
+            recordedFrames.incrementAndGet();
+        } else {
+            droppedFrames.incrementAndGet();
+        }
+    }
+
+    public long getRecordedFrames() {
+        return recordedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    /**
+     * 写完已排队的帧后关闭当前分段
+     */
+    public void close() {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        try {
+            writer.join(5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("避障帧录制结束: 录制 " + recordedFrames.get() + " 帧，丢弃 " + droppedFrames.get() + " 帧");
+    }
+
+    /**
+     * @return 目录中的分段文件，按录制顺序排列
+     */
+    static List<Path> listSegments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private void writeLoop() {
+        try {
+            while (running || !queue.isEmpty()) {
+                Record record = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (record != null) {
+                    write(record);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("避障帧录制写入失败，停止录制: " + e.getMessage());
+            running = false;
+        } finally {
+            closeSegment();
+        }
+    }
+
+    private void write(Record record) throws IOException {
+        byte[] sessionId = record.sessionId.getBytes(StandardCharsets.UTF_8);
+        int length = Long.BYTES + Short.BYTES + sessionId.length + record.frame.length;
+        if (channel == null || segmentSize + Integer.BYTES + length > segmentBytes) {
+            openSegment();
+        }
+        ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + Long.BYTES + Short.BYTES + sessionId.length)
+                .order(ByteOrder.LITTLE_ENDIAN)
+                .putInt(length)
+                .putLong(record.receivedAtMillis)
+                .putShort((short) sessionId.length)
+                .put(sessionId);
+        header.flip();
+        ByteBuffer frame = ByteBuffer.wrap(record.frame);
+        ByteBuffer[] buffers = {header, frame};
+        long written = 0;
+        while (header.hasRemaining() || frame.hasRemaining()) {
+            written += channel.write(buffers);
+        }
+        segmentSize += written;
+        totalBytes += written;
+    }
+
+    private void openSegment() throws IOException {
+        closeSegment();
+        Path path = directory.resolve(String.format("%s%013d-%04d%s", SEGMENT_PREFIX, System.currentTimeMillis(),
+                segmentCounter++ % 10000, SEGMENT_SUFFIX));
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        ByteBuffer header = ByteBuffer.allocate(SEGMENT_HEADER_LENGTH).order(ByteOrder.LITTLE_ENDIAN)
+                .put(MAGIC).putShort(VERSION).putShort((short) 0);
+        header.flip();
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        segmentSize = SEGMENT_HEADER_LENGTH;
+        totalBytes += SEGMENT_HEADER_LENGTH;
+        segments.add(path);
+        // 保留当前分段，删除最旧的分段直到总量回到上限以内
+        while (totalBytes > maxBytes && segments.size() > 1) {
+            Path oldest = segments.poll();
+            totalBytes -= Files.size(oldest);
+            Files.deleteIfExists(oldest);
+        }
+    }
+
+    private void closeSegment() {
+        if (channel == null) {
+            return;
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.blindassist.server.obstacle;
+
+/**
+ * 解码、旋正并缩放后的灰度帧，luma 按行存储，每像素 1 字节（0 ~ 255）。
+ * pitchDeg 为采集时的相机俯仰角（度，正值朝下），未知时为 0
+ */
+public final class GrayFrame {
+
+    private final int width;
+    private final int height;
+    private final byte[] luma;
+    private final double pitchDeg;
+
+    public GrayFrame(int width, int height, byte[] luma) {
+        this(width, height, luma, 0);
+    }
+
+    public GrayFrame(int width, int height, byte[] luma, double pitchDeg) {
+        if (luma.length < width * height) {
+            throw new IllegalArgumentException("luma 长度不足: " + luma.length + " < " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.luma = luma;
+        this.pitchDeg = pitchDeg;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public byte[] getLuma() {
+        return luma;
+    }
+
+    public double getPitchDeg() {
+        return pitchDeg;
+    }
+
+    public int get(int x, int y) {
+        return luma[y * width + x] & 0xFF;
+    }
+}
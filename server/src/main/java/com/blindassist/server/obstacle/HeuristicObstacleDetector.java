@@ -0,0 +1,110 @@
+package com.blindassist.server.obstacle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 纯 Java 的 CPU 基线检测器，不依赖模型文件：
+ * - 只分析地平线以下的区域，将画面按列划分为若干方位带
+ * - 边缘密度：方位带内梯度超过阈值的像素比例，地面通常纹理平缓，障碍物轮廓会抬高密度
+ * - 地面不连续：每列自底向上找到第一条强水平边缘，视为障碍物与地面的交界，
+ *   按相机高度与垂直视场角换算为地面距离
+ * 无内部可变状态，可被多个线程并发调用。
+ */
+public class HeuristicObstacleDetector implements ObstacleDetector {
+
+    private static final int BANDS = 5;
+    // 梯度阈值（|gx| + |gy|，灰度 0 ~ 255）
+    private static final int EDGE_THRESHOLD = 48;
+    private static final int DISCONTINUITY_THRESHOLD = 40;
+    // 方位带内边缘密度低于该值视为平坦地面；达到 FULL_EDGE_DENSITY 时密度项置信度为 1
+    private static final double MIN_EDGE_DENSITY = 0.03;
+    private static final double FULL_EDGE_DENSITY = 0.1;
+    // 方位带内至少有该比例的列找到地面交界才输出结果
+    private static final double MIN_BASE_COLUMNS = 0.3;
+
+    private final double cameraHeightM;
+    private final double horizontalFovDeg;
+    private final double verticalFovDeg;
+    private final double maxRangeM;
+
+    public HeuristicObstacleDetector(double cameraHeightM, double horizontalFovDeg, double verticalFovDeg,
+                                     double maxRangeM) {
+        this.cameraHeightM = cameraHeightM;
+        this.horizontalFovDeg = horizontalFovDeg;
+        this.verticalFovDeg = verticalFovDeg;
+        this.maxRangeM = maxRangeM;
+    }
+
+    @Override
+    public String name() {
+        return "heuristic";
+    }
+
+    @Override
+    public List<Detection> detect(GrayFrame frame) {
+        int width = frame.getWidth();
+        int height = frame.getHeight();
+        // 地平线默认位于画面中部；有 IMU 俯仰角时按垂直视场角平移（镜头朝下时地平线上移）
+        double pitchOffset = frame.getPitchDeg() / (verticalFovDeg / 2) * (height / 2.0);
+        int horizon = (int) Math.round(Math.max(1, Math.min(height - 5, height / 2.0 - pitchOffset)));
+        if (width < BANDS * 2 || height - horizon < 4) {
+            return List.of();
+        }
+
+        List<Detection> detections = new ArrayList<>();
+        int[] baseRows = new int[width];
+        for (int band = 0; band < BANDS; band++) {
+            int x0 = Math.max(1, band * width / BANDS);
+            int x1 = Math.min(width - 1, (band + 1) * width / BANDS);
+
+            int edges = 0;
+            int pixels = 0;
+            int found = 0;
+            for (int x = x0; x < x1; x++) {
+                int baseRow = -1;
+                for (int y = height - 2; y > horizon; y--) {
+                    int gx = Math.abs(frame.get(x + 1, y) - frame.get(x - 1, y));
+                    int gy = Math.abs(frame.get(x, y + 1) - frame.get(x, y - 1));
+                    if (gx + gy > EDGE_THRESHOLD) {
+                        edges++;
+                    }
+                    if (baseRow < 0 && gy > DISCONTINUITY_THRESHOLD) {
+                        baseRow = y;
+                    }
+                    pixels++;
+                }
+                if (baseRow >= 0) {
+                    baseRows[found++] = baseRow;
+                }
+            }
+
+            double density = pixels > 0 ? (double) edges / pixels : 0;
+            double baseCoverage = (double) found / (x1 - x0);
+            if (density < MIN_EDGE_DENSITY || baseCoverage < MIN_BASE_COLUMNS) {
+                continue;
+            }
+            Arrays.sort(baseRows, 0, found);
+            int medianRow = baseRows[found / 2];
+            double distance = groundDistance(medianRow, horizon, height);
+            if (distance > maxRangeM) {
+                continue;
+            }
+            double bearing = ((x0 + x1) / 2.0 - width / 2.0) / (width / 2.0) * (horizontalFovDeg / 2);
+            double confidence = Math.min(1.0, density / FULL_EDGE_DENSITY) * baseCoverage;
+            detections.add(new Detection("obstacle", bearing, distance, confidence));
+        }
+        detections.sort(Comparator.comparingDouble(Detection::getDistance));
+        return detections;
+    }
+
+    /**
+     * 平地假设：交界所在行在地平线以下的角度 θ，距离 = 相机高度 / tan(θ)
+     */
+    private double groundDistance(int row, int horizon, int height) {
+        double angleDeg = (double) (row - horizon) / (height / 2.0) * (verticalFovDeg / 2);
+        return cameraHeightM / Math.tan(Math.toRadians(Math.max(angleDeg, 0.5)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.blindassist.server.obstacle;
+
+import java.util.List;
+
+/**
+ * 障碍物检测 SPI：输入解码后的灰度帧，输出带类别、方位、距离与置信度的检测结果。
+ * 实现会被多个工作线程并发调用（不同会话），必须线程安全；同一会话的帧总是串行送入。
+ */
+public interface ObstacleDetector {
+
+    /**
+     * @return 检测结果，无障碍物时返回空列表
+     */
+    List<Detection> detect(GrayFrame frame);
+
+    /**
+     * 实现名称，用于日志与基准测试输出
+     */
+    String name();
+}
@@ -0,0 +1,140 @@
+package com.blindassist.server.obstacle;
+
+import javax.imageio.ImageIO;
+import java.lang.management.ManagementFactory;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 检测器基准测试：单线程循环执行，输出每核每秒处理帧数（解码 + 检测 与 仅检测），
+ * 并对比两条解码路径（每帧新建图像 / 线程内复用 + 降采样）的吞吐与每帧分配字节数。
+ * 用法：java -cp blindassist-server.jar com.blindassist.server.obstacle.ObstacleDetectorBenchmark [秒数] [图片...]
+ * 未指定图片时使用合成的 640x480 JPEG 帧。
+ */
+public class ObstacleDetectorBenchmark {
+
+    public static void main(String[] args) throws IOException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        List<byte[]> images = new ArrayList<>();
+        for (int i = 1; i < args.length; i++) {
+            images.add(Files.readAllBytes(Path.of(args[i])));
+        }
+        if (images.isEmpty()) {
+            Random random = new Random(42);
+            for (int i = 0; i < 8; i++) {
+                images.add(syntheticFrame(random));
+            }
+        }
+
+        FrameDecoder decoder = new FrameDecoder(160, 120);
+        List<ObstacleDetector> detectors = List.of(new HeuristicObstacleDetector(1.2, 65, 50, 5));
+        List<GrayFrame> decoded = new ArrayList<>();
+        for (byte[] image : images) {
+            decoded.add(decoder.decode(image, 0, image.length));
+        }
+
+        for (boolean reuse : new boolean[]{false, true}) {
+            decodeOnly(decoder, images, 1000, reuse);
+            double[] result = decodeOnly(decoder, images, seconds * 1000, reuse);
+            System.out.printf("%-10s 仅解码   %8.1f fps/core   分配 %10.0f B/帧%n",
+                    reuse ? "reusing" : "allocating", result[0], result[1]);
+        }
+
+        for (ObstacleDetector detector : detectors) {
+            // 预热，让 JIT 完成编译
+            run(detector, decoder, images, decoded, 1000, true);
+            run(detector, decoder, images, decoded, 1000, false);
+
+            double endToEnd = run(detector, decoder, images, decoded, seconds * 1000, true);
+            double detectOnly = run(detector, decoder, images, decoded, seconds * 1000, false);
+            int withDetections = 0;
+            for (GrayFrame frame : decoded) {
+                if (!detector.detect(frame).isEmpty()) {
+                    withDetections++;
+                }
+            }
+            System.out.printf("%-10s 解码+检测 %8.1f fps/core   仅检测 %10.1f fps/core   有检出的帧 %d/%d%n",
+                    detector.name(), endToEnd, detectOnly, withDetections, decoded.size());
+        }
+    }
+
+    private static double run(ObstacleDetector detector, FrameDecoder decoder, List<byte[]> images,
+                              List<GrayFrame> decoded, long durationMs, boolean decode) throws IOException {
+        long frames = 0;
+        long start = System.nanoTime();
+        long deadline = start + durationMs * 1_000_000;
+        long sink = 0;
+        while (System.nanoTime() < deadline) {
+            int index = (int) (frames % images.size());
+            GrayFrame frame = decode
+                    ? decoder.decodeReusing(images.get(index), 0, images.get(index).length, 0, 0)
+                    : decoded.get(index);
+            sink += detector.detect(frame).size();
+            frames++;
+        }
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        return frames / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * @return {每秒帧数, 每帧分配字节数}；分配量取自当前线程的分配计数（HotSpot 扩展接口）
+     */
+    private static double[] decodeOnly(FrameDecoder decoder, List<byte[]> images, long durationMs, boolean reuse)
+            throws IOException {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long frames = 0;
+        long start = System.nanoTime();
+        long deadline = start + durationMs * 1_000_000;
+        long sink = 0;
+        while (System.nanoTime() < deadline) {
+            byte[] image = images.get((int) (frames % images.size()));
+            GrayFrame frame = reuse
+                    ? decoder.decodeReusing(image, 0, image.length, 0, 0)
+                    : decoder.decode(image, 0, image.length);
+            sink += frame.get(0, 0);
+            frames++;
+        }
+        double fps = frames / ((System.nanoTime() - start) / 1e9);
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (sink < 0) {
+            System.out.println(sink);
+        }
+        return new double[]{fps, (double) allocated / frames};
+    }
+
+    /**
+     * 合成帧：上半部为背景，下半部为带噪声的地面，随机放置一个矩形障碍物
+     */
+    private static byte[] syntheticFrame(Random random) throws IOException {
+        BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        g.setColor(new Color(170, 190, 210));
+        g.fillRect(0, 0, 640, 240);
+        for (int y = 240; y < 480; y++) {
+            for (int x = 0; x < 640; x++) {
+                int v = 110 + random.nextInt(12);
+                image.setRGB(x, y, new Color(v, v, v).getRGB());
+            }
+        }
+        int x = random.nextInt(480);
+        int bottom = 300 + random.nextInt(160);
+        g.setColor(new Color(40, 30, 25));
+        g.fillRect(x, bottom - 180, 160, 180);
+        g.dispose();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,106 @@
+package com.blindassist.server.obstacle;
+
+import com.blindassist.server.imaging.ImageKernels;
+import com.blindassist.server.service.FrameRateController;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 避障通道配置：解码尺寸、相机几何参数、检测器实现、时序跟踪参数、帧率控制参数以及帧录制
+ */
+@Configuration
+public class ObstacleDetectorConfig {
+
+    @Bean
+    public FrameDecoder obstacleFrameDecoder(@Value("${obstacle.frame-width:160}") int width,
+                                             @Value("${obstacle.frame-height:120}") int height,
+                                             ImageKernels imageKernels) {
+        return new FrameDecoder(width, height, imageKernels);
+    }
+
+    @Bean
+    public ObstacleDetector obstacleDetector(@Value("${obstacle.detector:heuristic}") String detector,
+                                             @Value("${obstacle.camera-height-m:1.2}") double cameraHeightM,
+                                             @Value("${obstacle.horizontal-fov-deg:65}") double horizontalFovDeg,
+                                             @Value("${obstacle.vertical-fov-deg:50}") double verticalFovDeg,
+                                             @Value("${obstacle.max-range-m:5}") double maxRangeM) {
+        if (!"heuristic".equals(detector)) {
+            throw new IllegalArgumentException("不支持的避障检测器: " + detector);
+        }
+        return new HeuristicObstacleDetector(cameraHeightM, horizontalFovDeg, verticalFovDeg, maxRangeM);
+    }
+
+    @Bean
+    public ObstacleTracker.Settings obstacleTrackerSettings(
+            @Value("${obstacle.tracker.bearing-gate-deg:12}") double bearingGateDeg,
+            @Value("${obstacle.tracker.distance-gate-m:1.5}") double distanceGateM,
+            @Value("${obstacle.tracker.smoothing:0.4}") double smoothing,
+            @Value("${obstacle.tracker.confirm-hits:2}") int confirmHits,
+            @Value("${obstacle.tracker.max-misses:3}") int maxMisses,
+            @Value("${obstacle.tracker.distance-thresholds-m:3.5,2.0,1.0}") double[] distanceThresholdsM,
+            @Value("${obstacle.tracker.distance-hysteresis-m:0.3}") double distanceHysteresisM,
+            @Value("${obstacle.tracker.center-half-width-deg:8}") double centerHalfWidthDeg,
+            @Value("${obstacle.tracker.side-hysteresis-deg:3}") double sideHysteresisDeg,
+            @Value("${obstacle.tracker.track-cooldown-ms:3000}") long trackCooldownMs,
+            @Value("${obstacle.tracker.session-cooldown-ms:1000}") long sessionCooldownMs) {
+        ObstacleTracker.Settings settings = new ObstacleTracker.Settings();
+        settings.bearingGateDeg = bearingGateDeg;
+        settings.distanceGateM = distanceGateM;
+        settings.smoothing = smoothing;
+        settings.confirmHits = confirmHits;
+        settings.maxMisses = maxMisses;
+        settings.distanceThresholdsM = distanceThresholdsM;
+        settings.distanceHysteresisM = distanceHysteresisM;
+        settings.centerHalfWidthDeg = centerHalfWidthDeg;
+        settings.sideHysteresisDeg = sideHysteresisDeg;
+        settings.trackCooldownMs = trackCooldownMs;
+        settings.sessionCooldownMs = sessionCooldownMs;
+        return settings;
+    }
+
+    @Bean
+    public FrameBufferPool obstacleFrameBufferPool(
+            @Value("${obstacle.frame-pool.buffers-per-class:64}") int buffersPerClass,
+            @Value("${obstacle.frame-pool.max-buffer-bytes:1048576}") int maxBufferBytes) {
+        return new FrameBufferPool(buffersPerClass, maxBufferBytes);
+    }
+
+    @Bean(destroyMethod = "close")
+    public FrameRecorder obstacleFrameRecorder(
+            @Value("${obstacle.recorder.enabled:false}") boolean enabled,
+            @Value("${obstacle.recorder.directory:recordings/obstacle}") String directory,
+            @Value("${obstacle.recorder.segment-bytes:67108864}") long segmentBytes,
+            @Value("${obstacle.recorder.max-bytes:1073741824}") long maxBytes,
+            @Value("${obstacle.recorder.queue-capacity:256}") int queueCapacity) throws IOException {
+        if (!enabled) {
+            return FrameRecorder.disabled();
+        }
+        return new FrameRecorder(Path.of(directory), segmentBytes, maxBytes, queueCapacity);
+    }
+
+    @Bean
+    public FrameRateController obstacleFrameRateController(
+            @Value("${obstacle.rate.interval-ms:2000}") long intervalMs,
+            @Value("${obstacle.rate.min-fps:0.5}") double minFps,
+            @Value("${obstacle.rate.max-fps:10}") double maxFps,
+            @Value("${obstacle.rate.initial-fps:1}") double initialFps,
+            @Value("${obstacle.rate.increase-step:0.5}") double increaseStep,
+            @Value("${obstacle.rate.decrease-factor:0.7}") double decreaseFactor,
+            @Value("${obstacle.rate.latency-budget-ms:200}") double latencyBudgetMs,
+            @Value("${obstacle.rate.target-utilization:0.7}") double targetUtilization) {
+        FrameRateController.Settings settings = new FrameRateController.Settings();
+        settings.intervalMs = intervalMs;
+        settings.minFps = minFps;
+        settings.maxFps = maxFps;
+        settings.initialFps = initialFps;
+        settings.increaseStep = increaseStep;
+        settings.decreaseFactor = decreaseFactor;
+        settings.latencyBudgetMs = latencyBudgetMs;
+        settings.targetUtilization = targetUtilization;
+        return new FrameRateController(settings);
+    }
+}
@@ -0,0 +1,136 @@
+package com.blindassist.server.obstacle;
+
+import java.nio.ByteBuffer;
+
+/**
+ * /ws/obstacle 二进制帧头部（大端），其后紧跟图像字节（JPEG / PNG）：
+ * <pre>
+ * 0  魔数 'B' 'F'         2 字节
+ * 2  版本                 1 字节，当前为 1
+ * 3  头部长度             1 字节，含魔数；解析时按此跳过未知的扩展字段
+ * 4  标志位               1 字节，bit0 = 携带 IMU 姿态
+ * 5  旋转                 1 字节，需顺时针旋转的 90° 次数（0 ~ 3）
+ * 6  帧序号               4 字节，无符号
+ * 10 采集时间戳           8 字节，客户端时钟的毫秒数
+ * 18 宽 / 高              各 2 字节，无符号，原始图像尺寸
+ * 22 保留                 2 字节
+ * 24 偏航角 / 俯仰角      各 4 字节 float（度），仅当 bit0 置位；俯仰角为正表示镜头朝下
+ * </pre>
+ * 不以魔数开头的帧视为旧版无头部帧，整帧即图像。
+ */
+public final class ObstacleFrameHeader {
+
+    public static final byte MAGIC_0 = 'B';
+    public static final byte MAGIC_1 = 'F';
+    public static final int VERSION = 1;
+    public static final int BASE_LENGTH = 24;
+    public static final int IMU_LENGTH = 32;
+    public static final int FLAG_IMU = 0x01;
+
+    private final int headerLength;
+    private final long seq;
+    private final long captureTimestamp;
+    private final int width;
+    private final int height;
+    private final int rotation;
+    private final boolean hasImu;
+    private final float yaw;
+    private final float pitch;
+
+    private ObstacleFrameHeader(int headerLength, long seq, long captureTimestamp, int width, int height,
+                                int rotation, boolean hasImu, float yaw, float pitch) {
+        this.headerLength = headerLength;
+        this.seq = seq;
+        this.captureTimestamp = captureTimestamp;
+        this.width = width;
+        this.height = height;
+        this.rotation = rotation;
+        this.hasImu = hasImu;
+        this.yaw = yaw;
+        this.pitch = pitch;
+    }
+
+    /**
+     * 按绝对位置读取头部，不移动 frame 的 position，也不复制图像字节
+     *
+     * @return 头部；旧版无头部帧返回 null
+     * @throws IllegalArgumentException 带魔数但版本不支持或长度不合法
+     */
+    public static ObstacleFrameHeader parse(ByteBuffer frame) {
+        int p = frame.position();
+        if (frame.remaining() < 2 || frame.get(p) != MAGIC_0 || frame.get(p + 1) != MAGIC_1) {
+            return null;
+        }
+        if (frame.remaining() < BASE_LENGTH) {
+            throw new IllegalArgumentException("避障帧头部不完整: " + frame.remaining() + " 字节");
+        }
+        int version = frame.get(p + 2) & 0xFF;
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的避障帧版本: " + version);
+        }
+        int headerLength = frame.get(p + 3) & 0xFF;
+        int flags = frame.get(p + 4) & 0xFF;
+        boolean hasImu = (flags & FLAG_IMU) != 0;
+        if (headerLength < (hasImu ? IMU_LENGTH : BASE_LENGTH) || headerLength > frame.remaining()) {
+            throw new IllegalArgumentException("避障帧头部长度非法: " + headerLength);
+        }
+        return new ObstacleFrameHeader(
+                headerLength,
+                frame.getInt(p + 6) & 0xFFFFFFFFL,
+                frame.getLong(p + 10),
+                frame.getShort(p + 18) & 0xFFFF,
+                frame.getShort(p + 20) & 0xFFFF,
+                ((frame.get(p + 5) & 0xFF) % 4) * 90,
+                hasImu,
+                hasImu ? frame.getFloat(p + 24) : 0f,
+                hasImu ? frame.getFloat(p + 28) : 0f);
+    }
+
+    /**
+     * 图像字节的零拷贝视图
+     */
+    public ByteBuffer image(ByteBuffer frame) {
+        ByteBuffer image = frame.duplicate();
+        image.position(frame.position() + headerLength);
+        return image.slice();
+    }
+
+    public int getHeaderLength() {
+        return headerLength;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getCaptureTimestamp() {
+        return captureTimestamp;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * @return 图像需顺时针旋转的角度：0 / 90 / 180 / 270
+     */
+    public int getRotation() {
+        return rotation;
+    }
+
+    public boolean hasImu() {
+        return hasImu;
+    }
+
+    public float getYaw() {
+        return yaw;
+    }
+
+    public float getPitch() {
+        return pitch;
+    }
+}
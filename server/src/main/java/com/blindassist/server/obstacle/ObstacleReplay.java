@@ -0,0 +1,265 @@
+package com.blindassist.server.obstacle;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.imaging.ImageKernels;
+import com.blindassist.server.metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * 避障录制回放：内存映射 FrameRecorder 的分段，按会话重建跟踪器，逐帧执行 解析头部 -> 解码 -> 检测 -> 跟踪，
+ * 输出吞吐、各阶段耗时分布，并可与上一次回放的提示列表对比，作为检测器改动的回归门禁。
+ * 用法：java -cp blindassist-server.jar com.blindassist.server.obstacle.ObstacleReplay
+ *       <录制目录或分段文件...> [--realtime] [--out=warnings.txt] [--baseline=warnings.txt]
+ *       [--properties=application.properties] [--obstacle.xxx=值 ...] [--imaging.kernels=scalar|vector]
+ * - 默认尽快回放；--realtime 按录制时的帧间隔回放
+ * - 跟踪器使用录制时的接收时间，两种回放方式产生的提示一致
+ * - 提示列表每行一条：会话序号、帧序号、类别、方向、距离（0.1 米）；与基线有差异时以退出码 1 结束
+ * 解码尺寸、检测器与跟踪参数以及图像内核实现读取与服务端相同的 obstacle.* / imaging.* 配置项
+ * （--properties 指定的文件，再由命令行中的同名参数覆盖），未配置的取服务端默认值。
+ */
+public class ObstacleReplay {
+
+    private static final int MAX_DIFF_LINES = 20;
+
+    private final FrameDecoder decoder;
+    private final ObstacleDetector detector;
+    private final ObstacleTracker.Settings trackerSettings = new ObstacleTracker.Settings();
+
+    private final LatencyHistogram parseLatency = new LatencyHistogram();
+    private final LatencyHistogram decodeLatency = new LatencyHistogram();
+    private final LatencyHistogram detectLatency = new LatencyHistogram();
+    private final LatencyHistogram trackLatency = new LatencyHistogram();
+    private final LatencyHistogram totalLatency = new LatencyHistogram();
+
+    // 会话 id 按首次出现的顺序编号，使不同录制之间的提示列表可比
+    private final Map<String, Integer> sessionIndex = new HashMap<>();
+    private final Map<String, ObstacleTracker> trackers = new HashMap<>();
+    private final Map<String, Long> frameIndex = new HashMap<>();
+    private final List<String> warnings = new ArrayList<>();
+    private long frames;
+    private long invalidFrames;
+    private byte[] scratch = new byte[64 * 1024];
+
+    /**
+     * @param config obstacle.* / imaging.* 配置项，键名与 application.properties 相同
+     */
+    public ObstacleReplay(Properties config) {
+        decoder = new FrameDecoder(intValue(config, "obstacle.frame-width", 160),
+                intValue(config, "obstacle.frame-height", 120),
+                ImageKernels.create(config.getProperty("imaging.kernels", "auto")));
+        detector = new HeuristicObstacleDetector(doubleValue(config, "obstacle.camera-height-m", 1.2),
+                doubleValue(config, "obstacle.horizontal-fov-deg", 65),
+                doubleValue(config, "obstacle.vertical-fov-deg", 50),
+                doubleValue(config, "obstacle.max-range-m", 5));
+        ObstacleTracker.Settings t = trackerSettings;
+        t.bearingGateDeg = doubleValue(config, "obstacle.tracker.bearing-gate-deg", t.bearingGateDeg);
+        t.distanceGateM = doubleValue(config, "obstacle.tracker.distance-gate-m", t.distanceGateM);
+        t.smoothing = doubleValue(config, "obstacle.tracker.smoothing", t.smoothing);
+        t.confirmHits = intValue(config, "obstacle.tracker.confirm-hits", t.confirmHits);
+        t.maxMisses = intValue(config, "obstacle.tracker.max-misses", t.maxMisses);
+        String thresholds = config.getProperty("obstacle.tracker.distance-thresholds-m");
+        if (thresholds != null) {
+            t.distanceThresholdsM = Arrays.stream(thresholds.split(",")).map(String::trim)
+                    .mapToDouble(Double::parseDouble).toArray();
+        }
+        t.distanceHysteresisM = doubleValue(config, "obstacle.tracker.distance-hysteresis-m", t.distanceHysteresisM);
+        t.centerHalfWidthDeg = doubleValue(config, "obstacle.tracker.center-half-width-deg", t.centerHalfWidthDeg);
+        t.sideHysteresisDeg = doubleValue(config, "obstacle.tracker.side-hysteresis-deg", t.sideHysteresisDeg);
+        t.trackCooldownMs = (long) doubleValue(config, "obstacle.tracker.track-cooldown-ms", t.trackCooldownMs);
+        t.sessionCooldownMs = (long) doubleValue(config, "obstacle.tracker.session-cooldown-ms", t.sessionCooldownMs);
+        if (!"heuristic".equals(config.getProperty("obstacle.detector", "heuristic"))) {
+            throw new IllegalArgumentException("不支持的避障检测器: " + config.getProperty("obstacle.detector"));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        List<Path> segments = new ArrayList<>();
+        boolean realtime = false;
+        Path out = null;
+        Path baseline = null;
+        Properties config = new Properties();
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            if (arg.startsWith("--properties=")) {
+                try (Reader reader = Files.newBufferedReader(Path.of(arg.substring("--properties=".length())),
+                        StandardCharsets.UTF_8)) {
+                    config.load(reader);
+                }
+            } else if ((arg.startsWith("--obstacle.") || arg.startsWith("--imaging.")) && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                overrides.setProperty(arg.substring(2, eq), arg.substring(eq + 1));
+            } else if (arg.equals("--realtime")) {
+                realtime = true;
+            } else if (arg.startsWith("--out=")) {
+                out = Path.of(arg.substring("--out=".length()));
+            } else if (arg.startsWith("--baseline=")) {
+                baseline = Path.of(arg.substring("--baseline=".length()));
+            } else {
+                Path path = Path.of(arg);
+                segments.addAll(Files.isDirectory(path) ? FrameRecorder.listSegments(path) : List.of(path));
+            }
+        }
+        if (segments.isEmpty()) {
+            System.err.println("用法: ObstacleReplay <录制目录或分段文件...> [--realtime] [--out=文件] [--baseline=文件]");
+            System.exit(2);
+        }
+
+        config.putAll(overrides);
+        ObstacleReplay replay = new ObstacleReplay(config);
+        long start = System.nanoTime();
+        replay.run(segments, realtime);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        replay.report(segments.size(), seconds);
+
+        if (out != null) {
+            Files.write(out, replay.warnings, StandardCharsets.UTF_8);
+        }
+        if (baseline != null && !replay.diff(Files.readAllLines(baseline, StandardCharsets.UTF_8))) {
+            System.exit(1);
+        }
+    }
+
+    private void run(List<Path> segments, boolean realtime) throws IOException, InterruptedException {
+        long firstRecordedAt = -1;
+        long replayStart = System.currentTimeMillis();
+        for (Path path : segments) {
+            RecordedSegment segment = RecordedSegment.open(path);
+            RecordedSegment.Entry entry;
+            while ((entry = segment.next()) != null) {
+                if (firstRecordedAt < 0) {
+                    firstRecordedAt = entry.getReceivedAtMillis();
+                }
+                if (realtime) {
+                    long wait = (entry.getReceivedAtMillis() - firstRecordedAt) - (System.currentTimeMillis() - replayStart);
+                    if (wait > 0) {
+                        Thread.sleep(wait);
+                    }
+                }
+                process(entry);
+            }
+        }
+    }
+
+    /**
+     * 与 ObstacleService 相同的处理流程，各阶段单独计时
+     */
+    private void process(RecordedSegment.Entry entry) throws IOException {
+        String sessionId = entry.getSessionId();
+        sessionIndex.putIfAbsent(sessionId, sessionIndex.size());
+        long index = frameIndex.merge(sessionId, 1L, Long::sum) - 1;
+        ObstacleTracker tracker = trackers.computeIfAbsent(sessionId, id -> new ObstacleTracker(trackerSettings));
+        frames++;
+
+        long t0 = System.nanoTime();
+        ObstacleFrameHeader header;
+        ByteBuffer image;
+        try {
+            header = ObstacleFrameHeader.parse(entry.getFrame());
+            image = header != null ? header.image(entry.getFrame()) : entry.getFrame().duplicate();
+        } catch (IllegalArgumentException e) {
+            invalidFrames++;
+            return;
+        }
+        // 映射区域不是堆数组，与服务端一样先复制到可复用的数组
+        int length = image.remaining();
+        if (scratch.length < length) {
+            scratch = new byte[Integer.highestOneBit(length) << 1];
+        }
+        image.get(scratch, 0, length);
+        long t1 = System.nanoTime();
+        GrayFrame gray = decoder.decodeReusing(scratch, 0, length,
+                header != null ? header.getRotation() : 0,
+                header != null && header.hasImu() ? header.getPitch() : 0);
+        long t2 = System.nanoTime();
+        List<Detection> detections = gray != null ? detector.detect(gray) : List.of();
+        long t3 = System.nanoTime();
+        List<Detection> emitted = tracker.update(detections, entry.getReceivedAtMillis());
+        long t4 = System.nanoTime();
+
+        parseLatency.recordNanos(t1 - t0);
+        decodeLatency.recordNanos(t2 - t1);
+        detectLatency.recordNanos(t3 - t2);
+        trackLatency.recordNanos(t4 - t3);
+        totalLatency.recordNanos(t4 - t0);
+        if (gray == null) {
+            invalidFrames++;
+        }
+        for (Detection warning : emitted) {
+            warnings.add(sessionIndex.get(sessionId) + "\t" + index + "\t" + warning.getLabel() + "\t"
+                    + (warning.getBearing() < 0 ? "right" : "left") + "\t"
+                    + Math.round(warning.getDistance() * 10));
+        }
+    }
+
+    private void report(int segmentCount, double seconds) {
+        System.out.printf("分段 %d 个，会话 %d 个，帧 %d（无法解析 %d），提示 %d 条%n",
+                segmentCount, sessionIndex.size(), frames, invalidFrames, warnings.size());
+        System.out.printf("耗时 %.2fs，吞吐 %.1f fps%n", seconds, frames / seconds);
+        Map<String, LatencyHistogram> stages = new LinkedHashMap<>();
+        stages.put("parse+copy", parseLatency);
+        stages.put("decode", decodeLatency);
+        stages.put("detect", detectLatency);
+        stages.put("track", trackLatency);
+        stages.put("total", totalLatency);
+        System.out.printf("%-12s %9s %9s %9s %9s %9s%n", "阶段", "mean(ms)", "p50", "p90", "p99", "max");
+        stages.forEach((name, histogram) -> {
+            LatencySummary summary = histogram.summary();
+            System.out.printf("%-12s %9.3f %9.3f %9.3f %9.3f %9.3f%n", name, summary.getMeanMs(),
+                    summary.getP50Ms(), summary.getP90Ms(), summary.getP99Ms(), summary.getMaxMs());
+        });
+    }
+
+    private static int intValue(Properties config, String key, int defaultValue) {
+        String value = config.getProperty(key);
+        return value != null ? Integer.parseInt(value.trim()) : defaultValue;
+    }
+
+    private static double doubleValue(Properties config, String key, double defaultValue) {
+        String value = config.getProperty(key);
+        return value != null ? Double.parseDouble(value.trim()) : defaultValue;
+    }
+
+    /**
+     * @return 与基线一致时返回 true
+     */
+    private boolean diff(List<String> baseline) {
+        Set<String> expected = new LinkedHashSet<>(baseline);
+        Set<String> actual = new LinkedHashSet<>(warnings);
+        List<String> missing = new ArrayList<>();
+        for (String line : expected) {
+            if (!actual.contains(line)) {
+                missing.add(line);
+            }
+        }
+        List<String> added = new ArrayList<>();
+        for (String line : actual) {
+            if (!expected.contains(line)) {
+                added.add(line);
+            }
+        }
+        if (missing.isEmpty() && added.isEmpty()) {
+            System.out.println("提示与基线一致（" + expected.size() + " 条）");
+            return true;
+        }
+        System.out.println("提示与基线不一致：缺少 " + missing.size() + " 条，新增 " + added.size() + " 条"
+                + "（会话\t帧\t类别\t方向\t距离x10）");
+        missing.stream().limit(MAX_DIFF_LINES).forEach(line -> System.out.println("- " + line));
+        added.stream().limit(MAX_DIFF_LINES).forEach(line -> System.out.println("+ " + line));
+        return false;
+    }
+}
@@ -0,0 +1,205 @@
+package com.blindassist.server.obstacle;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * 单个避障会话的时序跟踪：
+ * - 按类别与方位/距离门限把每帧检测关联到已有轨迹，方位、距离、置信度做指数平滑
+ * - 轨迹连续命中若干帧后才确认，连续丢失若干帧后移除，滤掉单帧误检
+ * - 仅在已确认轨迹跨入更近的距离区间或换到另一侧时产生提示，
+ *   区间与侧向判定均带迟滞，并受单轨迹与整个会话两级冷却时间约束
+ * 同一会话的帧串行处理，本类不需要线程安全。
+ */
+public class ObstacleTracker {
+
+    /**
+     * 关联、平滑、迟滞与冷却参数
+     */
+    public static class Settings {
+        public double bearingGateDeg = 12;
+        public double distanceGateM = 1.5;
+        public double smoothing = 0.4;
+        public int confirmHits = 2;
+        public int maxMisses = 3;
+        // 距离区间边界（米，降序），跨入更近的区间时提示
+        public double[] distanceThresholdsM = {3.5, 2.0, 1.0};
+        public double distanceHysteresisM = 0.3;
+        // 正前方的半角宽度与侧向迟滞（度）
+        public double centerHalfWidthDeg = 8;
+        public double sideHysteresisDeg = 3;
+        public long trackCooldownMs = 3000;
+        public long sessionCooldownMs = 1000;
+    }
+
+    enum Side {
+        LEFT,
+        CENTER,
+        RIGHT
+    }
+
+    private static final class Track {
+        final String label;
+        double bearing;
+        double distance;
+        double confidence;
+        int hits = 1;
+        int misses;
+        boolean matched;
+        int zone;
+        Side side;
+        int warnedZone;
+        Side warnedSide;
+        long warnedAt = Long.MIN_VALUE / 2;
+
+        Track(Detection detection) {
+            this.label = detection.getLabel();
+            this.bearing = detection.getBearing();
+            this.distance = detection.getDistance();
+            this.confidence = detection.getConfidence();
+        }
+    }
+
+    private final Settings settings;
+    private final List<Track> tracks = new ArrayList<>();
+    private long lastWarningAt = Long.MIN_VALUE / 2;
+
+    public ObstacleTracker(Settings settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * 输入一帧的检测结果
+     *
+     * @return 本帧需要提示的障碍物（平滑后的方位与距离），按距离升序；通常为空
+     */
+    public List<Detection> update(List<Detection> detections, long nowMs) {
+        for (Track track : tracks) {
+            track.matched = false;
+        }
+        for (Detection detection : detections) {
+            Track track = associate(detection);
+            if (track == null) {
+                track = new Track(detection);
+                track.zone = updateZone(0, track.distance);
+                track.side = updateSide(Side.CENTER, track.bearing);
+                tracks.add(track);
+            } else {
+                double a = settings.smoothing;
+                track.bearing += a * (detection.getBearing() - track.bearing);
+                track.distance += a * (detection.getDistance() - track.distance);
+                track.confidence += a * (detection.getConfidence() - track.confidence);
+                track.zone = updateZone(track.zone, track.distance);
+                track.side = updateSide(track.side, track.bearing);
+                track.hits++;
+                track.misses = 0;
+            }
+            track.matched = true;
+        }
+
+        List<Track> due = new ArrayList<>();
+        Iterator<Track> it = tracks.iterator();
+        while (it.hasNext()) {
+            Track track = it.next();
+            if (!track.matched && ++track.misses > settings.maxMisses) {
+                it.remove();
+                continue;
+            }
+            // 远离后降低已提示区间，再次靠近时重新提示
+            track.warnedZone = Math.min(track.warnedZone, track.zone);
+            if (track.matched && isDue(track, nowMs)) {
+                due.add(track);
+            }
+        }
+        if (due.isEmpty() || nowMs - lastWarningAt < settings.sessionCooldownMs) {
+            return List.of();
+        }
+
+        due.sort((x, y) -> Double.compare(x.distance, y.distance));
+        // 会话冷却期内只提示一次，取最近的障碍物
+        Track nearest = due.get(0);
+        nearest.warnedZone = nearest.zone;
+        nearest.warnedSide = nearest.side;
+        nearest.warnedAt = nowMs;
+        lastWarningAt = nowMs;
+        return List.of(new Detection(nearest.label, nearest.bearing, nearest.distance, nearest.confidence));
+    }
+
+    public int getTrackCount() {
+        return tracks.size();
+    }
+
+    private boolean isDue(Track track, long nowMs) {
+        if (track.hits < settings.confirmHits || track.zone == 0) {
+            return false;
+        }
+        if (nowMs - track.warnedAt < settings.trackCooldownMs) {
+            return false;
+        }
+        boolean closer = track.zone > track.warnedZone;
+        boolean sideChanged = track.warnedSide != null && track.side != track.warnedSide;
+        return closer || sideChanged;
+    }
+
+    /**
+     * 同类别、方位与距离均在门限内的未匹配轨迹中取最接近者
+     */
+    private Track associate(Detection detection) {
+        Track best = null;
+        double bestCost = Double.MAX_VALUE;
+        for (Track track : tracks) {
+            if (track.matched || !track.label.equals(detection.getLabel())) {
+                continue;
+            }
+            double dBearing = Math.abs(detection.getBearing() - track.bearing);
+            double dDistance = Math.abs(detection.getDistance() - track.distance);
+            if (dBearing > settings.bearingGateDeg || dDistance > settings.distanceGateM) {
+                continue;
+            }
+            double cost = dBearing / settings.bearingGateDeg + dDistance / settings.distanceGateM;
+            if (cost < bestCost) {
+                best = track;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 区间 z 表示已越过前 z 个阈值；越过阈值需再近 hysteresis，退回需再远 hysteresis
+     */
+    private int updateZone(int zone, double distance) {
+        double[] thresholds = settings.distanceThresholdsM;
+        double h = settings.distanceHysteresisM;
+        while (zone < thresholds.length && distance < thresholds[zone] - h) {
+            zone++;
+        }
+        while (zone > 0 && distance > thresholds[zone - 1] + h) {
+            zone--;
+        }
+        return zone;
+    }
+
+    private Side updateSide(Side side, double bearing) {
+        double c = settings.centerHalfWidthDeg;
+        double h = settings.sideHysteresisDeg;
+        switch (side) {
+            case LEFT:
+                if (bearing > c + h) {
+                    return Side.RIGHT;
+                }
+                return bearing > -c + h ? Side.CENTER : Side.LEFT;
+            case RIGHT:
+                if (bearing < -c - h) {
+                    return Side.LEFT;
+                }
+                return bearing < c - h ? Side.CENTER : Side.RIGHT;
+            default:
+                if (bearing < -c - h) {
+                    return Side.LEFT;
+                }
+                return bearing > c + h ? Side.RIGHT : Side.CENTER;
+        }
+    }
+}
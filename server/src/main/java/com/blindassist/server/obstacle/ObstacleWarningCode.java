@@ -0,0 +1,73 @@
+package com.blindassist.server.obstacle;
+
+import java.util.List;
+
+/**
+ * 避障提示的紧凑二进制编码（服务端 -> App，WebSocket 二进制帧），供连接时声明 ?codes=1 的 App 使用；
+ * App 按编码播放启动时预先合成的语音片段，省去每条提示的实时 TTS 合成。
+ * 格式（8 字节，大端）：
+ * <pre>
+ * ['W'][版本][类别][避让方向][距离档][紧急程度][帧序号低 16 位 2]
+ * </pre>
+ * - 类别：{@link #CLASSES} 中的下标，未知类别按 0（障碍物）编码
+ * - 避让方向：0 向左，1 向右（与 JSON 提示的 direction 字段含义相同）
+ * - 距离档：按米向下取整（宁可说近不说远），0 表示不到 1 米，超过 {@link #MAX_DISTANCE_BUCKET} 米按最大档
+ * - 紧急程度：0 一般提示，1 即将碰撞（App 应打断当前播报）
+ * - 帧序号：触发提示的帧的 seq 低 16 位，帧没有头部时为 0
+ * JSON 提示的 message 同样由 {@link #speech} 按类别名称与距离档生成，与 App 按编码播放的内容一字不差。
+ * 需与 App 端 ObstacleWarningCode 保持一致。
+ */
+public final class ObstacleWarningCode {
+
+    public static final byte MARKER = 'W';
+    public static final byte VERSION = 1;
+    public static final int LENGTH = 8;
+    public static final int MAX_DISTANCE_BUCKET = 5;
+    // 检测器的 label 取值，下标即编码；只能在末尾追加
+    public static final List<String> CLASSES = List.of("obstacle", "person", "vehicle", "step", "pole");
+    // 与 CLASSES 一一对应的播报名称
+    public static final List<String> CLASS_NAMES = List.of("障碍物", "行人", "车辆", "台阶", "柱子");
+
+    private ObstacleWarningCode() {
+    }
+
+    /**
+     * @param steerRight 是否提示向右避让
+     */
+    public static byte[] encode(String label, boolean steerRight, double distanceM, boolean imminent, long seq) {
+        int classCode = classCode(label);
+        int bucket = distanceBucket(distanceM);
+        return new byte[]{
+                MARKER,
+                VERSION,
+                (byte) classCode,
+                (byte) (steerRight ? 1 : 0),
+                (byte) bucket,
+                (byte) (imminent ? 1 : 0),
+                (byte) (seq >> 8),
+                (byte) seq
+        };
+    }
+
+    /**
+     * @param steerRight 是否提示向右避让
+     * @return 播报文本，与 App 按同一编码播放的内容相同（距离按距离档）
+     */
+    public static String speech(String label, boolean steerRight, double distanceM, boolean imminent) {
+        String side = steerRight ? "右" : "左";
+        int bucket = distanceBucket(distanceM);
+        String distance = bucket == 0 ? "不到1米" : "约" + bucket + "米";
+        String name = CLASS_NAMES.get(classCode(label));
+        return imminent
+                ? "停！正前方" + distance + "有" + name + "，请向" + side + "避让。"
+                : "请稍微向" + side + "侧偏一点，前方" + distance + "有" + name + "。";
+    }
+
+    private static int classCode(String label) {
+        return Math.max(0, CLASSES.indexOf(label));
+    }
+
+    private static int distanceBucket(double distanceM) {
+        return (int) Math.min(MAX_DISTANCE_BUCKET, Math.max(0, Math.floor(distanceM)));
+    }
+}
@@ -0,0 +1,96 @@
+package com.blindassist.server.obstacle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 以内存映射方式只读打开一个 FrameRecorder 分段，顺序遍历其中的记录；
+ * 帧数据为映射区域的切片，不复制
+ */
+public final class RecordedSegment {
+
+    /**
+     * 一条记录；frame 为原始帧字节（含头部），仅在遍历到下一条之前有效
+     */
+    public static final class Entry {
+        private String sessionId;
+        private long receivedAtMillis;
+        private ByteBuffer frame;
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public long getReceivedAtMillis() {
+            return receivedAtMillis;
+        }
+
+        public ByteBuffer getFrame() {
+            return frame;
+        }
+    }
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final Entry entry = new Entry();
+
+    private RecordedSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+    }
+
+    /**
+     * @throws IOException 文件不是可识别的分段
+     */
+    public static RecordedSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+            if (mapped.remaining() < FrameRecorder.SEGMENT_HEADER_LENGTH
+                    || mapped.get(0) != FrameRecorder.MAGIC[0] || mapped.get(1) != FrameRecorder.MAGIC[1]
+                    || mapped.get(2) != FrameRecorder.MAGIC[2] || mapped.get(3) != FrameRecorder.MAGIC[3]) {
+                throw new IOException("不是避障帧录制分段: " + path);
+            }
+            short version = mapped.getShort(4);
+            if (version != FrameRecorder.VERSION) {
+                throw new IOException("不支持的分段版本 " + version + ": " + path);
+            }
+            mapped.position(FrameRecorder.SEGMENT_HEADER_LENGTH);
+            return new RecordedSegment(path, mapped);
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return 下一条记录（复用同一对象）；到达末尾或末尾记录不完整时返回 null
+     */
+    public Entry next() {
+        if (buffer.remaining() < Integer.BYTES) {
+            return null;
+        }
+        int length = buffer.getInt(buffer.position());
+        if (length < Long.BYTES + Short.BYTES || buffer.remaining() - Integer.BYTES < length) {
+            return null;
+        }
+        int start = buffer.position() + Integer.BYTES;
+        entry.receivedAtMillis = buffer.getLong(start);
+        int sessionIdLength = buffer.getShort(start + Long.BYTES) & 0xFFFF;
+        int sessionIdStart = start + Long.BYTES + Short.BYTES;
+        byte[] sessionId = new byte[sessionIdLength];
+        buffer.get(sessionIdStart, sessionId);
+        entry.sessionId = new String(sessionId, StandardCharsets.UTF_8);
+        int frameStart = sessionIdStart + sessionIdLength;
+        entry.frame = buffer.slice(frameStart, start + length - frameStart).order(ByteOrder.BIG_ENDIAN);
+        buffer.position(start + length);
+        return entry;
+    }
+}
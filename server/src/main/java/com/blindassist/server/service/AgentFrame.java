@@ -0,0 +1,54 @@
+package com.blindassist.server.service;
+
+import com.blindassist.client.UpstreamChannel;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 发往 Python 的一帧：JSON 文本或二进制帧（见 AgentBinaryFrame），二者择一
+ */
+final class AgentFrame {
+
+    private final String text;
+    private final ByteBuffer binary;
+
+    private AgentFrame(String text, ByteBuffer binary) {
+        this.text = text;
+        this.binary = binary;
+    }
+
+    static AgentFrame text(String json) {
+        return new AgentFrame(json, null);
+    }
+
+    static AgentFrame binary(ByteBuffer frame) {
+        return new AgentFrame(null, frame);
+    }
+
+    /**
+     * 需要排队时调用：容器可能在回调返回后复用二进制缓冲区，因此复制一份自有数据
+     */
+    AgentFrame retain() {
+        if (binary == null) {
+            return this;
+        }
+        ByteBuffer copy = ByteBuffer.allocate(binary.remaining());
+        copy.put(binary.duplicate()).flip();
+        return new AgentFrame(null, copy);
+    }
+
+    /**
+     * 估算占用的字节数：JSON 为 ASCII（紧凑字符串每字符 1 字节），二进制为帧长
+     */
+    int size() {
+        return binary != null ? binary.capacity() : text.length();
+    }
+
+    void writeTo(UpstreamChannel channel) {
+        if (binary != null) {
+            channel.send(binary.duplicate());
+        } else {
+            channel.send(text);
+        }
+    }
+}
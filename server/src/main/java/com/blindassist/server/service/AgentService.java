@@ -1,102 +1,359 @@
 package com.blindassist.server.service;
 
-import com.blindassist.server.client.PythonAgentClient;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.blindassist.client.AgentUpstream;
+import com.blindassist.client.JsonFieldReader;
+import com.blindassist.client.PythonAgentClient;
+import com.blindassist.client.UpstreamChannel;
+import com.blindassist.server.api.dto.AgentSessionStats;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
 import org.springframework.web.socket.WebSocketSession;
 
 import java.io.IOException;
-import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class AgentService {
 
-    // 存储 "App Session ID" -> "Python Client" 的映射
-    private final Map<String, PythonAgentClient> pythonClients = new ConcurrentHashMap<>();
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    // 存储 "App Session ID" -> 会话状态（含上游通道）的映射，仅包含当前有 App 连接的会话
+    private final Map<String, AgentSession> sessions = new ConcurrentHashMap<>();
+    // resumeToken -> 会话，包含宽限期内等待 App 重连的会话
+    private final Map<String, AgentSession> byResumeToken = new ConcurrentHashMap<>();
+    // 发往 App 的发送队列，生命周期与 App 连接一致（任务失败后仍需投递错误消息）
+    private final Map<String, AppSendQueue> appQueues = new ConcurrentHashMap<>();
 
-    // Python 服务的地址 (注意修改 IP 为实际 Python 服务所在 IP)
-    private static final String PYTHON_SERVER_BASE_URI = "ws://10.25.144.51:8080/ws/agent/";
+    // 仅用于握手超时、断线宽限期计时与空闲会话清理，连接本身在 Java-WebSocket 的独立线程上完成
+    private final ScheduledExecutorService connectTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "agent-connect-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 上游传输：独占连接或多路复用，见 AgentUpstreamConfig
+    private final AgentUpstream upstream;
+
+    // 发往 App 的实际写操作在此线程池上执行，上游读线程只负责入队，不会被慢速手机阻塞
+    private final ExecutorService appSendExecutor = Executors.newCachedThreadPool(r -> {
+        Thread t = new Thread(r, "agent-app-send");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 与 Python 服务握手的超时时间，超时后向 App 报错
+    private final long connectTimeoutMs;
+
+    // 等待 Python 回复的最长时间，超时后新的 step 不再被合并
+    private final long stepReplyTimeoutMs;
+
+    // App 发送队列限制，见 AppSendQueue
+    private final int sendQueueCapacity;
+    private final int sendBufferSizeLimit;
+    private final long sendTimeLimitMs;
+    private final AppSendQueue.OverflowPolicy sendOverflowPolicy;
+
+    // App 断线后保留上游会话的时长，0 表示断线即关闭；以及宽限期内最多暂存的回复数
+    private final long resumeGraceMs;
+    private final int resumeBufferCapacity;
+
+    // 容器未回调 afterConnectionClosed（进程异常、半开 TCP）时兜底回收：空闲超时与最长存活时间
+    private final long idleTimeoutMs;
+    private final long maxLifetimeMs;
+
+    public AgentService(AgentUpstream upstream,
+                        @Value("${agent.upstream.connect-timeout-ms:10000}") long connectTimeoutMs,
+                        @Value("${agent.step.reply-timeout-ms:60000}") long stepReplyTimeoutMs,
+                        @Value("${agent.app-send.queue-capacity:64}") int sendQueueCapacity,
+                        @Value("${agent.app-send.buffer-size-limit:1048576}") int sendBufferSizeLimit,
+                        @Value("${agent.app-send.send-time-limit-ms:10000}") long sendTimeLimitMs,
+                        @Value("${agent.app-send.overflow-policy:DROP_OLDEST}") AppSendQueue.OverflowPolicy sendOverflowPolicy,
+                        @Value("${agent.session.resume-grace-ms:60000}") long resumeGraceMs,
+                        @Value("${agent.session.resume-buffer-capacity:16}") int resumeBufferCapacity,
+                        @Value("${agent.session.idle-timeout-ms:600000}") long idleTimeoutMs,
+                        @Value("${agent.session.max-lifetime-ms:3600000}") long maxLifetimeMs,
+                        @Value("${agent.session.reap-interval-ms:30000}") long reapIntervalMs) {
+        this.upstream = upstream;
+        this.connectTimeoutMs = connectTimeoutMs;
+        this.stepReplyTimeoutMs = stepReplyTimeoutMs;
+        this.sendQueueCapacity = sendQueueCapacity;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendOverflowPolicy = sendOverflowPolicy;
+        this.resumeGraceMs = resumeGraceMs;
+        this.resumeBufferCapacity = resumeBufferCapacity;
+        this.idleTimeoutMs = idleTimeoutMs;
+        this.maxLifetimeMs = maxLifetimeMs;
+        connectTimer.scheduleWithFixedDelay(this::reap, reapIntervalMs, reapIntervalMs, TimeUnit.MILLISECONDS);
+    }
 
     /**
-     * 启动任务：建立与 Python 的连接，并发送第一帧
+     * 启动任务（JSON 模式）：异步建立与 Python 的连接，init 消息先缓存，握手完成后再发送。
+     * 该方法不会阻塞 WebSocket 容器线程；App 的原始 JSON 原样转发，不做反序列化/重新序列化。
      */
-    public void startTask(String sessionId, WebSocketSession appSession, String task, String screenshot, String screenInfo) {
+    public void startTask(String sessionId, WebSocketSession appSession, String initJson) {
+        openSession(sessionId, appSession, AgentFrame.text(initJson));
+    }
+
+    /**
+     * 启动任务（二进制模式）：App 发来的二进制帧原样转发给 Python，不做 Base64/JSON 转码
+     */
+    public void startTask(String sessionId, WebSocketSession appSession, ByteBuffer initFrame) {
+        openSession(sessionId, appSession, AgentFrame.binary(initFrame));
+    }
+
+    private void openSession(String sessionId, WebSocketSession appSession, AgentFrame initFrame) {
+        // 同一 App 连接上重复 init 时复用发送队列，保证对该连接的写入始终串行
+        AppSendQueue outbound = appQueue(appSession);
+        AgentSession agentSession = new AgentSession(sessionId, UUID.randomUUID().toString(), appSession, outbound,
+                stepReplyTimeoutMs, resumeBufferCapacity);
+        // App 保存该 token，断线重连后以 {"type":"resume","resume_token":...} 恢复会话
+        outbound.enqueue("{\"type\":\"session\",\"resume_token\":\"" + agentSession.getResumeToken() + "\"}", true);
         try {
-            // 1. 根据 App 的 SessionID 构造 Python 服务的唯一连接地址
-            URI uri = new URI(PYTHON_SERVER_BASE_URI + sessionId);
+            // 1. 初始化消息 (Init) 先入队，握手成功后按顺序发出
+            agentSession.send(initFrame);
+
+            // 2. 创建上游通道并定义回调：握手成功 -> 冲刷缓存；收到 Python 消息 -> 转发给 App
+            UpstreamChannel channel = upstream.newChannel(sessionId, new PythonAgentClient.Listener() {
+                @Override
+                public void onOpen() {
+                    if (!agentSession.markOpen()) {
+                        failUpstream(agentSession, "AI 模型服务连接已断开");
+                    }
+                }
 
-            // 2. 创建 Client 并定义回调：收到 Python 消息 -> 转发给 App
-            PythonAgentClient pythonClient = new PythonAgentClient(uri, messageFromPython -> {
-                sendMessageToApp(appSession, messageFromPython);
+                @Override
+                public void onMessage(String message) {
+                    boolean written = agentSession.onUpstreamReply();
+                    sendMessageToApp(agentSession, message);
+                    if (!written) {
+                        failUpstream(agentSession, "AI 模型服务连接已断开");
+                    }
+                }
+
+                @Override
+                public void onClose(int code, String reason) {
+                    // 握手中断开为连接失败；已连接后断开则上游上下文已丢失，会话无法继续也无法恢复
+                    boolean connecting = agentSession.getState() == AgentSession.State.CONNECTING;
+                    failUpstream(agentSession, (connecting ? "无法连接 AI 模型服务: " : "AI 模型服务连接已断开: ") + reason);
+                }
             });
 
-            // 3. 建立连接 (阻塞等待连接成功，避免发送消息时连接未就绪)
-            pythonClient.connectBlocking();
-            pythonClients.put(sessionId, pythonClient);
+            ScheduledFuture<?> timeout = connectTimer.schedule(() -> {
+                if (agentSession.failConnect()) {
+                    discard(agentSession);
+                    sendErrorToApp(agentSession, "连接 AI 模型服务超时");
+                }
+            }, connectTimeoutMs, TimeUnit.MILLISECONDS);
+            agentSession.attach(channel, timeout);
 
-            // 4. 发送初始化消息 (Init) 给 Python
-            Map<String, Object> initPayload = Map.of(
-                    "type", "init",
-                    "task", task,
-                    "screenshot", screenshot,
-                    "screen_info", screenInfo != null ? screenInfo : ""
-            );
-            pythonClient.send(objectMapper.writeValueAsString(initPayload));
+            byResumeToken.put(agentSession.getResumeToken(), agentSession);
+            AgentSession previous = sessions.put(sessionId, agentSession);
+            if (previous != null) {
+                previous.close();
+                byResumeToken.remove(previous.getResumeToken(), previous);
+            }
+
+            // 3. 非阻塞连接：握手在 Client 自己的线程上进行，多路复用时可能直接复用已有连接
+            channel.connect();
 
         } catch (Exception e) {
             e.printStackTrace();
-            sendErrorToApp(appSession, "无法连接 AI 模型服务: " + e.getMessage());
+            agentSession.close();
+            discard(agentSession);
+            sendErrorToApp(agentSession, "无法连接 AI 模型服务: " + e.getMessage());
         }
     }
 
     /**
-     * 处理后续步骤：转发 App 的截图给 Python
+     * App 重连后恢复会话：沿用原上游通道与模型上下文，补发断线期间的回复；
+     * token 无效、会话已过期或上游连接已断开时回复 {"type":"resume_failed"}，App 应重新发送 init
      */
-    public void processStep(String sessionId, String screenshot, String screenInfo) {
-        PythonAgentClient client = pythonClients.get(sessionId);
-        if (client != null && client.isOpen()) {
-            try {
-                Map<String, Object> stepPayload = Map.of(
-                        "type", "step",
-                        "screenshot", screenshot,
-                        "screen_info", screenInfo != null ? screenInfo : ""
-                );
-                client.send(objectMapper.writeValueAsString(stepPayload));
-            } catch (Exception e) {
-                e.printStackTrace();
+    public void resumeTask(WebSocketSession appSession, String resumeToken) {
+        AppSendQueue outbound = appQueue(appSession);
+        AgentSession agentSession = resumeToken != null ? byResumeToken.get(resumeToken) : null;
+        String previousAppId = agentSession != null ? agentSession.getAppSession().getId() : null;
+        if (agentSession == null || !agentSession.reattach(appSession, outbound)) {
+            if (agentSession != null) {
+                // 上游已断开的会话不再保留，避免后续恢复请求再次命中
+                agentSession.fail();
+                discard(agentSession);
             }
+            outbound.enqueue("{\"type\":\"resume_failed\",\"message\":\"会话已失效，请重新开始任务\"}", true);
+            return;
+        }
+        // 旧连接可能尚未被容器判定断开（半开连接），恢复后不再向其投递
+        sessions.remove(previousAppId, agentSession);
+        AgentSession replaced = sessions.put(appSession.getId(), agentSession);
+        if (replaced != null && replaced != agentSession) {
+            replaced.close();
+            byResumeToken.remove(replaced.getResumeToken(), replaced);
+        }
+        System.out.println("Agent 会话已恢复: " + agentSession.getSessionId() + " -> " + appSession.getId());
+    }
+
+    /**
+     * 处理后续步骤：原样转发 App 的 step 消息给 Python；
+     * 上游仍在处理上一帧时只保留最新截图，等回复后再发出
+     */
+    public void processStep(String sessionId, String stepJson) {
+        AgentSession agentSession = sessions.get(sessionId);
+        if (agentSession != null && !agentSession.sendStep(AgentFrame.text(stepJson))) {
+            failUpstream(agentSession, "AI 模型服务连接已断开");
+        }
+    }
+
+    /**
+     * 处理后续步骤（二进制模式）
+     */
+    public void processStep(String sessionId, ByteBuffer stepFrame) {
+        AgentSession agentSession = sessions.get(sessionId);
+        if (agentSession != null && !agentSession.sendStep(AgentFrame.binary(stepFrame))) {
+            failUpstream(agentSession, "AI 模型服务连接已断开");
         }
     }
 
     /**
-     * 清理资源：断开 Python 连接
+     * 发送控制帧（心跳回复等），与该连接上的其它消息共用发送队列
+     */
+    public void sendControlToApp(WebSocketSession appSession, WebSocketMessage<?> message) {
+        appQueue(appSession).enqueue(message);
+    }
+
+    /**
+     * App 断开：会话进入宽限期，上游连接保留至 App 恢复或宽限期结束；未启用宽限期时直接断开 Python 连接
      */
     public void cleanup(String sessionId) {
-        PythonAgentClient client = pythonClients.remove(sessionId);
-        if (client != null) {
-            client.close();
+        appQueues.remove(sessionId);
+        AgentSession agentSession = sessions.remove(sessionId);
+        if (agentSession == null) {
+            return;
+        }
+        if (resumeGraceMs <= 0) {
+            agentSession.close();
+            byResumeToken.remove(agentSession.getResumeToken(), agentSession);
+            return;
+        }
+        boolean detached = agentSession.detach(() -> connectTimer.schedule(() -> {
+            if (agentSession.expire()) {
+                byResumeToken.remove(agentSession.getResumeToken(), agentSession);
+                System.out.println("Agent 会话宽限期结束，已关闭: " + agentSession.getSessionId());
+            }
+        }, resumeGraceMs, TimeUnit.MILLISECONDS));
+        if (!detached) {
+            byResumeToken.remove(agentSession.getResumeToken(), agentSession);
         }
     }
 
-    // --- 辅助方法 ---
+    /**
+     * 当前所有会话的运行指标
+     */
+    public List<AgentSessionStats> listSessions() {
+        List<AgentSessionStats> result = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (AgentSession agentSession : byResumeToken.values()) {
+            AppSendQueue outbound = agentSession.getOutbound();
+            AgentSessionStats stats = new AgentSessionStats();
+            stats.setSessionId(agentSession.getAppSession().getId());
+            stats.setUpstreamState(agentSession.getState().name());
+            stats.setDetached(agentSession.isDetached());
+            stats.setAgeMs(now - agentSession.getCreatedAt());
+            stats.setIdleMs(now - agentSession.getLastActivityAt());
+            stats.setRetainedBytes(agentSession.getRetainedBytes());
+            stats.setForwardedSteps(agentSession.getForwardedSteps());
+            stats.setCoalescedSteps(agentSession.getCoalescedSteps());
+            stats.setSendQueueDepth(outbound.getDepth());
+            stats.setSendBufferedSize(outbound.getBufferedSize());
+            stats.setSentCount(outbound.getSentCount());
+            stats.setDropCount(outbound.getDropCount());
+            result.add(stats);
+        }
+        return result;
+    }
 
-    private void sendMessageToApp(WebSocketSession session, String message) {
-        if (session.isOpen()) {
-            synchronized (session) { // 防止并发写入冲突
-                try {
-                    session.sendMessage(new TextMessage(message));
-                } catch (IOException e) {
-                    e.printStackTrace();
+    /**
+     * 后台清理：
+     * - 关闭空闲超时或超过最长存活时间的会话，并关闭其 App 连接
+     * - 移除底层连接已关闭、但未收到 afterConnectionClosed 的 App 发送队列
+     */
+    private void reap() {
+        try {
+            long now = System.currentTimeMillis();
+            for (AgentSession agentSession : byResumeToken.values()) {
+                boolean idle = now - agentSession.getLastActivityAt() > idleTimeoutMs;
+                boolean expired = now - agentSession.getCreatedAt() > maxLifetimeMs;
+                if (!idle && !expired) {
+                    continue;
+                }
+                System.out.println("回收" + (idle ? "空闲" : "超龄") + " Agent 会话: " + agentSession.getSessionId()
+                        + ", 占用约 " + agentSession.getRetainedBytes() + " 字节");
+                agentSession.close();
+                discard(agentSession);
+                WebSocketSession appSession = agentSession.getAppSession();
+                if (appSession.isOpen()) {
+                    appSession.close(CloseStatus.SESSION_NOT_RELIABLE);
+                }
+            }
+            for (Map.Entry<String, AppSendQueue> entry : appQueues.entrySet()) {
+                if (!entry.getValue().isSessionOpen()) {
+                    cleanup(entry.getKey());
                 }
             }
+        } catch (IOException | RuntimeException e) {
+            // 异常不能逃逸，否则定时任务会被取消
+            e.printStackTrace();
         }
     }
 
-    private void sendErrorToApp(WebSocketSession session, String errorMsg) {
-        sendMessageToApp(session, "{\"status\":\"error\", \"message\":\"" + errorMsg + "\"}");
+    @PreDestroy
+    public void shutdown() {
+        connectTimer.shutdownNow();
+        appSendExecutor.shutdownNow();
+    }
+
+    // --- 辅助方法 ---
+
+    private AppSendQueue appQueue(WebSocketSession appSession) {
+        return appQueues.computeIfAbsent(appSession.getId(), id -> new AppSendQueue(appSession, appSendExecutor,
+                sendQueueCapacity, sendBufferSizeLimit, sendTimeLimitMs, sendOverflowPolicy));
+    }
+
+    private void discard(AgentSession agentSession) {
+        sessions.remove(agentSession.getAppSession().getId(), agentSession);
+        byResumeToken.remove(agentSession.getResumeToken(), agentSession);
+    }
+
+    /**
+     * 上游断开或写入失败：关闭会话并向 App 报错，同一会话只报告一次
+     */
+    private void failUpstream(AgentSession agentSession, String errorMsg) {
+        if (agentSession.fail()) {
+            discard(agentSession);
+            sendErrorToApp(agentSession, errorMsg);
+        }
+    }
+
+    private void sendMessageToApp(AgentSession agentSession, String message) {
+        // finished / error 为终止消息，队列溢出时不会被丢弃；App 断线期间暂存在会话中
+        boolean last = "true".equals(JsonFieldReader.readString(message, "finished"));
+        agentSession.deliver(message, last);
+    }
+
+    private void sendErrorToApp(AgentSession agentSession, String errorMsg) {
+        // errorMsg 可能带有上游的关闭原因或异常信息，按 JSON 字符串转义
+        String quoted = new String(JsonStringEncoder.getInstance().quoteAsString(String.valueOf(errorMsg)));
+        agentSession.deliver("{\"status\":\"error\", \"message\":\"" + quoted + "\"}", true);
     }
-}
\ No newline at end of file
+}
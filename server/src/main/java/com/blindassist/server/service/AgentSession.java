@@ -0,0 +1,378 @@
+package com.blindassist.server.service;
+
+import com.blindassist.client.UpstreamChannel;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.Supplier;
+
+/**
+ * 单个 App 会话在中转服务上的状态：
+ * - 持有对应的 Python 上游通道
+ * - 上游握手完成前，init 帧（JSON 或二进制）缓存在 pending 队列中，握手成功后一次性冲刷
+ * - 上游同一时刻最多只有一个未回复的 init/step；期间到达的 step 只保留最新一帧，
+ *   旧截图直接被替换（latest-screenshot-wins），收到 Python 回复后再发出
+ * - App 断线后会话进入宽限期（detached），上游通道保持不变，期间的回复暂存；
+ *   App 携带 resumeToken 重连后切换到新的发送队列并补发暂存的回复
+ * - 记录创建时间与最近活动时间，供 AgentService 的后台清理任务回收空闲或超龄会话
+ */
+public class AgentSession {
+
+    public enum State {
+        CONNECTING,
+        OPEN,
+        CLOSED
+    }
+
+    // 每个会话除缓冲数据外的固定开销估算：会话对象、上游客户端及其读缓冲区
+    private static final int SESSION_OVERHEAD_BYTES = 20 * 1024;
+
+    private static final class Buffered {
+        final String payload;
+        final boolean last;
+
+        Buffered(String payload, boolean last) {
+            this.payload = payload;
+            this.last = last;
+        }
+    }
+
+    private final String sessionId;
+    private final String resumeToken;
+    private final Queue<AgentFrame> pending = new ArrayDeque<>();
+    private final Deque<Buffered> detachedReplies = new ArrayDeque<>();
+    private final int detachedReplyCapacity;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile long lastActivityAt = createdAt;
+
+    // 等待 Python 回复的超时时间，超时后不再视为在途，避免丢失回复导致会话卡死
+    private final long replyTimeoutMs;
+
+    private WebSocketSession appSession;
+    private AppSendQueue outbound;
+    private boolean detached;
+    private ScheduledFuture<?> graceTimeout;
+
+    private UpstreamChannel upstream;
+    private ScheduledFuture<?> connectTimeout;
+    private State state = State.CONNECTING;
+
+    private AgentFrame pendingStep;
+    private boolean awaitingReply;
+    private long awaitingSince;
+    private long forwardedSteps;
+    private long coalescedSteps;
+
+    public AgentSession(String sessionId, String resumeToken, WebSocketSession appSession, AppSendQueue outbound,
+                        long replyTimeoutMs, int detachedReplyCapacity) {
+        this.sessionId = sessionId;
+        this.resumeToken = resumeToken;
+        this.appSession = appSession;
+        this.outbound = outbound;
+        this.replyTimeoutMs = replyTimeoutMs;
+        this.detachedReplyCapacity = detachedReplyCapacity;
+    }
+
+    /**
+     * 上游会话标识（首次 init 时的 App 连接 ID），恢复后保持不变
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getResumeToken() {
+        return resumeToken;
+    }
+
+    public synchronized WebSocketSession getAppSession() {
+        return appSession;
+    }
+
+    /**
+     * 当前 App 连接的有界发送队列，关闭上游后仍可用于投递最后的错误消息
+     */
+    public synchronized AppSendQueue getOutbound() {
+        return outbound;
+    }
+
+    public synchronized boolean isDetached() {
+        return detached;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    /**
+     * 最近一次收到 App 消息、Python 回复或 App 恢复的时间
+     */
+    public long getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    /**
+     * 估算该会话占用的内存：待发 init、暂存的 step、宽限期内暂存的回复、App 发送队列以及固定开销
+     */
+    public synchronized long getRetainedBytes() {
+        long bytes = SESSION_OVERHEAD_BYTES;
+        for (AgentFrame frame : pending) {
+            bytes += frame.size();
+        }
+        if (pendingStep != null) {
+            bytes += pendingStep.size();
+        }
+        for (Buffered reply : detachedReplies) {
+            bytes += reply.payload.length();
+        }
+        return bytes + outbound.getBufferedSize();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    synchronized void attach(UpstreamChannel upstream, ScheduledFuture<?> connectTimeout) {
+        this.upstream = upstream;
+        this.connectTimeout = connectTimeout;
+    }
+
+    public synchronized long getForwardedSteps() {
+        return forwardedSteps;
+    }
+
+    public synchronized long getCoalescedSteps() {
+        return coalescedSteps;
+    }
+
+    /**
+     * 发送 init 到上游：握手中则排队，已连接则直接发送，已关闭则丢弃
+     *
+     * @return 消息是否被接受（发送或排队）；已关闭或写入上游失败时返回 false
+     */
+    synchronized boolean send(AgentFrame frame) {
+        lastActivityAt = System.currentTimeMillis();
+        switch (state) {
+            case CONNECTING:
+                pending.add(frame.retain());
+                return true;
+            case OPEN:
+                return writeAwaitingReply(frame);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 发送 step：上游空闲则立即发送，否则替换掉尚未发出的旧截图
+     *
+     * @return 消息是否被接受（发送或暂存）；已关闭或写入上游失败时返回 false
+     */
+    synchronized boolean sendStep(AgentFrame frame) {
+        lastActivityAt = System.currentTimeMillis();
+        if (state == State.CLOSED) {
+            return false;
+        }
+        if (state == State.OPEN && !isAwaitingReply()) {
+            forwardedSteps++;
+            return writeAwaitingReply(frame);
+        }
+        if (pendingStep != null) {
+            coalescedSteps++;
+        }
+        pendingStep = frame.retain();
+        return true;
+    }
+
+    /**
+     * 收到 Python 回复：当前在途消息结束，若有暂存的最新 step 则立即发出
+     *
+     * @return 暂存的 step 写入上游失败时返回 false
+     */
+    synchronized boolean onUpstreamReply() {
+        lastActivityAt = System.currentTimeMillis();
+        awaitingReply = false;
+        if (state == State.OPEN && pendingStep != null) {
+            AgentFrame next = pendingStep;
+            pendingStep = null;
+            forwardedSteps++;
+            return writeAwaitingReply(next);
+        }
+        return true;
+    }
+
+    /**
+     * 投递发往 App 的消息；处于宽限期时暂存，超出容量时丢弃最旧的非终止消息
+     *
+     * @param last 是否为终止消息（任务完成或错误），不会被丢弃
+     */
+    synchronized void deliver(String payload, boolean last) {
+        if (!detached) {
+            outbound.enqueue(payload, last);
+            return;
+        }
+        detachedReplies.add(new Buffered(payload, last));
+        if (detachedReplies.size() > detachedReplyCapacity) {
+            Iterator<Buffered> it = detachedReplies.iterator();
+            while (it.hasNext()) {
+                if (!it.next().last) {
+                    it.remove();
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * App 断线：保留上游通道进入宽限期，宽限期结束前未恢复则由调用方关闭。
+     * 先置为断线状态再安排宽限期计时（均在会话锁内），计时再短也不会作用于仍连接着的会话
+     *
+     * @param scheduleGrace 安排宽限期结束时的回调，仅在进入宽限期时调用
+     * @return 是否进入宽限期；会话已关闭时返回 false
+     */
+    synchronized boolean detach(Supplier<ScheduledFuture<?>> scheduleGrace) {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        detached = true;
+        this.graceTimeout = scheduleGrace.get();
+        return true;
+    }
+
+    /**
+     * 宽限期结束：仍未恢复则关闭会话
+     *
+     * @return 本次调用是否关闭了会话
+     */
+    synchronized boolean expire() {
+        if (!detached || state == State.CLOSED) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    /**
+     * App 携带 resumeToken 重连：切换到新连接的发送队列，先发送
+     * {"type":"resumed","replayed":n,"awaiting_reply":bool}，再按顺序补发宽限期内暂存的回复。
+     * 两者皆无时 App 需重新截图发送 step（断线前的 step 可能未送达）
+     *
+     * @return 是否恢复成功；会话已关闭或上游连接已断开时返回 false
+     */
+    synchronized boolean reattach(WebSocketSession appSession, AppSendQueue outbound) {
+        // 握手中的上游尚未打开属正常；已连接的上游若已断开，Python 侧的上下文随之丢失，不能恢复
+        if (state == State.CLOSED || (state == State.OPEN && !upstream.isOpen())) {
+            return false;
+        }
+        if (graceTimeout != null) {
+            graceTimeout.cancel(false);
+            graceTimeout = null;
+        }
+        this.appSession = appSession;
+        this.outbound = outbound;
+        this.detached = false;
+        lastActivityAt = System.currentTimeMillis();
+        boolean awaiting = state == State.CONNECTING || isAwaitingReply() || pendingStep != null;
+        outbound.enqueue("{\"type\":\"resumed\",\"replayed\":" + detachedReplies.size()
+                + ",\"awaiting_reply\":" + awaiting + "}", true);
+        Buffered reply;
+        while ((reply = detachedReplies.poll()) != null) {
+            outbound.enqueue(reply.payload, reply.last);
+        }
+        return true;
+    }
+
+    /**
+     * @return 是否已写出；上游已断开或写入失败时返回 false，由调用方关闭会话并通知 App
+     */
+    private boolean writeAwaitingReply(AgentFrame frame) {
+        if (upstream == null || !upstream.isOpen()) {
+            return false;
+        }
+        try {
+            frame.writeTo(upstream);
+        } catch (RuntimeException e) {
+            // 检查之后连接仍可能断开（WebsocketNotConnectedException 等）
+            System.err.println("转发到 Python 失败(" + sessionId + "): " + e.getMessage());
+            return false;
+        }
+        awaitingReply = true;
+        awaitingSince = System.currentTimeMillis();
+        return true;
+    }
+
+    private boolean isAwaitingReply() {
+        return awaitingReply && System.currentTimeMillis() - awaitingSince < replyTimeoutMs;
+    }
+
+    /**
+     * 上游握手成功：按到达顺序冲刷缓存的消息
+     *
+     * @return 冲刷时写入上游失败返回 false
+     */
+    synchronized boolean markOpen() {
+        if (state != State.CONNECTING) {
+            return true;
+        }
+        state = State.OPEN;
+        cancelConnectTimeout();
+        AgentFrame frame;
+        while ((frame = pending.poll()) != null) {
+            if (!writeAwaitingReply(frame)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 仍在握手中时将会话置为关闭（超时或连接失败）
+     *
+     * @return 本次调用是否真正结束了握手，用于保证只向 App 报告一次错误
+     */
+    synchronized boolean failConnect() {
+        if (state != State.CONNECTING) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    /**
+     * 上游连接断开或不可用时关闭会话，无论处于握手中还是已连接
+     *
+     * @return 本次调用是否关闭了会话，用于保证只向 App 报告一次错误
+     */
+    synchronized boolean fail() {
+        if (state == State.CLOSED) {
+            return false;
+        }
+        close();
+        return true;
+    }
+
+    synchronized void close() {
+        state = State.CLOSED;
+        pending.clear();
+        pendingStep = null;
+        detachedReplies.clear();
+        cancelConnectTimeout();
+        if (graceTimeout != null) {
+            graceTimeout.cancel(false);
+            graceTimeout = null;
+        }
+        if (upstream != null) {
+            upstream.close();
+        }
+    }
+
+    private void cancelConnectTimeout() {
+        if (connectTimeout != null) {
+            connectTimeout.cancel(false);
+            connectTimeout = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.blindassist.server.service;
+
+import com.blindassist.client.AgentUpstream;
+import com.blindassist.client.BalancedUpstream;
+import com.blindassist.client.EndpointPool;
+import com.blindassist.client.MultiplexedUpstream;
+import com.blindassist.client.PerSessionUpstream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 上游配置：
+ * - endpoints：一个或多个 Python 模型服务实例，按最少在途步骤路由，带健康探测、熔断与离群摘除
+ * - per-session（默认，兼容模式）：每个 App 会话独占一条 {endpoint}/ws/agent/{sessionId} 连接
+ * - multiplexed：每个实例一个固定大小的连接池承载所有会话，帧内以 session_id 区分
+ */
+@Configuration
+public class AgentUpstreamConfig {
+
+    @Bean
+    public EndpointPool agentEndpointPool(@Value("${agent.upstream.endpoints}") String[] endpoints,
+                                          @Value("${agent.upstream.health.probe-interval-ms:5000}") long probeIntervalMs,
+                                          @Value("${agent.upstream.health.probe-timeout-ms:1000}") int probeTimeoutMs,
+                                          @Value("${agent.upstream.breaker.failure-threshold:3}") int breakerFailureThreshold,
+                                          @Value("${agent.upstream.breaker.open-ms:15000}") long breakerOpenMs,
+                                          @Value("${agent.upstream.outlier.latency-factor:3.0}") double outlierLatencyFactor,
+                                          @Value("${agent.upstream.outlier.min-samples:5}") int outlierMinSamples,
+                                          @Value("${agent.upstream.outlier.ejection-ms:30000}") long outlierEjectionMs,
+                                          @Value("${agent.upstream.outlier.max-ejection-percent:50}") int outlierMaxEjectionPercent) {
+        EndpointPool.Settings settings = new EndpointPool.Settings();
+        settings.probeIntervalMs = probeIntervalMs;
+        settings.probeTimeoutMs = probeTimeoutMs;
+        settings.breakerFailureThreshold = breakerFailureThreshold;
+        settings.breakerOpenMs = breakerOpenMs;
+        settings.outlierLatencyFactor = outlierLatencyFactor;
+        settings.outlierMinSamples = outlierMinSamples;
+        settings.outlierEjectionMs = outlierEjectionMs;
+        settings.outlierMaxEjectionPercent = outlierMaxEjectionPercent;
+
+        List<URI> uris = new ArrayList<>();
+        for (String endpoint : endpoints) {
+            if (!endpoint.isBlank()) {
+                uris.add(URI.create(endpoint.trim()));
+            }
+        }
+        return new EndpointPool(uris, settings);
+    }
+
+    @Bean
+    public AgentUpstream agentUpstream(EndpointPool agentEndpointPool,
+                                       @Value("${agent.upstream.mode:per-session}") String mode,
+                                       @Value("${agent.upstream.session-path:/ws/agent/}") String sessionPath,
+                                       @Value("${agent.upstream.mux-path:/ws/agent-mux}") String muxPath,
+                                       @Value("${agent.upstream.mux-pool-size:4}") int muxPoolSize) {
+        if ("multiplexed".equals(mode)) {
+            System.out.println("Agent 上游使用多路复用模式, 每实例连接数: " + muxPoolSize);
+            return new BalancedUpstream(agentEndpointPool,
+                    endpoint -> new MultiplexedUpstream(endpoint.getUri().resolve(muxPath), muxPoolSize));
+        }
+        return new BalancedUpstream(agentEndpointPool,
+                endpoint -> new PerSessionUpstream(endpoint.getUri().resolve(sessionPath).toString()));
+    }
+}
@@ -0,0 +1,199 @@
+package com.blindassist.server.service;
+
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 发往单个 App 连接的有界发送队列：
+ * - 调用方（上游读线程）只负责入队，真正的 sendMessage 在发送线程池上串行执行
+ * - 队列按消息条数和缓冲大小（按字符数估算）双重限流，超限时按 {@link OverflowPolicy} 处理
+ * - 单次发送耗时超过 sendTimeLimit 视为连接不可靠，直接关闭
+ */
+public class AppSendQueue {
+
+    public enum OverflowPolicy {
+        // 丢弃最旧的非终止消息（finished / error 消息始终保留）
+        DROP_OLDEST,
+        // 以 SESSION_NOT_RELIABLE 关闭 App 连接
+        CLOSE
+    }
+
+    private static final class Outbound {
+        final WebSocketMessage<?> message;
+        final int size;
+        final boolean last;
+
+        Outbound(WebSocketMessage<?> message, int size, boolean last) {
+            this.message = message;
+            this.size = size;
+            this.last = last;
+        }
+    }
+
+    private final WebSocketSession session;
+    private final Executor executor;
+    private final int capacity;
+    private final int bufferSizeLimit;
+    private final long sendTimeLimitMs;
+    private final OverflowPolicy overflowPolicy;
+
+    private final Deque<Outbound> queue = new ArrayDeque<>();
+    private int bufferedSize;
+    private boolean draining;
+    private boolean closed;
+    private volatile long sendStartedAt;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong dropCount = new AtomicLong();
+
+    public AppSendQueue(WebSocketSession session, Executor executor, int capacity, int bufferSizeLimit,
+                        long sendTimeLimitMs, OverflowPolicy overflowPolicy) {
+        this.session = session;
+        this.executor = executor;
+        this.capacity = capacity;
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.overflowPolicy = overflowPolicy;
+    }
+
+    /**
+     * 入队，不阻塞调用线程
+     *
+     * @param last 是否为终止消息（任务完成或错误），溢出时不会被丢弃
+     */
+    public void enqueue(String payload, boolean last) {
+        enqueue(new Outbound(new TextMessage(payload), payload.length(), last));
+    }
+
+    /**
+     * 控制帧（pong / ping）入队，与业务消息共用同一写入顺序，溢出时可被丢弃
+     */
+    public void enqueue(WebSocketMessage<?> message) {
+        enqueue(new Outbound(message, message.getPayloadLength(), false));
+    }
+
+    private void enqueue(Outbound outbound) {
+        boolean startDrain;
+        synchronized (this) {
+            if (closed) {
+                dropCount.incrementAndGet();
+                return;
+            }
+            long startedAt = sendStartedAt;
+            if (startedAt > 0 && System.currentTimeMillis() - startedAt > sendTimeLimitMs) {
+                System.err.println("App 发送超时，关闭连接: " + session.getId());
+                closeLocked();
+                return;
+            }
+            queue.add(outbound);
+            bufferedSize += outbound.size;
+            if (!enforceLimitsLocked()) {
+                return;
+            }
+            startDrain = !draining;
+            draining = true;
+        }
+        if (startDrain) {
+            executor.execute(this::drain);
+        }
+    }
+
+    public synchronized int getDepth() {
+        return queue.size();
+    }
+
+    public synchronized int getBufferedSize() {
+        return bufferedSize;
+    }
+
+    public boolean isSessionOpen() {
+        return session.isOpen();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getDropCount() {
+        return dropCount.get();
+    }
+
+    /**
+     * @return 入队后连接是否仍然可用
+     */
+    private boolean enforceLimitsLocked() {
+        while (queue.size() > capacity || bufferedSize > bufferSizeLimit) {
+            if (overflowPolicy == OverflowPolicy.CLOSE || !dropOldestLocked()) {
+                System.err.println("App 发送队列溢出，关闭连接: " + session.getId());
+                closeLocked();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean dropOldestLocked() {
+        Iterator<Outbound> it = queue.iterator();
+        while (it.hasNext()) {
+            Outbound candidate = it.next();
+            if (!candidate.last) {
+                it.remove();
+                bufferedSize -= candidate.size;
+                dropCount.incrementAndGet();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void closeLocked() {
+        closed = true;
+        dropCount.addAndGet(queue.size());
+        queue.clear();
+        bufferedSize = 0;
+        executor.execute(() -> {
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
+    private void drain() {
+        while (true) {
+            Outbound next;
+            synchronized (this) {
+                next = queue.poll();
+                if (next == null || closed) {
+                    draining = false;
+                    return;
+                }
+                bufferedSize -= next.size;
+            }
+            if (!session.isOpen()) {
+                dropCount.incrementAndGet();
+                continue;
+            }
+            sendStartedAt = System.currentTimeMillis();
+            try {
+                session.sendMessage(next.message);
+                sentCount.incrementAndGet();
+            } catch (IOException e) {
+                dropCount.incrementAndGet();
+                e.printStackTrace();
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+}
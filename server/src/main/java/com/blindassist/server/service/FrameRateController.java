@@ -0,0 +1,65 @@
+package com.blindassist.server.service;
+
+/**
+ * 避障帧率控制（AIMD）：
+ * - 会话出现丢帧、平均处理延迟超出预算或工作线程池积压时，帧率乘性下降
+ * - 客户端实际到达帧率明显低于下发值时视为上行带宽受限，直接降到实际到达帧率
+ * - 否则加性上升
+ * - 结果不超过按处理能力均分的份额：工作线程数 × 单帧处理速率 × 目标利用率 / 会话数，
+ *   过载时所有会话一同降低帧率，而不是在服务端堆积待处理帧
+ */
+public class FrameRateController {
+
+    /**
+     * 帧率上下限、调整步长与过载判定参数
+     */
+    public static class Settings {
+        public long intervalMs = 2000;
+        public double minFps = 0.5;
+        public double maxFps = 10;
+        public double initialFps = 1;
+        public double increaseStep = 0.5;
+        public double decreaseFactor = 0.7;
+        public double latencyBudgetMs = 200;
+        public double targetUtilization = 0.7;
+        // 实际到达帧率低于下发值的该比例时视为上行受限
+        public double uplinkShortfall = 0.7;
+        // 变化超过该比例才重新下发
+        public double minChange = 0.1;
+    }
+
+    private final Settings settings;
+
+    public FrameRateController(Settings settings) {
+        this.settings = settings;
+    }
+
+    public Settings getSettings() {
+        return settings;
+    }
+
+    /**
+     * @param fairShareFps 按处理能力均分给每个会话的帧率，未知时为 Double.MAX_VALUE
+     * @param overloaded   工作线程池是否有积压
+     * @return 新的目标帧率，已限制在 [minFps, maxFps] 并保留一位小数
+     */
+    double next(ObstacleSession session, ObstacleSession.RateSample sample, double fairShareFps,
+                boolean overloaded) {
+        double current = session.getTargetFps();
+        double intervalSec = settings.intervalMs / 1000.0;
+        double arrivedFps = sample.frames / intervalSec;
+        double meanLatencyMs = sample.processed > 0 ? sample.latencyNanos / 1e6 / sample.processed : 0;
+
+        double fps;
+        if (overloaded || sample.dropped > 0 || meanLatencyMs > settings.latencyBudgetMs) {
+            fps = current * settings.decreaseFactor;
+        } else if (session.getStableTicks() > 0 && arrivedFps < session.getSentFps() * settings.uplinkShortfall) {
+            fps = arrivedFps;
+        } else {
+            fps = current + settings.increaseStep;
+        }
+        fps = Math.min(fps, fairShareFps);
+        fps = Math.max(settings.minFps, Math.min(settings.maxFps, fps));
+        return Math.round(fps * 10) / 10.0;
+    }
+}
@@ -0,0 +1,257 @@
+package com.blindassist.server.service;
+
+import com.blindassist.server.api.dto.GuidanceUserStats;
+import com.blindassist.server.guidance.GuidanceArbiter;
+import com.blindassist.server.guidance.GuidanceMessage;
+import com.blindassist.server.guidance.GuidancePriority;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 播报仲裁服务：按用户（App 生成的 guidance id）汇总避障提示与导航指令，经 GuidanceArbiter 排序、
+ * 合并、去重、限速后，从该用户的避障通道逐条下发：
+ * {"type":"warning"|"guidance","priority":"collision|obstacle|turn|info","interrupt":bool,...,"message":"..."}
+ * - 避障类消息保持原有的 warning 格式（direction、distance、seq 等字段不变），interrupt 为 true 时 App 应立即插播
+ * - 连接声明支持紧凑编码时，带编码的消息（避障提示）改为下发 8 字节二进制帧（见 ObstacleWarningCode）
+ * - 用户尚未连上避障通道时消息暂存在队列中，连上后按序下发，超过有效期的直接丢弃
+ * - 即将碰撞提示在提交时立即下发；其余消息由周期任务在播报间隔到达后下发
+ */
+@Service
+public class GuidanceService {
+
+    private static final class UserGuidance {
+        final String userId;
+        final GuidanceArbiter arbiter;
+        WebSocketSession sink;
+        // 当前连接是否接收紧凑编码
+        boolean compact;
+        long lastActiveAt;
+        long sentBytes;
+        // 已被空闲回收；并发提交拿到该对象时需重新获取
+        boolean removed;
+
+        UserGuidance(String userId, GuidanceArbiter arbiter, long now) {
+            this.userId = userId;
+            this.arbiter = arbiter;
+            this.lastActiveAt = now;
+        }
+    }
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Map<String, UserGuidance> users = new ConcurrentHashMap<>();
+    private final GuidanceArbiter.Settings settings;
+    // 各优先级消息的有效期（毫秒），按 GuidancePriority 声明顺序
+    private final long[] ttlMs;
+    private final long idleTimeoutMs;
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "guidance-dispatch");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public GuidanceService(@Value("${guidance.min-interval-ms:1500}") long minIntervalMs,
+                           @Value("${guidance.dedup-window-ms:5000}") long dedupWindowMs,
+                           @Value("${guidance.queue-capacity:32}") int capacity,
+                           @Value("${guidance.ttl-ms.collision:1500}") long collisionTtlMs,
+                           @Value("${guidance.ttl-ms.obstacle:2000}") long obstacleTtlMs,
+                           @Value("${guidance.ttl-ms.turn:30000}") long turnTtlMs,
+                           @Value("${guidance.ttl-ms.info:15000}") long infoTtlMs,
+                           @Value("${guidance.idle-timeout-ms:120000}") long idleTimeoutMs,
+                           @Value("${guidance.dispatch-interval-ms:100}") long dispatchIntervalMs) {
+        this.settings = new GuidanceArbiter.Settings();
+        settings.minIntervalMs = minIntervalMs;
+        settings.dedupWindowMs = dedupWindowMs;
+        settings.capacity = capacity;
+        this.ttlMs = new long[]{collisionTtlMs, obstacleTtlMs, turnTtlMs, infoTtlMs};
+        this.idleTimeoutMs = idleTimeoutMs;
+        dispatcher.scheduleWithFixedDelay(this::dispatchAll, dispatchIntervalMs, dispatchIntervalMs,
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 该用户的下发通道（线程安全的会话包装）；同一用户重复连接时以最新连接为准
+     */
+    public void attach(String userId, WebSocketSession sink) {
+        attach(userId, sink, false);
+    }
+
+    /**
+     * @param compact 该连接是否接收紧凑编码的避障提示
+     */
+    public void attach(String userId, WebSocketSession sink, boolean compact) {
+        while (true) {
+            UserGuidance user = user(userId);
+            synchronized (user) {
+                if (user.removed) {
+                    continue;
+                }
+                user.sink = sink;
+                user.compact = compact;
+                user.lastActiveAt = System.currentTimeMillis();
+            }
+            dispatch(user);
+            return;
+        }
+    }
+
+    public void detach(String userId, WebSocketSession sink) {
+        UserGuidance user = users.get(userId);
+        if (user == null) {
+            return;
+        }
+        synchronized (user) {
+            if (user.sink == sink) {
+                user.sink = null;
+            }
+        }
+    }
+
+    /**
+     * 提交一条消息
+     *
+     * @param key    合并与去重的依据，同一来源的同一类消息应使用相同 key
+     * @param fields 附加字段，原样下发；可为空
+     */
+    public void submit(String userId, GuidancePriority priority, String key, String text, Map<String, Object> fields) {
+        submit(userId, priority, key, text, fields, null);
+    }
+
+    /**
+     * @param code 紧凑编码，下发给声明支持的连接；可为空
+     */
+    public void submit(String userId, GuidancePriority priority, String key, String text, Map<String, Object> fields,
+                       byte[] code) {
+        while (true) {
+            long now = System.currentTimeMillis();
+            UserGuidance user = user(userId);
+            synchronized (user) {
+                if (user.removed) {
+                    continue;
+                }
+                user.lastActiveAt = now;
+                user.arbiter.submit(new GuidanceMessage(priority, key, text, fields, code, now,
+                        now + ttlMs[priority.ordinal()]), now);
+            }
+            dispatch(user);
+            return;
+        }
+    }
+
+    public List<GuidanceUserStats> listUsers() {
+        List<GuidanceUserStats> result = new ArrayList<>();
+        for (UserGuidance user : users.values()) {
+            GuidanceUserStats stats = new GuidanceUserStats();
+            synchronized (user) {
+                stats.setUserId(user.userId);
+                stats.setConnected(user.sink != null);
+                stats.setCompact(user.compact);
+                stats.setSentBytes(user.sentBytes);
+                stats.setPending(user.arbiter.getPendingCount());
+                stats.setSubmitted(user.arbiter.getSubmitted());
+                stats.setMerged(user.arbiter.getMerged());
+                stats.setDeduplicated(user.arbiter.getDeduplicated());
+                stats.setExpired(user.arbiter.getExpired());
+                stats.setDropped(user.arbiter.getDropped());
+                stats.setEmitted(user.arbiter.getEmitted());
+            }
+            result.add(stats);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+
+    // --- 辅助方法 ---
+
+    private UserGuidance user(String userId) {
+        return users.computeIfAbsent(userId,
+                id -> new UserGuidance(id, new GuidanceArbiter(settings), System.currentTimeMillis()));
+    }
+
+    private void dispatchAll() {
+        try {
+            long now = System.currentTimeMillis();
+            for (UserGuidance user : users.values()) {
+                dispatch(user);
+                synchronized (user) {
+                    // 断开且无待发消息的用户超过空闲时间后回收
+                    if (user.sink == null && user.arbiter.isEmpty() && now - user.lastActiveAt > idleTimeoutMs) {
+                        user.removed = true;
+                        users.remove(user.userId, user);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            // 异常不能逃逸，否则定时任务会被取消
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 下发当前可以播报的消息；按用户加锁，保证同一用户的消息按仲裁顺序写出
+     */
+    private void dispatch(UserGuidance user) {
+        synchronized (user) {
+            if (user.sink == null || !user.sink.isOpen()) {
+                return;
+            }
+            GuidanceMessage message;
+            while ((message = user.arbiter.poll(System.currentTimeMillis())) != null) {
+                user.sentBytes += send(user.sink, user.compact, message);
+            }
+        }
+    }
+
+    /**
+     * @return 写出的负载字节数，发送失败时为 0
+     */
+    private int send(WebSocketSession sink, boolean compact, GuidanceMessage message) {
+        WebSocketMessage<?> frame;
+        if (compact && message.getCode() != null) {
+            frame = new BinaryMessage(message.getCode());
+        } else {
+            GuidancePriority priority = message.getPriority();
+            Map<String, Object> payload = new LinkedHashMap<>();
+            payload.put("type", priority.interrupts() ? "warning" : "guidance");
+            payload.put("priority", priority.getWireName());
+            payload.put("interrupt", priority.interrupts());
+            if (message.getFields() != null) {
+                payload.putAll(message.getFields());
+            }
+            payload.put("message", message.getText());
+            try {
+                frame = new TextMessage(mapper.writeValueAsString(payload));
+            } catch (JsonProcessingException e) {
+                e.printStackTrace();
+                return 0;
+            }
+        }
+        try {
+            sink.sendMessage(frame);
+            return frame.getPayloadLength();
+        } catch (IOException e) {
+            System.err.println("播报消息发送失败: " + e.getMessage());
+            return 0;
+        }
+    }
+}
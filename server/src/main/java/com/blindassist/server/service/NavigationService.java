@@ -2,19 +2,28 @@ package com.blindassist.server.service;
 
 import com.blindassist.server.api.dto.NavigationRouteRequest;
 import com.blindassist.server.api.dto.NavigationRouteResponse;
+import com.blindassist.server.guidance.GuidancePriority;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 导航服务：
  * - 当前为示例逻辑：根据经纬度简单构造三步导航语音
  * - 实际项目中可在此处对接高德地图 MCP 或 AutoGLM + 手机地图
+ * - 请求带 userId 时，步骤作为转向指令交给 GuidanceService，与避障提示统一排序后从避障通道下发
  */
 @Service
 public class NavigationService {
 
+    private final GuidanceService guidanceService;
+
+    public NavigationService(GuidanceService guidanceService) {
+        this.guidanceService = guidanceService;
+    }
+
     public NavigationRouteResponse planRoute(NavigationRouteRequest req) {
         List<String> steps = new ArrayList<>();
         String start = "(" + req.getStartLat() + "," + req.getStartLng() + ")";
@@ -25,6 +34,13 @@ public class NavigationService {
 
         NavigationRouteResponse resp = new NavigationRouteResponse();
         resp.setVoiceSteps(steps);
+        if (req.getUserId() != null && !req.getUserId().isBlank()) {
+            for (int i = 0; i < steps.size(); i++) {
+                guidanceService.submit(req.getUserId(), GuidancePriority.TURN, "nav:step:" + i, steps.get(i),
+                        Map.of("step", i));
+            }
+            resp.setStreamed(true);
+        }
         return resp;
     }
 }
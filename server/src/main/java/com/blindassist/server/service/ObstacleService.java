@@ -0,0 +1,327 @@
+package com.blindassist.server.service;
+
+import com.blindassist.server.api.dto.ObstacleSessionStats;
+import com.blindassist.server.guidance.GuidancePriority;
+import com.blindassist.server.imaging.ImageKernels;
+import com.blindassist.server.obstacle.Detection;
+import com.blindassist.server.obstacle.FrameBufferPool;
+import com.blindassist.server.obstacle.FrameDecoder;
+import com.blindassist.server.obstacle.ObstacleFrameHeader;
+import com.blindassist.server.obstacle.GrayFrame;
+import com.blindassist.server.obstacle.ObstacleDetector;
+import com.blindassist.server.obstacle.ObstacleTracker;
+import com.blindassist.server.obstacle.ObstacleWarningCode;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 避障帧处理：
+ * - WebSocket 容器线程只把帧放入会话邮箱（仅保留最新一帧）后立即返回
+ * - 有界工作线程池按会话串行处理，处理跟不上时丢弃过时帧，提示始终基于最新画面
+ * - 处理流程：解析帧头部 -> 解码为灰度帧 -> ObstacleDetector 检测 -> ObstacleTracker 跨帧跟踪 -> 仅在状态变化时提示
+ * - 可选的清晰度门限（obstacle.min-sharpness）：运动模糊的帧不做检测，也不推进跟踪器
+ * - 提示交给 GuidanceService 与导航指令统一仲裁后下发；正前方近距离障碍物按即将碰撞处理
+ * - 带头部的帧（见 ObstacleFrameHeader）在提示中回显 seq 与 capture_ts，供 App 计算端到端延迟
+ * - 周期性按处理能力、丢帧与上行实际到达帧率为每个会话计算帧率，
+ *   变化时下发 {"type":"rate","fps":x,"interval_ms":n}，App 据此调整采集频率
+ * - 发往客户端的写入经 ConcurrentWebSocketSessionDecorator 串行化，慢速客户端不会阻塞工作线程
+ */
+@Service
+public class ObstacleService {
+
+    private final Map<String, ObstacleSession> sessions = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor workers;
+    private final FrameDecoder decoder;
+    private final FrameBufferPool bufferPool;
+    private final ObstacleDetector detector;
+    private final ObstacleTracker.Settings trackerSettings;
+    private final FrameRateController rateController;
+    private final GuidanceService guidanceService;
+    private final ImageKernels imageKernels;
+    // 灰度帧拉普拉斯方差低于该值（运动模糊）时跳过检测与跟踪，0 表示不检查
+    private final double minSharpness;
+    // 正前方（方位在跟踪器的正前方半角内）且不超过该距离（米）的障碍物按即将碰撞提示
+    private final double collisionDistanceM;
+    private final ScheduledExecutorService rateTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "obstacle-rate");
+        t.setDaemon(true);
+        return t;
+    });
+    // 最近一个周期所有会话的平均单帧处理耗时，用于估算处理能力
+    private double meanServiceMs;
+
+    // 发往客户端的单次发送时限与缓冲上限，超出时丢弃待发提示
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+
+    public ObstacleService(FrameDecoder decoder, FrameBufferPool bufferPool, ObstacleDetector detector, ObstacleTracker.Settings trackerSettings,
+                           FrameRateController rateController, GuidanceService guidanceService, ImageKernels imageKernels,
+                           @Value("${obstacle.collision-distance-m:1.0}") double collisionDistanceM,
+                           @Value("${obstacle.min-sharpness:0}") double minSharpness,
+                           @Value("${obstacle.workers:4}") int workerCount,
+                           @Value("${obstacle.worker-queue-capacity:256}") int workerQueueCapacity,
+                           @Value("${obstacle.send-time-limit-ms:5000}") int sendTimeLimitMs,
+                           @Value("${obstacle.send-buffer-size-limit:65536}") int sendBufferSizeLimit) {
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(workerQueueCapacity), r -> {
+            Thread t = new Thread(r, "obstacle-worker-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.decoder = decoder;
+        this.bufferPool = bufferPool;
+        this.detector = detector;
+        this.trackerSettings = trackerSettings;
+        this.rateController = rateController;
+        this.guidanceService = guidanceService;
+        this.imageKernels = imageKernels;
+        this.minSharpness = minSharpness;
+        this.collisionDistanceM = collisionDistanceM;
+        long intervalMs = rateController.getSettings().intervalMs;
+        rateTimer.scheduleWithFixedDelay(this::adjustRates, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        System.out.println("避障检测器: " + detector.name());
+    }
+
+    /**
+     * 登记连接并发送欢迎语，随后把该连接作为用户的播报通道，之前暂存的导航指令在欢迎语之后下发
+     *
+     * @param userId  播报仲裁使用的用户标识，同一用户的导航指令也从该连接下发
+     * @param compact 连接是否声明接收紧凑编码的避障提示（见 ObstacleWarningCode）
+     * @return 线程安全的会话包装，之后对该连接的所有写入都应通过它进行
+     */
+    public WebSocketSession register(WebSocketSession session, String userId, boolean compact) throws IOException {
+        WebSocketSession concurrent = new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMs,
+                sendBufferSizeLimit, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP);
+        sessions.put(session.getId(), new ObstacleSession(concurrent, userId, new ObstacleTracker(trackerSettings),
+                bufferPool, rateController.getSettings().initialFps));
+        concurrent.sendMessage(new TextMessage("已建立避障通道，可以开始发送图像帧。"));
+        guidanceService.attach(userId, concurrent, compact);
+        return concurrent;
+    }
+
+    public void unregister(String sessionId) {
+        ObstacleSession session = sessions.remove(sessionId);
+        if (session != null) {
+            session.close();
+            guidanceService.detach(session.getUserId(), session.getSession());
+        }
+    }
+
+    /**
+     * 收到一帧：原地解析头部，只把图像字节复制到缓冲池取出的数组（容器可能复用缓冲区）放入邮箱，
+     * 必要时调度处理任务
+     *
+     * @throws IllegalArgumentException 头部版本不支持或长度非法
+     */
+    public void submitFrame(String sessionId, ByteBuffer payload) {
+        ObstacleSession session = sessions.get(sessionId);
+        if (session == null) {
+            return;
+        }
+        ObstacleFrameHeader header = ObstacleFrameHeader.parse(payload);
+        ByteBuffer image = header != null ? header.image(payload) : payload.duplicate();
+        int length = image.remaining();
+        ByteBuffer copy = ByteBuffer.wrap(bufferPool.acquire(length), 0, length);
+        copy.put(image).flip();
+        if (session.offer(header, copy)) {
+            schedule(session);
+        }
+    }
+
+    /**
+     * 发送控制帧（心跳回复等）
+     */
+    public void sendControl(String sessionId, WebSocketMessage<?> message) {
+        ObstacleSession session = sessions.get(sessionId);
+        if (session != null) {
+            send(session, message);
+        }
+    }
+
+    public List<ObstacleSessionStats> listSessions() {
+        List<ObstacleSessionStats> result = new ArrayList<>();
+        for (ObstacleSession session : sessions.values()) {
+            ObstacleSessionStats stats = new ObstacleSessionStats();
+            stats.setSessionId(session.getSessionId());
+            stats.setUserId(session.getUserId());
+            stats.setReceivedFrames(session.getReceivedFrames());
+            stats.setProcessedFrames(session.getProcessedFrames());
+            stats.setDroppedFrames(session.getDroppedFrames());
+            stats.setReorderedFrames(session.getReorderedFrames());
+            stats.setBlurredFrames(session.getBlurredFrames());
+            stats.setWarningsSent(session.getWarningsSent());
+            stats.setTargetFps(session.getSentFps());
+            ObstacleFrameHeader lastHeader = session.getLastHeader();
+            if (lastHeader != null) {
+                stats.setFrameWidth(lastHeader.getWidth());
+                stats.setFrameHeight(lastHeader.getHeight());
+                stats.setFrameRotation(lastHeader.getRotation());
+            }
+            stats.setProcessingLatency(session.getProcessingLatency().summary());
+            result.add(stats);
+        }
+        return result;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rateTimer.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    // --- 辅助方法 ---
+
+    private void schedule(ObstacleSession session) {
+        try {
+            workers.execute(() -> drain(session));
+        } catch (RejectedExecutionException e) {
+            session.rejected();
+        }
+    }
+
+    private void drain(ObstacleSession session) {
+        try {
+            ObstacleSession.Frame frame = session.poll();
+            if (frame != null) {
+                try {
+                    if (session.getSession().isOpen()) {
+                        process(session, frame);
+                    }
+                } finally {
+                    session.release(frame);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        } finally {
+            // 每个任务只处理一帧后让出线程，避免高帧率会话独占工作线程
+            if (session.finishDrain()) {
+                schedule(session);
+            }
+        }
+    }
+
+    private void process(ObstacleSession session, ObstacleSession.Frame frame) throws IOException {
+        long serviceStart = System.nanoTime();
+        ByteBuffer data = frame.data;
+        ObstacleFrameHeader header = frame.header;
+        // 灰度帧缓冲属于当前工作线程，检测完成前有效
+        GrayFrame gray = decoder.decodeReusing(data.array(), data.arrayOffset() + data.position(), data.remaining(),
+                header != null ? header.getRotation() : 0,
+                header != null && header.hasImu() ? header.getPitch() : 0);
+        if (gray != null && minSharpness > 0
+                && imageKernels.laplacianVariance(gray.getLuma(), gray.getWidth(), gray.getHeight()) < minSharpness) {
+            // 模糊帧上的边缘不可靠，既不检测也不推进跟踪器，轨迹状态保持到下一帧清晰的画面
+            session.blurred();
+            session.processed(frame, serviceStart);
+            return;
+        }
+        // 解码失败的帧按“无检测”送入跟踪器，使轨迹照常老化
+        List<Detection> detections = gray != null ? detector.detect(gray) : List.of();
+        for (Detection warning : session.getTracker().update(detections, System.currentTimeMillis())) {
+            sendWarning(session, warning, header);
+            session.warningSent();
+        }
+        session.processed(frame, serviceStart);
+    }
+
+    /**
+     * 码率控制周期任务：先汇总全部会话的处理耗时估算处理能力，再逐个会话调整并下发帧率
+     */
+    private void adjustRates() {
+        try {
+            List<ObstacleSession> active = new ArrayList<>(sessions.values());
+            if (active.isEmpty()) {
+                return;
+            }
+            List<ObstacleSession.RateSample> samples = new ArrayList<>();
+            long processed = 0;
+            long serviceNanos = 0;
+            for (ObstacleSession session : active) {
+                ObstacleSession.RateSample sample = session.sample();
+                samples.add(sample);
+                processed += sample.processed;
+                serviceNanos += sample.serviceNanos;
+            }
+            if (processed > 0) {
+                meanServiceMs = serviceNanos / 1e6 / processed;
+            }
+            FrameRateController.Settings settings = rateController.getSettings();
+            double fairShare = meanServiceMs > 0
+                    ? workers.getMaximumPoolSize() * (1000 / meanServiceMs) * settings.targetUtilization / active.size()
+                    : Double.MAX_VALUE;
+            boolean overloaded = !workers.getQueue().isEmpty();
+
+            for (int i = 0; i < active.size(); i++) {
+                ObstacleSession session = active.get(i);
+                double fps = rateController.next(session, samples.get(i), fairShare, overloaded);
+                if (session.updateTargetFps(fps, settings.minChange)) {
+                    send(session, new TextMessage("{\"type\":\"rate\",\"fps\":" + fps
+                            + ",\"interval_ms\":" + Math.round(1000 / fps) + "}"));
+                }
+            }
+        } catch (RuntimeException e) {
+            // 异常不能逃逸，否则定时任务会被取消
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * 提示方向为建议用户偏移的一侧：障碍物在右侧（或正前方）时向左，在左侧时向右；
+     * 同一类别同一侧的提示在仲裁队列中合并为一条
+     */
+    private void sendWarning(ObstacleSession session, Detection detection, ObstacleFrameHeader header) {
+        String direction = detection.getBearing() < 0 ? "right" : "left";
+        Map<String, Object> instruction = new LinkedHashMap<>();
+        instruction.put("direction", direction);
+        instruction.put("distance", Math.round(detection.getDistance() * 10) / 10.0);
+        instruction.put("label", detection.getLabel());
+        instruction.put("bearing", Math.round(detection.getBearing()));
+        instruction.put("confidence", Math.round(detection.getConfidence() * 100) / 100.0);
+        if (header != null) {
+            instruction.put("seq", header.getSeq());
+            instruction.put("capture_ts", header.getCaptureTimestamp());
+        }
+        boolean imminent = detection.getDistance() <= collisionDistanceM
+                && Math.abs(detection.getBearing()) <= trackerSettings.centerHalfWidthDeg;
+        // 播报文本与紧凑编码按同样的类别与距离档生成，instruction.distance 保留 0.1 米精度
+        String text = ObstacleWarningCode.speech(detection.getLabel(), "right".equals(direction),
+                detection.getDistance(), imminent);
+        byte[] code = ObstacleWarningCode.encode(detection.getLabel(), "right".equals(direction),
+                detection.getDistance(), imminent, header != null ? header.getSeq() : 0);
+        guidanceService.submit(session.getUserId(),
+                imminent ? GuidancePriority.COLLISION_IMMINENT : GuidancePriority.OBSTACLE,
+                "obstacle:" + detection.getLabel() + ":" + direction, text, instruction, code);
+    }
+
+    private void send(ObstacleSession session, WebSocketMessage<?> message) {
+        try {
+            session.getSession().sendMessage(message);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.blindassist.server.service;
+
+import com.blindassist.server.metrics.LatencyHistogram;
+import com.blindassist.server.obstacle.FrameBufferPool;
+import com.blindassist.server.obstacle.ObstacleFrameHeader;
+import com.blindassist.server.obstacle.ObstacleTracker;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 单个避障连接的状态：
+ * - 邮箱只保存最新一帧（latest-frame-wins），新帧到达时未处理的旧帧直接丢弃并计数
+ * - 同一会话同一时刻最多一个处理任务在工作线程上运行，保证按会话串行处理
+ * - 帧计数、处理延迟、障碍物跟踪状态均按会话独立保存
+ * - 带头部的帧按客户端序号检测乱序，序号不大于已收到的最大序号时直接丢弃
+ * - 记录分配给客户端的帧率，并按周期提供收帧、丢帧、处理耗时等增量供码率控制使用
+ * - 帧数据来自缓冲池，被替换、乱序丢弃、处理完成或连接关闭时归还
+ */
+public class ObstacleSession {
+
+    /**
+     * 一个码率控制周期内的增量统计
+     */
+    static final class RateSample {
+        final long frames;
+        final long bytes;
+        final long dropped;
+        final long processed;
+        final long serviceNanos;
+        final long latencyNanos;
+
+        RateSample(long frames, long bytes, long dropped, long processed, long serviceNanos, long latencyNanos) {
+            this.frames = frames;
+            this.bytes = bytes;
+            this.dropped = dropped;
+            this.processed = processed;
+            this.serviceNanos = serviceNanos;
+            this.latencyNanos = latencyNanos;
+        }
+    }
+
+    /**
+     * 待处理的一帧：data 仅含图像字节，底层数组取自缓冲池；header 为 null 表示旧版无头部帧；
+     * receivedAtNanos 用于统计从收到帧到处理完成的延迟
+     */
+    static final class Frame {
+        final ObstacleFrameHeader header;
+        final ByteBuffer data;
+        final long receivedAtNanos;
+
+        Frame(ObstacleFrameHeader header, ByteBuffer data, long receivedAtNanos) {
+            this.header = header;
+            this.data = data;
+            this.receivedAtNanos = receivedAtNanos;
+        }
+    }
+
+    private final String sessionId;
+    private final String userId;
+    private final WebSocketSession session;
+    private final AtomicReference<Frame> latest = new AtomicReference<>();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final AtomicLong receivedFrames = new AtomicLong();
+    private final AtomicLong processedFrames = new AtomicLong();
+    private final AtomicLong droppedFrames = new AtomicLong();
+    private final AtomicLong reorderedFrames = new AtomicLong();
+    private final AtomicLong blurredFrames = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private final AtomicLong serviceNanos = new AtomicLong();
+    private final AtomicLong latencyNanos = new AtomicLong();
+    // 仅在容器线程上访问（同一连接的消息按序回调）
+    private long lastClientSeq = -1;
+    private volatile ObstacleFrameHeader lastHeader;
+    private final AtomicLong warningsSent = new AtomicLong();
+    private final ObstacleTracker tracker;
+    private final FrameBufferPool bufferPool;
+    private final LatencyHistogram processingLatency = new LatencyHistogram();
+
+    // 码率控制状态，仅在码率控制线程上访问
+    private double targetFps;
+    private double sentFps;
+    private int stableTicks;
+    private final long[] lastTotals = new long[6];
+
+    public ObstacleSession(WebSocketSession session, String userId, ObstacleTracker tracker,
+                           FrameBufferPool bufferPool, double initialFps) {
+        this.sessionId = session.getId();
+        this.userId = userId;
+        this.session = session;
+        this.tracker = tracker;
+        this.bufferPool = bufferPool;
+        this.targetFps = initialFps;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * 播报仲裁使用的用户标识（App 的 guidance id，未提供时为连接 id）
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * 线程安全的发送包装（见 ObstacleService），工作线程与容器线程均可写入
+     */
+    public WebSocketSession getSession() {
+        return session;
+    }
+
+    public long getReceivedFrames() {
+        return receivedFrames.get();
+    }
+
+    public long getProcessedFrames() {
+        return processedFrames.get();
+    }
+
+    public long getDroppedFrames() {
+        return droppedFrames.get();
+    }
+
+    public long getReorderedFrames() {
+        return reorderedFrames.get();
+    }
+
+    /**
+     * @return 清晰度低于阈值、未做检测的帧数
+     */
+    public long getBlurredFrames() {
+        return blurredFrames.get();
+    }
+
+    public void blurred() {
+        blurredFrames.incrementAndGet();
+    }
+
+    /**
+     * @return 最近一帧的头部（分辨率、旋转等），尚未收到带头部的帧时为 null
+     */
+    public ObstacleFrameHeader getLastHeader() {
+        return lastHeader;
+    }
+
+    /**
+     * @return 最近一次下发给客户端的帧率，尚未下发时为 0
+     */
+    public synchronized double getSentFps() {
+        return sentFps;
+    }
+
+    public long getWarningsSent() {
+        return warningsSent.get();
+    }
+
+    /**
+     * 仅在该会话的处理任务中访问（同一会话串行）
+     */
+    ObstacleTracker getTracker() {
+        return tracker;
+    }
+
+    void warningSent() {
+        warningsSent.incrementAndGet();
+    }
+
+    public LatencyHistogram getProcessingLatency() {
+        return processingLatency;
+    }
+
+    /**
+     * 放入最新帧，替换掉尚未处理的旧帧；乱序到达的旧帧直接丢弃
+     *
+     * @return 是否需要调度一次处理任务（当前没有任务在运行或排队）
+     */
+    boolean offer(ObstacleFrameHeader header, ByteBuffer data) {
+        receivedFrames.incrementAndGet();
+        receivedBytes.addAndGet(data.remaining());
+        if (header != null) {
+            if (header.getSeq() <= lastClientSeq) {
+                reorderedFrames.incrementAndGet();
+                bufferPool.release(data.array());
+                return false;
+            }
+            lastClientSeq = header.getSeq();
+            lastHeader = header;
+        }
+        Frame frame = new Frame(header, data, System.nanoTime());
+        Frame replaced = latest.getAndSet(frame);
+        if (replaced != null) {
+            droppedFrames.incrementAndGet();
+            release(replaced);
+        }
+        return scheduled.compareAndSet(false, true);
+    }
+
+    Frame poll() {
+        return latest.getAndSet(null);
+    }
+
+    /**
+     * 处理任务结束：若期间又有新帧到达则返回 true，由调用方重新调度
+     */
+    boolean finishDrain() {
+        scheduled.set(false);
+        return latest.get() != null && scheduled.compareAndSet(false, true);
+    }
+
+    /**
+     * 工作线程池拒绝了处理任务：丢弃当前帧，等待下一帧重新调度
+     */
+    void rejected() {
+        Frame frame = latest.getAndSet(null);
+        if (frame != null) {
+            droppedFrames.incrementAndGet();
+            release(frame);
+        }
+        scheduled.set(false);
+    }
+
+    /**
+     * 归还帧数据到缓冲池；帧已从邮箱取出且不再被访问时调用
+     */
+    void release(Frame frame) {
+        bufferPool.release(frame.data.array());
+    }
+
+    /**
+     * 连接关闭：归还邮箱中尚未处理的帧
+     */
+    void close() {
+        Frame frame = latest.getAndSet(null);
+        if (frame != null) {
+            release(frame);
+        }
+    }
+
+    /**
+     * @param serviceStartNanos 开始解码的时刻，用于区分排队时间与解码检测耗时
+     */
+    void processed(Frame frame, long serviceStartNanos) {
+        long now = System.nanoTime();
+        processedFrames.incrementAndGet();
+        serviceNanos.addAndGet(now - serviceStartNanos);
+        latencyNanos.addAndGet(now - frame.receivedAtNanos);
+        processingLatency.recordNanos(now - frame.receivedAtNanos);
+    }
+
+    /**
+     * 取自上次调用以来的增量
+     */
+    synchronized RateSample sample() {
+        long[] totals = {receivedFrames.get(), receivedBytes.get(), droppedFrames.get(),
+                processedFrames.get(), serviceNanos.get(), latencyNanos.get()};
+        RateSample sample = new RateSample(totals[0] - lastTotals[0], totals[1] - lastTotals[1],
+                totals[2] - lastTotals[2], totals[3] - lastTotals[3], totals[4] - lastTotals[4],
+                totals[5] - lastTotals[5]);
+        System.arraycopy(totals, 0, lastTotals, 0, totals.length);
+        return sample;
+    }
+
+    synchronized double getTargetFps() {
+        return targetFps;
+    }
+
+    /**
+     * 更新目标帧率
+     *
+     * @return 与上次下发的值相差超过 minChange（比例）或尚未下发时返回 true，调用方应下发
+     */
+    synchronized boolean updateTargetFps(double fps, double minChange) {
+        targetFps = fps;
+        if (sentFps > 0 && Math.abs(fps - sentFps) < sentFps * minChange) {
+            stableTicks++;
+            return false;
+        }
+        sentFps = fps;
+        stableTicks = 0;
+        return true;
+    }
+
+    /**
+     * @return 下发的帧率已保持不变的周期数，客户端至少有一个完整周期按此帧率发送后才据此判断上行带宽
+     */
+    synchronized int getStableTicks() {
+        return stableTicks;
+    }
+}
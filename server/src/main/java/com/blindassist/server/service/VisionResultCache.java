@@ -0,0 +1,245 @@
+package com.blindassist.server.service;
+
+import com.blindassist.server.api.dto.VisionCacheStats;
+import com.blindassist.server.imaging.ImageKernels;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 视觉识别结果缓存：按图像感知哈希（64 位 dHash）查找近似重复的图像，
+ * 用户反复对准同一个药盒或门口拍照时直接返回上次的结果，省去一次模型调用。
+ * - 近似查找：哈希按汉明距离组织成 BK-tree，只访问距离可能在门限内的子树，取距离最近的结果
+ * - 淘汰：按访问顺序 LRU，同时受条目数与估算内存上限约束；结果自写入起超过 TTL 即失效，
+ *   命中不会延长有效期，避免场景已变化仍返回旧结果
+ * - BK-tree 不便删除节点，淘汰时只清空节点上的结果，空节点多于有效条目时整体重建
+ * 每个接口单独一个实例，OCR 的结果不会回答场景描述请求。
+ * 结果在锁外计算，同一图像的并发请求可能各自计算一次，以后写入的为准。
+ */
+public class VisionResultCache {
+
+    // 每个条目除结果文本外的估算开销：条目、BK-tree 节点及其子节点数组、LRU 链表节点
+    private static final int ENTRY_OVERHEAD_BYTES = 512;
+
+    private static final class Node {
+        final long hash;
+        Entry entry;
+        // 下标为与本节点哈希的汉明距离（1..64），首个子节点插入时分配
+        Node[] children;
+
+        Node(long hash) {
+            this.hash = hash;
+        }
+    }
+
+    private static final class Entry {
+        final long hash;
+        final String value;
+        final long createdAtMs;
+        final long costNanos;
+        final long bytes;
+        Node node;
+
+        Entry(long hash, String value, long createdAtMs, long costNanos) {
+            this.hash = hash;
+            this.value = value;
+            this.createdAtMs = createdAtMs;
+            this.costNanos = costNanos;
+            this.bytes = ENTRY_OVERHEAD_BYTES + 2L * value.length();
+        }
+    }
+
+    private final String endpoint;
+    private final int maxDistance;
+    private final long ttlMs;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    // 哈希 -> 条目，按访问顺序排列
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private Node root;
+    private int emptyNodes;
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long savedNanos;
+
+    /**
+     * @param maxDistance 视为同一图像的最大汉明距离
+     * @param ttlMs       结果自写入起的有效期
+     */
+    public VisionResultCache(String endpoint, int maxDistance, long ttlMs, int maxEntries, long maxBytes) {
+        this.endpoint = endpoint;
+        this.maxDistance = maxDistance;
+        this.ttlMs = ttlMs;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 返回近似图像的缓存结果；未命中时调用 compute 计算并写入，计算耗时记为该结果命中时节省的时间
+     *
+     * @param hash 分析图的 dHash
+     */
+    public String get(long hash, Supplier<String> compute) {
+        long now = System.currentTimeMillis();
+        synchronized (this) {
+            Entry entry = nearest(hash, now);
+            if (entry != null) {
+                // 更新 LRU 顺序
+                entries.get(entry.hash);
+                hits++;
+                savedNanos += entry.costNanos;
+                return entry.value;
+            }
+            misses++;
+        }
+        long start = System.nanoTime();
+        String value = compute.get();
+        long cost = System.nanoTime() - start;
+        if (value != null && maxEntries > 0) {
+            put(new Entry(hash, value, now, cost));
+        }
+        return value;
+    }
+
+    public synchronized VisionCacheStats stats() {
+        VisionCacheStats stats = new VisionCacheStats();
+        stats.setEndpoint(endpoint);
+        stats.setEntries(entries.size());
+        stats.setBytes(bytes);
+        stats.setHits(hits);
+        stats.setMisses(misses);
+        stats.setHitRatio(hits + misses == 0 ? 0 : (double) hits / (hits + misses));
+        stats.setSavedMs(savedNanos / 1_000_000);
+        return stats;
+    }
+
+    /**
+     * 门限内距离最近的有效条目；顺带移除查找路径上已过期的条目
+     */
+    private Entry nearest(long hash, long now) {
+        if (root == null) {
+            return null;
+        }
+        Entry best = null;
+        int bestDistance = Integer.MAX_VALUE;
+        List<Entry> expired = null;
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            int distance = ImageKernels.hammingDistance(hash, node.hash);
+            Entry entry = node.entry;
+            if (entry != null && distance <= maxDistance) {
+                if (now - entry.createdAtMs > ttlMs) {
+                    if (expired == null) {
+                        expired = new ArrayList<>();
+                    }
+                    expired.add(entry);
+                } else if (distance < bestDistance) {
+                    best = entry;
+                    bestDistance = distance;
+                }
+            }
+            if (node.children == null) {
+                continue;
+            }
+            // 三角不等式：门限内的哈希只可能位于距离差不超过门限的子树
+            int from = Math.max(1, distance - maxDistance);
+            int to = Math.min(64, distance + maxDistance);
+            for (int d = from; d <= to; d++) {
+                if (node.children[d] != null) {
+                    stack.add(node.children[d]);
+                }
+            }
+        }
+        if (expired != null) {
+            for (Entry entry : expired) {
+                remove(entry);
+            }
+            compactIfSparse();
+        }
+        return best;
+    }
+
+    private synchronized void put(Entry entry) {
+        Entry previous = entries.remove(entry.hash);
+        if (previous != null) {
+            remove(previous);
+        }
+        entries.put(entry.hash, entry);
+        bytes += entry.bytes;
+        insert(entry);
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (eldest.hasNext() && (entries.size() > maxEntries || bytes > maxBytes)) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.bytes;
+            evicted.node.entry = null;
+            emptyNodes++;
+        }
+        compactIfSparse();
+    }
+
+    private void insert(Entry entry) {
+        if (root == null) {
+            root = new Node(entry.hash);
+            attach(root, entry);
+            return;
+        }
+        Node node = root;
+        while (true) {
+            int distance = ImageKernels.hammingDistance(entry.hash, node.hash);
+            if (distance == 0) {
+                if (node.entry == null) {
+                    emptyNodes--;
+                }
+                attach(node, entry);
+                return;
+            }
+            if (node.children == null) {
+                node.children = new Node[65];
+            }
+            Node child = node.children[distance];
+            if (child == null) {
+                child = new Node(entry.hash);
+                node.children[distance] = child;
+                attach(child, entry);
+                return;
+            }
+            node = child;
+        }
+    }
+
+    private static void attach(Node node, Entry entry) {
+        node.entry = entry;
+        entry.node = node;
+    }
+
+    private void remove(Entry entry) {
+        if (entries.get(entry.hash) == entry) {
+            entries.remove(entry.hash);
+        }
+        if (entry.node.entry == entry) {
+            bytes -= entry.bytes;
+            entry.node.entry = null;
+            emptyNodes++;
+        }
+    }
+
+    private void compactIfSparse() {
+        if (emptyNodes <= entries.size()) {
+            return;
+        }
+        root = null;
+        emptyNodes = 0;
+        for (Entry entry : entries.values()) {
+            insert(entry);
+        }
+    }
+}
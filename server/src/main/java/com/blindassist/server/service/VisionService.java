@@ -1,36 +1,267 @@
 package com.blindassist.server.service;
 
+import com.blindassist.server.api.dto.OcrHedgeStats;
+import com.blindassist.server.api.dto.VisionCacheStats;
 import com.blindassist.server.api.dto.VisionOcrResponse;
 import com.blindassist.server.api.dto.VisionSceneResponse;
+import com.blindassist.server.imaging.ImageKernels;
+import com.blindassist.server.obstacle.FrameDecoder;
+import com.blindassist.server.obstacle.GrayFrame;
+import com.blindassist.server.vision.BackendImageScaler;
+import com.blindassist.server.vision.EncodedImage;
+import com.blindassist.server.vision.OcrHedger;
+import com.blindassist.server.vision.VisionBatcher;
+import com.blindassist.server.vision.VisionTask;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * 视觉相关服务（OCR & 场景描述）：
- * - 目前不真正解析图像，仅给出示例文本
- * - 实际可在此接入 OCR 引擎和多模态大模型
+ * - 先把图像降采样解码为小尺寸灰度图，无法解码时直接提示用户重拍，不再交给后续识别；
+ *   可选的清晰度门限（vision.min-sharpness，默认不检查）：拉普拉斯方差低于门限时同样提示重拍
+ * - 图像以输入流传入，读入一份编码数据（受上传上限约束，超过声明的长度或实际读到的字节数时以 413 拒绝），
+ *   从中降采样解码出小尺寸灰度图（只用于清晰度判断与结果缓存），不在堆上解码全分辨率图像；
+ *   编码数据只在当前请求内持有，需要识别时由 BackendImageScaler 缩放到后端输入尺寸（vision.backend-max-side），
+ *   交给视觉模型后端与 OCR 引擎的只有缩放后的图像
+ * - 清晰的图像按分析图的 dHash 查结果缓存（OCR 与场景描述各一份）：场景描述对近似重复的图像直接返回上次的结果；
+ *   整幅画面的 dHash 几乎不受印刷文字影响，版式相同的两个药盒也会落在很小的距离内，OCR 缓存默认只接受完全相同的哈希
+ * - 未命中缓存的场景描述交给 VisionBatcher 与同类请求合并成批，调用视觉模型后端识别；
+ *   后端默认为返回示例文本的本地桩，实际可接入多模态大模型
+ * - 未命中缓存的 OCR 交给 OcrHedger，在注册的多个 OCR 引擎之间对冲请求，压低长尾延迟
  */
 @Service
 public class VisionService {
 
-    public VisionOcrResponse ocr(byte[] imageBytes) {
+    private enum Quality { MISSING, UNREADABLE, BLURRED, OK }
+
+    /**
+     * 预检结果；hash 与 data 仅在 OK 时有效，data 的前 length 字节为上传的原始编码数据，只在当前请求内持有
+     */
+    private static final class Inspection {
+        final Quality quality;
+        final long hash;
+        final byte[] data;
+        final int length;
+
+        Inspection(Quality quality, long hash, byte[] data, int length) {
+            this.quality = quality;
+            this.hash = hash;
+            this.data = data;
+            this.length = length;
+        }
+    }
+
+    private final FrameDecoder decoder;
+    private final BackendImageScaler scaler;
+    private final ImageKernels imageKernels;
+    // 分析尺寸下拉普拉斯方差低于该值时视为模糊，0 表示不检查
+    private final double minSharpness;
+    // 单张图像的上传上限（字节）
+    private final long maxUploadBytes;
+    private final VisionResultCache ocrCache;
+    private final VisionResultCache sceneCache;
+    private final VisionBatcher batcher;
+    private final OcrHedger ocrHedger;
+    // 等待识别结果的时限（含排队与凑批）
+    private final long backendTimeoutMs;
+
+    public VisionService(ImageKernels imageKernels, VisionBatcher batcher, OcrHedger ocrHedger,
+                         @Value("${vision.analysis-width:320}") int analysisWidth,
+                         @Value("${vision.analysis-height:240}") int analysisHeight,
+                         @Value("${vision.min-sharpness:0}") double minSharpness,
+                         @Value("${vision.max-upload-bytes:16777216}") long maxUploadBytes,
+                         @Value("${vision.backend-max-side:1600}") int backendMaxSide,
+                         @Value("${vision.cache.max-distance:6}") int cacheMaxDistance,
+                         @Value("${vision.cache.ocr-max-distance:0}") int ocrCacheMaxDistance,
+                         @Value("${vision.cache.ttl-ms:600000}") long cacheTtlMs,
+                         @Value("${vision.cache.max-entries:256}") int cacheMaxEntries,
+                         @Value("${vision.cache.max-bytes:1048576}") long cacheMaxBytes,
+                         @Value("${vision.backend-timeout-ms:5000}") long backendTimeoutMs) {
+        this.decoder = new FrameDecoder(analysisWidth, analysisHeight, imageKernels);
+        this.scaler = new BackendImageScaler(backendMaxSide);
+        this.imageKernels = imageKernels;
+        this.minSharpness = minSharpness;
+        this.maxUploadBytes = maxUploadBytes;
+        this.ocrCache = new VisionResultCache("ocr", ocrCacheMaxDistance, cacheTtlMs, cacheMaxEntries, cacheMaxBytes);
+        this.sceneCache = new VisionResultCache("scene", cacheMaxDistance, cacheTtlMs, cacheMaxEntries, cacheMaxBytes);
+        this.batcher = batcher;
+        this.ocrHedger = ocrHedger;
+        this.backendTimeoutMs = backendTimeoutMs;
+    }
+
+    /**
+     * @param image         图像数据流，由调用方关闭
+     * @param declaredBytes 请求声明的长度，未知（如分块传输）时为 -1
+     */
+    public VisionOcrResponse ocr(InputStream image, long declaredBytes) {
         VisionOcrResponse resp = new VisionOcrResponse();
-        if (imageBytes == null || imageBytes.length == 0) {
-            resp.setText("没有收到清晰的图像，请稍微调整手机位置后再试一次。");
-        } else {
-            resp.setText("示例：检测到包装盒上有“用法用量：每日三次，每次一片”的文字。");
+        Inspection inspection = check(image, declaredBytes);
+        switch (inspection.quality) {
+            case OK:
+                String text = ocrCache.get(inspection.hash, () -> recognizeText(forBackend(inspection)));
+                resp.setText(text != null ? text : "识别服务有些忙，请稍后再试一次。");
+                break;
+            case BLURRED:
+                resp.setText("图像有些模糊，请拿稳手机、稍微拉开距离后再拍一次。");
+                break;
+            default:
+                resp.setText("没有收到清晰的图像，请稍微调整手机位置后再试一次。");
+                break;
         }
         return resp;
     }
 
-    public VisionSceneResponse describeScene(byte[] imageBytes) {
+    /**
+     * @param image         图像数据流，由调用方关闭
+     * @param declaredBytes 请求声明的长度，未知（如分块传输）时为 -1
+     */
+    public VisionSceneResponse describeScene(InputStream image, long declaredBytes) {
         VisionSceneResponse resp = new VisionSceneResponse();
-        if (imageBytes == null || imageBytes.length == 0) {
-            resp.setDescription("没有收到清晰的图像，我暂时看不清您面前的环境。");
-        } else {
-            resp.setDescription("示例场景描述：您面前是一条人行道，左侧有几棵树，右侧是一排商店，前方大约十米处有一个路口。");
+        Inspection inspection = check(image, declaredBytes);
+        switch (inspection.quality) {
+            case OK:
+                String description = sceneCache.get(inspection.hash,
+                        () -> recognize(VisionTask.SCENE, forBackend(inspection)));
+                resp.setDescription(description != null ? description : "识别服务有些忙，请稍后再试一次。");
+                break;
+            case BLURRED:
+                resp.setDescription("图像有些模糊，请拿稳手机对准前方后再拍一次。");
+                break;
+            default:
+                resp.setDescription("没有收到清晰的图像，我暂时看不清您面前的环境。");
+                break;
         }
         return resp;
     }
-}
 
+    public List<VisionCacheStats> cacheStats() {
+        return List.of(ocrCache.stats(), sceneCache.stats());
+    }
 
+    public OcrHedgeStats ocrHedgeStats() {
+        return ocrHedger.stats();
+    }
+
+    /**
+     * 交给 OCR 引擎对冲识别
+     *
+     * @return 识别结果；图像无法缩放、所有引擎失败或超时时返回 null（不写入缓存）
+     */
+    private String recognizeText(EncodedImage image) {
+        if (image == null) {
+            return null;
+        }
+        try {
+            return ocrHedger.recognize(image, backendTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (IOException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 提交到批处理调度器，并等待结果
+     *
+     * @return 识别结果；图像无法缩放、排队被拒、后端失败或超时时返回 null（不写入缓存）
+     */
+    private String recognize(VisionTask task, EncodedImage image) {
+        if (image == null) {
+            return null;
+        }
+        Future<String> result = batcher.submit(task, image);
+        try {
+            return result.get(backendTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            // 不再等待的请求从批处理队列中移出，图像不交给后端
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (TimeoutException e) {
+            result.cancel(false);
+            return null;
+        } catch (ExecutionException e) {
+            return null;
+        }
+    }
+
+    private Inspection check(InputStream image, long declaredBytes) {
+        if (declaredBytes > maxUploadBytes) {
+            throw tooLarge();
+        }
+        if (image == null || declaredBytes == 0) {
+            return new Inspection(Quality.MISSING, 0, null, 0);
+        }
+        byte[] data;
+        int length = 0;
+        try {
+            // 声明了长度时一次分配到位，交给后端的原图不必再复制
+            data = new byte[(int) (declaredBytes > 0 ? declaredBytes : Math.min(maxUploadBytes, 64 * 1024))];
+            for (int n; (n = image.read(data, length, data.length - length)) >= 0; ) {
+                length += n;
+                if (length == data.length) {
+                    int next = image.read();
+                    if (next < 0) {
+                        break;
+                    }
+                    if (length >= maxUploadBytes) {
+                        throw tooLarge();
+                    }
+                    data = Arrays.copyOf(data, (int) Math.min(maxUploadBytes, (long) data.length * 2));
+                    data[length++] = (byte) next;
+                }
+            }
+        } catch (IOException e) {
+            return new Inspection(length == 0 ? Quality.MISSING : Quality.UNREADABLE, 0, null, 0);
+        }
+        if (length == 0) {
+            return new Inspection(Quality.MISSING, 0, null, 0);
+        }
+        GrayFrame gray;
+        try {
+            // 灰度缓冲属于当前请求线程，仅在本方法内使用
+            gray = decoder.decodeSubsampled(data, 0, length, 0, 0);
+        } catch (IOException e) {
+            return new Inspection(Quality.UNREADABLE, 0, null, 0);
+        }
+        if (gray == null) {
+            return new Inspection(Quality.UNREADABLE, 0, null, 0);
+        }
+        if (minSharpness > 0
+                && imageKernels.laplacianVariance(gray.getLuma(), gray.getWidth(), gray.getHeight()) < minSharpness) {
+            return new Inspection(Quality.BLURRED, 0, null, 0);
+        }
+        long hash = imageKernels.differenceHash(gray.getLuma(), gray.getWidth(), gray.getHeight());
+        return new Inspection(Quality.OK, hash, data, length);
+    }
+
+    /**
+     * 未命中缓存、需要调用识别时才按后端输入尺寸缩放
+     *
+     * @return 缩放后的编码图像；无法解码时返回 null
+     */
+    private EncodedImage forBackend(Inspection inspection) {
+        try {
+            return scaler.scale(inspection.data, inspection.length);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private ResponseStatusException tooLarge() {
+        return new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                "image exceeds " + maxUploadBytes + " bytes");
+    }
+}
@@ -0,0 +1,106 @@
+package com.blindassist.server.vision;
+
+import com.blindassist.server.obstacle.ByteArrayImageInputStream;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * 把上传的图像缩放到视觉后端的输入尺寸，交给 {@link VisionBatcher} 与 OCR 引擎的只有缩放后的编码图像：
+ * - 长边不超过 maxSide 的图像原样保留（不重新编码）
+ * - 更大的图像按整数步长降采样解码（长边不小于 maxSide，堆上不出现全分辨率图像），
+ *   双线性缩放到长边恰为 maxSide 后重新编码为 JPEG
+ * 排队与批处理中的请求因此最多各持有一张后端输入尺寸的 JPEG，与上传大小无关。
+ */
+public class BackendImageScaler {
+
+    private static final float JPEG_QUALITY = 0.9f;
+
+    private final int maxSide;
+
+    public BackendImageScaler(int maxSide) {
+        this.maxSide = maxSide;
+    }
+
+    /**
+     * @param data   上传的编码数据，只读不写；原样保留时直接被返回的图像引用（length 与数组长度相同时）
+     * @param length 有效数据长度
+     * @throws IOException 无法识别或解码的图像
+     */
+    public EncodedImage scale(byte[] data, int length) throws IOException {
+        try (ImageInputStream input = new ByteArrayImageInputStream(data, 0, length)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                throw new IOException("无法识别的图像格式");
+            }
+            ImageReader reader = readers.next();
+            BufferedImage subsampled;
+            try {
+                reader.setInput(input, true, true);
+                int longSide = Math.max(reader.getWidth(0), reader.getHeight(0));
+                if (longSide <= maxSide) {
+                    return new EncodedImage(length == data.length ? data : Arrays.copyOf(data, length));
+                }
+                int step = longSide / maxSide;
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                subsampled = reader.read(0, param);
+            } catch (RuntimeException e) {
+                throw new IOException(e);
+            } finally {
+                reader.dispose();
+            }
+            return new EncodedImage(encodeJpeg(resize(subsampled)));
+        }
+    }
+
+    /**
+     * 双线性缩放到长边为 maxSide，同时转为 JPEG 可编码的 BGR（去掉透明通道）
+     */
+    private BufferedImage resize(BufferedImage image) {
+        double factor = (double) maxSide / Math.max(image.getWidth(), image.getHeight());
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_3BYTE_BGR);
+        Graphics2D g = scaled.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            g.dispose();
+        }
+        return scaled;
+    }
+
+    private static byte[] encodeJpeg(BufferedImage image) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpeg");
+        if (!writers.hasNext()) {
+            throw new IOException("没有可用的 JPEG 编码器");
+        }
+        ImageWriter writer = writers.next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (MemoryCacheImageOutputStream output = new MemoryCacheImageOutputStream(out)) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(JPEG_QUALITY);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,39 @@
+package com.blindassist.server.vision;
+
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * 以视觉模型后端的 OCR 批处理队列作为 OCR 引擎：请求与其他 OCR 请求合并成批调用 {@link VisionBackend}。
+ * 被取消时只放弃等待，已发出的批次照常执行（批内还有其他请求）。
+ */
+public class BatchedOcrEngine implements OcrEngine {
+
+    private final VisionBatcher batcher;
+
+    public BatchedOcrEngine(VisionBatcher batcher) {
+        this.batcher = batcher;
+    }
+
+    @Override
+    public String recognize(EncodedImage image) throws IOException {
+        CompletableFuture<String> result = batcher.submit(VisionTask.OCR, image);
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("OCR 调用被取消");
+        } catch (ExecutionException e) {
+            throw new IOException("批处理 OCR 失败: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public String name() {
+        return "batched:" + batcher.backendName();
+    }
+}
@@ -0,0 +1,29 @@
+package com.blindassist.server.vision;
+
+/**
+ * 交给视觉模型后端与 OCR 引擎的编码图像（JPEG / PNG 等）：长边不超过后端输入尺寸的上传原图，
+ * 或由 {@link BackendImageScaler} 缩放到该尺寸后重新编码的 JPEG。
+ * VisionService 解码出的小尺寸灰度图只用于清晰度判断与结果缓存的 dHash，分辨率不足以识别文字，不交给后端。
+ */
+public final class EncodedImage {
+
+    private final byte[] data;
+
+    /**
+     * @param data 编码数据，归该对象所有，之后不得再修改
+     */
+    public EncodedImage(byte[] data) {
+        this.data = data;
+    }
+
+    /**
+     * @return 编码数据，调用方只读不写
+     */
+    public byte[] getData() {
+        return data;
+    }
+
+    public int size() {
+        return data.length;
+    }
+}
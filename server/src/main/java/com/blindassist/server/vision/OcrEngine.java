@@ -0,0 +1,24 @@
+package com.blindassist.server.vision;
+
+import java.io.IOException;
+
+/**
+ * OCR 引擎 SPI：一次调用识别一张图像中的文字。可注册多个互为冗余的引擎，由 {@link OcrHedger}
+ * 在主引擎迟迟不返回时向备用引擎发出对冲请求，先返回者胜出。
+ * 落败的调用以线程中断取消，实现应在阻塞等待时响应中断并尽快返回（抛出 InterruptedIOException）；
+ * 会被多个线程并发调用，实现必须线程安全。
+ */
+public interface OcrEngine {
+
+    /**
+     * @param image 按后端输入尺寸缩放后的编码图像，可能同时交给多个引擎，实现只读不写
+     * @return 识别出的文字
+     * @throws IOException 识别失败，由调用方转交其他引擎或按失败处理
+     */
+    String recognize(EncodedImage image) throws IOException;
+
+    /**
+     * 实现名称，用于日志、指标与基准测试输出
+     */
+    String name();
+}
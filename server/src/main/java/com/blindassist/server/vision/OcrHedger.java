@@ -0,0 +1,265 @@
+package com.blindassist.server.vision;
+
+import com.blindassist.server.api.dto.OcrEngineStats;
+import com.blindassist.server.api.dto.OcrHedgeStats;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多个冗余 OCR 引擎之间的对冲请求：
+ * - 请求先发给主引擎（注册顺序第一个）；到主引擎近期耗时的 p90 仍未返回时，向第二个引擎发出对冲请求，
+ *   先成功返回者胜出，其余调用以中断取消
+ * - 近期耗时不足 minSamples 个样本时，按 initialHedgeDelayMs 对冲；被取消的调用按取消时已耗时记入样本，
+ *   避免只统计胜出的快请求而把 p90 越算越低
+ * - 对冲预算为令牌桶：每个请求存入 maxHedgeRatio 个令牌（上限 burst），每次对冲消耗一个，
+ *   对冲数长期不超过请求数的 maxHedgeRatio；令牌不足时本次不对冲，只等主引擎
+ * - 在途的调用全部失败时按注册顺序转交下一个引擎（故障转移，不消耗对冲预算）
+ */
+public class OcrHedger {
+
+    /**
+     * 对冲参数
+     */
+    public static class Settings {
+        // 主引擎样本不足时的对冲延迟（毫秒）
+        public long initialHedgeDelayMs = 200;
+        // 计算 p90 的近期样本数与最少样本数
+        public int latencyWindow = 128;
+        public int minSamples = 20;
+        // 对冲请求占总请求数的比例上限与令牌桶容量
+        public double maxHedgeRatio = 0.1;
+        public double burst = 5;
+    }
+
+    private static final double HEDGE_QUANTILE = 0.9;
+
+    /**
+     * 单个引擎的近期耗时与计数
+     */
+    private static final class Engine {
+        final OcrEngine engine;
+        final long[] recentNanos;
+        int recentCount;
+        int recentNext;
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong cancelled = new AtomicLong();
+        final AtomicLong wins = new AtomicLong();
+
+        Engine(OcrEngine engine, int window) {
+            this.engine = engine;
+            this.recentNanos = new long[window];
+        }
+
+        synchronized void recordNanos(long nanos) {
+            recentNanos[recentNext] = nanos;
+            recentNext = (recentNext + 1) % recentNanos.length;
+            recentCount = Math.min(recentCount + 1, recentNanos.length);
+        }
+
+        /**
+         * @return 近期耗时的分位数（纳秒），样本不足时返回 -1
+         */
+        synchronized long quantileNanos(double quantile, int minSamples) {
+            if (recentCount < minSamples) {
+                return -1;
+            }
+            long[] sorted = Arrays.copyOf(recentNanos, recentCount);
+            Arrays.sort(sorted);
+            return sorted[Math.min(recentCount - 1, (int) Math.ceil(quantile * recentCount) - 1)];
+        }
+    }
+
+    /**
+     * 一次引擎调用
+     */
+    private static final class Attempt {
+        final Engine engine;
+        final long startNanos;
+        final Future<String> future;
+
+        Attempt(Engine engine, long startNanos, Future<String> future) {
+            this.engine = engine;
+            this.startNanos = startNanos;
+            this.future = future;
+        }
+    }
+
+    private final List<Engine> engines = new ArrayList<>();
+    private final Settings settings;
+    private final ExecutorService callers;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hedges = new AtomicLong();
+    private final AtomicLong hedgeWins = new AtomicLong();
+    private final AtomicLong budgetDenied = new AtomicLong();
+    private final AtomicLong failovers = new AtomicLong();
+    private double hedgeTokens;
+
+    public OcrHedger(List<OcrEngine> engines, Settings settings) {
+        if (engines.isEmpty()) {
+            throw new IllegalArgumentException("至少需要一个 OCR 引擎");
+        }
+        for (OcrEngine engine : engines) {
+            this.engines.add(new Engine(engine, settings.latencyWindow));
+        }
+        this.settings = settings;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.callers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "ocr-engine-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * 识别图像中的文字，阻塞到有引擎成功返回、全部失败或超时
+     *
+     * @param image 按后端输入尺寸缩放后的编码图像，调用期间不得修改
+     * @throws IOException      所有引擎都失败
+     * @throws TimeoutException timeoutMs 内没有引擎返回
+     */
+    public String recognize(EncodedImage image, long timeoutMs)
+            throws IOException, TimeoutException, InterruptedException {
+        requests.incrementAndGet();
+        depositHedgeToken();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        CompletionService<String> completion = new ExecutorCompletionService<>(callers);
+        List<Attempt> attempts = new ArrayList<>(2);
+        Engine primary = engines.get(0);
+        launch(completion, attempts, primary, image);
+        long hedgeDelay = primary.quantileNanos(HEDGE_QUANTILE, settings.minSamples);
+        long hedgeAt = start + (hedgeDelay >= 0 ? hedgeDelay : TimeUnit.MILLISECONDS.toNanos(settings.initialHedgeDelayMs));
+        // 每个请求最多对冲一次
+        boolean mayHedge = engines.size() > 1;
+        int pending = 1;
+        Throwable lastError = null;
+        try {
+            while (true) {
+                long wakeAt = mayHedge ? Math.min(hedgeAt, deadline) : deadline;
+                Future<String> done = completion.poll(wakeAt - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    if (System.nanoTime() - deadline >= 0) {
+                        throw new TimeoutException("OCR 在 " + timeoutMs + "ms 内没有返回");
+                    }
+                    mayHedge = false;
+                    if (attempts.size() < engines.size() && tryTakeHedgeToken()) {
+                        hedges.incrementAndGet();
+                        launch(completion, attempts, engines.get(attempts.size()), image);
+                        pending++;
+                    } else {
+                        budgetDenied.incrementAndGet();
+                    }
+                    continue;
+                }
+                Attempt attempt = attemptOf(attempts, done);
+                try {
+                    String text = done.get();
+                    attempt.engine.recordNanos(System.nanoTime() - attempt.startNanos);
+                    attempt.engine.wins.incrementAndGet();
+                    if (attempt != attempts.get(0)) {
+                        hedgeWins.incrementAndGet();
+                    }
+                    return text;
+                } catch (ExecutionException e) {
+                    attempt.engine.failures.incrementAndGet();
+                    lastError = e.getCause();
+                    pending--;
+                }
+                if (pending == 0) {
+                    if (attempts.size() == engines.size()) {
+                        throw new IOException("所有 OCR 引擎都失败: " + lastError.getMessage(), lastError);
+                    }
+                    failovers.incrementAndGet();
+                    mayHedge = false;
+                    launch(completion, attempts, engines.get(attempts.size()), image);
+                    pending++;
+                }
+            }
+        } finally {
+            long now = System.nanoTime();
+            for (Attempt attempt : attempts) {
+                if (!attempt.future.isDone() && attempt.future.cancel(true)) {
+                    attempt.engine.cancelled.incrementAndGet();
+                    attempt.engine.recordNanos(now - attempt.startNanos);
+                }
+            }
+        }
+    }
+
+    public OcrHedgeStats stats() {
+        OcrHedgeStats stats = new OcrHedgeStats();
+        long total = requests.get();
+        stats.setRequests(total);
+        stats.setHedges(hedges.get());
+        stats.setHedgeWins(hedgeWins.get());
+        stats.setBudgetDenied(budgetDenied.get());
+        stats.setFailovers(failovers.get());
+        stats.setHedgeRatio(total == 0 ? 0 : (double) hedges.get() / total);
+        stats.setMaxHedgeRatio(settings.maxHedgeRatio);
+        List<OcrEngineStats> engineStats = new ArrayList<>();
+        for (Engine engine : engines) {
+            OcrEngineStats s = new OcrEngineStats();
+            s.setName(engine.engine.name());
+            s.setCalls(engine.calls.get());
+            s.setWins(engine.wins.get());
+            s.setFailures(engine.failures.get());
+            s.setCancelled(engine.cancelled.get());
+            long p90 = engine.quantileNanos(HEDGE_QUANTILE, 1);
+            s.setRecentP90Ms(p90 < 0 ? 0 : p90 / 1e6);
+            engineStats.add(s);
+        }
+        stats.setEngines(engineStats);
+        return stats;
+    }
+
+    public void close() {
+        callers.shutdownNow();
+    }
+
+    private void launch(CompletionService<String> completion, List<Attempt> attempts, Engine engine, EncodedImage image)
+            throws IOException {
+        engine.calls.incrementAndGet();
+        try {
+            attempts.add(new Attempt(engine, System.nanoTime(), completion.submit(() -> engine.engine.recognize(image))));
+        } catch (RejectedExecutionException e) {
+            throw new IOException("OCR 对冲调度器已停止", e);
+        }
+    }
+
+    private static Attempt attemptOf(List<Attempt> attempts, Future<String> future) {
+        for (Attempt attempt : attempts) {
+            if (attempt.future == future) {
+                return attempt;
+            }
+        }
+        throw new IllegalStateException("未知的 OCR 调用");
+    }
+
+    private synchronized void depositHedgeToken() {
+        hedgeTokens = Math.min(settings.burst, hedgeTokens + settings.maxHedgeRatio);
+    }
+
+    private synchronized boolean tryTakeHedgeToken() {
+        if (hedgeTokens < 1) {
+            return false;
+        }
+        hedgeTokens -= 1;
+        return true;
+    }
+}
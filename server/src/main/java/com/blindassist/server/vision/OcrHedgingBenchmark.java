@@ -0,0 +1,97 @@
+package com.blindassist.server.vision;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.api.dto.OcrEngineStats;
+import com.blindassist.server.api.dto.OcrHedgeStats;
+import com.blindassist.server.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 对冲请求基准测试：两个相互独立、带注入长尾耗时的桩 OCR 引擎，对比只用主引擎与不同对冲比例上限下的
+ * 端到端延迟分布、实际对冲比例、对冲胜出次数与被取消的调用数，并检查对冲数没有超过上限（比例 × 请求数 + 令牌桶容量）。
+ * 每个客户端串行发送请求（闭环），收到结果后立即发下一个。
+ * 用法：java -cp blindassist-server.jar com.blindassist.server.vision.OcrHedgingBenchmark
+ * [每组秒数] [客户端数] [常规耗时ms] [长尾概率] [长尾耗时ms]
+ */
+public class OcrHedgingBenchmark {
+
+    // 对冲比例上限，0 表示不对冲
+    private static final double[] MAX_RATIOS = {0, 0.02, 0.05, 0.1, 0.2};
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 5;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        double latencyMs = args.length > 2 ? Double.parseDouble(args[2]) : 50;
+        double tailProbability = args.length > 3 ? Double.parseDouble(args[3]) : 0.05;
+        double tailMs = args.length > 4 ? Double.parseDouble(args[4]) : 1000;
+        // 桩引擎不读取图像内容，只需一个与典型手机照片大小相当的缓冲
+        EncodedImage image = new EncodedImage(new byte[1 << 20]);
+
+        System.out.printf("%-8s %8s %10s %10s %10s %10s %10s %8s %8s %8s%n",
+                "budget", "requests", "p50 ms", "p90 ms", "p99 ms", "max ms", "hedged", "wins", "denied", "cancel");
+        for (double maxRatio : MAX_RATIOS) {
+            List<OcrEngine> engines = new ArrayList<>();
+            engines.add(new StubOcrEngine("primary", latencyMs, 0.2, tailProbability, tailMs));
+            if (maxRatio > 0) {
+                engines.add(new StubOcrEngine("secondary", latencyMs, 0.2, tailProbability, tailMs));
+            }
+            OcrHedger.Settings settings = new OcrHedger.Settings();
+            settings.maxHedgeRatio = maxRatio;
+            OcrHedger hedger = new OcrHedger(engines, settings);
+            try {
+                // 预热一秒，积累主引擎的耗时样本
+                run(hedger, image, clients, 1000);
+                OcrHedgeStats before = hedger.stats();
+                LatencySummary summary = run(hedger, image, clients, seconds * 1000).summary();
+                OcrHedgeStats after = hedger.stats();
+                long requests = after.getRequests() - before.getRequests();
+                long hedges = after.getHedges() - before.getHedges();
+                long cancelled = 0;
+                for (OcrEngineStats engine : after.getEngines()) {
+                    cancelled += engine.getCancelled();
+                }
+                for (OcrEngineStats engine : before.getEngines()) {
+                    cancelled -= engine.getCancelled();
+                }
+                double ratio = requests == 0 ? 0 : (double) hedges / requests;
+                System.out.printf("%-8s %8d %10.1f %10.1f %10.1f %10.1f %9.1f%% %8d %8d %8d%s%n",
+                        maxRatio == 0 ? "off" : String.format("%.0f%%", maxRatio * 100), requests,
+                        summary.getP50Ms(), summary.getP90Ms(), summary.getP99Ms(), summary.getMaxMs(),
+                        ratio * 100, after.getHedgeWins() - before.getHedgeWins(),
+                        after.getBudgetDenied() - before.getBudgetDenied(), cancelled,
+                        hedges > maxRatio * requests + settings.burst ? "  超出对冲预算" : "");
+            } finally {
+                hedger.close();
+            }
+        }
+    }
+
+    private static LatencyHistogram run(OcrHedger hedger, EncodedImage image, int clients, long durationMs)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread t = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        hedger.recognize(image, 5000);
+                        latency.recordNanos(System.nanoTime() - start);
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        return latency;
+    }
+}
@@ -0,0 +1,52 @@
+package com.blindassist.server.vision;
+
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地桩 OCR 引擎：返回示例文本，按带长尾的分布模拟耗时，仅供 OcrHedgingBenchmark 评估对冲参数，不注册到服务中。
+ * 耗时模型：latencyMs 上下浮动 jitter 比例；以 tailProbability 的概率改为 tailMs（模拟模型服务偶发的慢请求）。
+ */
+public class StubOcrEngine implements OcrEngine {
+
+    private final String name;
+    private final double latencyMs;
+    private final double jitter;
+    private final double tailProbability;
+    private final double tailMs;
+
+    public StubOcrEngine(String name, double latencyMs, double jitter, double tailProbability, double tailMs) {
+        this.name = name;
+        this.latencyMs = latencyMs;
+        this.jitter = jitter;
+        this.tailProbability = tailProbability;
+        this.tailMs = tailMs;
+    }
+
+    @Override
+    public String recognize(EncodedImage image) throws IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        double ms = random.nextDouble() < tailProbability
+                ? tailMs
+                : latencyMs * (1 + jitter * (2 * random.nextDouble() - 1));
+        long deadline = System.nanoTime() + (long) (ms * TimeUnit.MILLISECONDS.toNanos(1));
+        // parkNanos 可能提前返回，按截止时间补足
+        for (long remaining; (remaining = deadline - System.nanoTime()) > 0; ) {
+            LockSupport.parkNanos(remaining);
+            if (Thread.interrupted()) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("OCR 调用被取消");
+            }
+        }
+        return StubVisionBackend.OCR_TEXT;
+    }
+
+    @Override
+    public String name() {
+        return name + "(" + latencyMs + "ms, " + tailProbability * 100 + "% " + tailMs + "ms)";
+    }
+}
@@ -0,0 +1,68 @@
+package com.blindassist.server.vision;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 本地桩后端：不识别图像内容，返回示例文本，但按批大小模拟模型服务的耗时，
+ * 用于在没有真实模型时联调与评估批处理参数。
+ * 耗时模型：每批 overheadMs + perImageMs * 批大小，同时最多 concurrency 批在执行（模拟 GPU 数量），
+ * 超出的调用排队等待。固定开销远大于单张图像的边际开销时，批处理才有收益。
+ */
+public class StubVisionBackend implements VisionBackend {
+
+    static final String OCR_TEXT = "示例：检测到包装盒上有“用法用量：每日三次，每次一片”的文字。";
+    static final String SCENE_TEXT = "示例场景描述：您面前是一条人行道，左侧有几棵树，右侧是一排商店，前方大约十米处有一个路口。";
+
+    private final double overheadMs;
+    private final double perImageMs;
+    private final int concurrency;
+    private final Semaphore slots;
+
+    public StubVisionBackend(double overheadMs, double perImageMs, int concurrency) {
+        this.overheadMs = overheadMs;
+        this.perImageMs = perImageMs;
+        this.concurrency = concurrency;
+        this.slots = new Semaphore(concurrency, true);
+    }
+
+    @Override
+    public List<String> analyze(VisionTask task, List<EncodedImage> images) throws IOException {
+        try {
+            slots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("等待模型服务时被中断");
+        }
+        try {
+            long deadline = System.nanoTime()
+                    + (long) ((overheadMs + perImageMs * images.size()) * TimeUnit.MILLISECONDS.toNanos(1));
+            // parkNanos 可能提前返回，按截止时间补足
+            for (long remaining; (remaining = deadline - System.nanoTime()) > 0; ) {
+                LockSupport.parkNanos(remaining);
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("模型调用被中断");
+                }
+            }
+        } finally {
+            slots.release();
+        }
+        String text = task == VisionTask.OCR ? OCR_TEXT : SCENE_TEXT;
+        List<String> results = new ArrayList<>(images.size());
+        for (int i = 0; i < images.size(); i++) {
+            results.add(text);
+        }
+        return results;
+    }
+
+    @Override
+    public String name() {
+        return "stub(" + overheadMs + "ms+" + perImageMs + "ms/img x" + concurrency + ")";
+    }
+}
@@ -0,0 +1,23 @@
+package com.blindassist.server.vision;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 视觉模型后端 SPI（OCR 引擎、多模态大模型等）：一次调用处理一批同类任务的图像。
+ * 由 {@link VisionBatcher} 的调用线程并发调用，实现必须线程安全。
+ */
+public interface VisionBackend {
+
+    /**
+     * @param images 按后端输入尺寸缩放后的编码图像，实现只读不写
+     * @return 与 images 一一对应的结果文本
+     * @throws IOException 整批失败，批内所有请求都按失败处理
+     */
+    List<String> analyze(VisionTask task, List<EncodedImage> images) throws IOException;
+
+    /**
+     * 实现名称，用于日志与基准测试输出
+     */
+    String name();
+}
@@ -0,0 +1,95 @@
+package com.blindassist.server.vision;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 视觉识别配置：模型后端实现、微批处理参数与 OCR 引擎对冲参数
+ */
+@Configuration
+public class VisionBackendConfig {
+
+    private static final String ENGINE_BEAN_SUFFIX = "OcrEngine";
+
+    @Bean
+    public VisionBackend visionBackend(@Value("${vision.backend:stub}") String backend,
+                                       @Value("${vision.stub.overhead-ms:60}") double overheadMs,
+                                       @Value("${vision.stub.per-image-ms:6}") double perImageMs,
+                                       @Value("${vision.stub.concurrency:2}") int concurrency) {
+        if (!"stub".equals(backend)) {
+            throw new IllegalArgumentException("不支持的视觉后端: " + backend);
+        }
+        return new StubVisionBackend(overheadMs, perImageMs, concurrency);
+    }
+
+    @Bean(destroyMethod = "close")
+    public VisionBatcher visionBatcher(VisionBackend backend,
+                                       @Value("${vision.batch.window-ms:10}") long windowMs,
+                                       @Value("${vision.batch.max-size:8}") int maxBatchSize,
+                                       @Value("${vision.batch.queue-capacity:64}") int queueCapacity,
+                                       @Value("${vision.batch.max-in-flight:2}") int maxInFlightBatches) {
+        VisionBatcher.Settings settings = new VisionBatcher.Settings();
+        settings.windowMs = windowMs;
+        settings.maxBatchSize = maxBatchSize;
+        settings.queueCapacity = queueCapacity;
+        settings.maxInFlightBatches = maxInFlightBatches;
+        System.out.println("视觉后端: " + backend.name() + "，批处理窗口 " + windowMs + "ms，批大小上限 " + maxBatchSize);
+        return new VisionBatcher(backend, settings);
+    }
+
+    /**
+     * 内置的 OCR 引擎：经微批处理调用的视觉模型后端，在 vision.ocr.engines 中的名称为 backend
+     */
+    @Bean
+    public OcrEngine backendOcrEngine(VisionBatcher batcher) {
+        return new BatchedOcrEngine(batcher);
+    }
+
+    /**
+     * OCR 引擎按 vision.ocr.engines 的顺序注册，第一个为主引擎，只注册一个引擎时不对冲。
+     * 名称 x 对应名为 xOcrEngine 的 OcrEngine bean：接入其他 OCR 服务时把实现声明为这样的 bean 再加入列表，
+     * 各名称必须对应互不相同的服务，同一个引擎列两次只会把请求重复发给同一个后端，启动时拒绝。
+     * 桩引擎（StubOcrEngine）返回示例文本，只用于基准测试，不声明为 bean
+     */
+    @Bean(destroyMethod = "close")
+    public OcrHedger ocrHedger(Map<String, OcrEngine> engineBeans,
+                               @Value("${vision.ocr.engines:backend}") List<String> engineNames,
+                               @Value("${vision.ocr.hedge.initial-delay-ms:200}") long initialHedgeDelayMs,
+                               @Value("${vision.ocr.hedge.latency-window:128}") int latencyWindow,
+                               @Value("${vision.ocr.hedge.min-samples:20}") int minSamples,
+                               @Value("${vision.ocr.hedge.max-ratio:0.1}") double maxHedgeRatio,
+                               @Value("${vision.ocr.hedge.burst:5}") double burst) {
+        List<OcrEngine> engines = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String name : engineNames) {
+            String key = name.trim();
+            OcrEngine engine = engineBeans.get(key + ENGINE_BEAN_SUFFIX);
+            if (engine == null) {
+                throw new IllegalArgumentException("不支持的 OCR 引擎: " + key + "，可用: " + engineBeans.keySet().stream()
+                        .filter(bean -> bean.endsWith(ENGINE_BEAN_SUFFIX))
+                        .map(bean -> bean.substring(0, bean.length() - ENGINE_BEAN_SUFFIX.length()))
+                        .toList());
+            }
+            if (!seen.add(key)) {
+                throw new IllegalArgumentException("OCR 引擎重复注册: " + key);
+            }
+            engines.add(engine);
+        }
+        OcrHedger.Settings settings = new OcrHedger.Settings();
+        settings.initialHedgeDelayMs = initialHedgeDelayMs;
+        settings.latencyWindow = latencyWindow;
+        settings.minSamples = minSamples;
+        settings.maxHedgeRatio = maxHedgeRatio;
+        settings.burst = burst;
+        System.out.println("OCR 引擎: " + engines.stream().map(OcrEngine::name).toList()
+                + "，对冲比例上限 " + maxHedgeRatio);
+        return new OcrHedger(engines, settings);
+    }
+}
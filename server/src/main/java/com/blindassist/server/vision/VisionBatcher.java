@@ -0,0 +1,234 @@
+package com.blindassist.server.vision;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 视觉模型调用的微批处理调度器：位于 VisionService 与 {@link VisionBackend} 之间，
+ * 把短时间内到达的同类请求合并成一次批量调用，再把结果分发回各个等待的请求。
+ * - 每种任务一条独立的队列与收集线程，OCR 与场景描述不会混在同一批
+ * - 收集线程先占用一个在途批次名额，再取队首请求，之后继续收集到窗口结束（自队首请求入队起算）
+ *   或达到批大小上限；后端繁忙时请求在队列中累积，名额空出后立即成批发出
+ * - 批量调用在独立的线程上执行，同时最多 maxInFlightBatches 批，收集不被后端调用阻塞
+ * - 队列已满时 submit 直接返回失败的 future，由调用方提示用户稍后再试
+ * - 调用方超时或被中断时取消 future：排队中的请求随即移出队列，收集时同样跳过已取消的请求，不再把它们的图像交给后端
+ */
+public class VisionBatcher {
+
+    /**
+     * 批处理参数
+     */
+    public static class Settings {
+        // 自队首请求入队起最多等待多久凑批（毫秒），0 表示只合并已在排队的请求
+        public long windowMs = 10;
+        // 单批最多几张图像，1 表示不合并
+        public int maxBatchSize = 8;
+        // 每种任务最多排队的请求数
+        public int queueCapacity = 64;
+        // 每种任务同时在途的批次上限
+        public int maxInFlightBatches = 2;
+    }
+
+    private static final class Pending {
+        final EncodedImage image;
+        final long enqueuedAtNanos;
+        final CompletableFuture<String> result = new CompletableFuture<>();
+
+        Pending(EncodedImage image, long enqueuedAtNanos) {
+            this.image = image;
+            this.enqueuedAtNanos = enqueuedAtNanos;
+        }
+    }
+
+    /**
+     * 单种任务的队列、收集线程与批次计数
+     */
+    private final class Lane {
+        final VisionTask task;
+        final BlockingQueue<Pending> queue;
+        final Semaphore inFlight;
+        final Thread collector;
+        final AtomicLong batches = new AtomicLong();
+        final AtomicLong items = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        Lane(VisionTask task) {
+            this.task = task;
+            this.queue = new ArrayBlockingQueue<>(settings.queueCapacity);
+            this.inFlight = new Semaphore(settings.maxInFlightBatches);
+            this.collector = new Thread(this::collectLoop, "vision-batcher-" + task.endpoint());
+            collector.setDaemon(true);
+        }
+
+        private void collectLoop() {
+            long windowNanos = TimeUnit.MILLISECONDS.toNanos(settings.windowMs);
+            try {
+                while (running) {
+                    inFlight.acquire();
+                    Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                    if (first == null || first.result.isDone()) {
+                        inFlight.release();
+                        continue;
+                    }
+                    List<Pending> batch = new ArrayList<>(settings.maxBatchSize);
+                    batch.add(first);
+                    long deadline = first.enqueuedAtNanos + windowNanos;
+                    while (batch.size() < settings.maxBatchSize) {
+                        long wait = deadline - System.nanoTime();
+                        Pending next = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        if (!next.result.isDone()) {
+                            batch.add(next);
+                        }
+                    }
+                    dispatch(batch);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            // 停止后仍在排队的请求不会再被处理
+            for (Pending pending; (pending = queue.poll()) != null; ) {
+                pending.result.completeExceptionally(new RejectedExecutionException("视觉批处理已停止"));
+            }
+        }
+
+        private void dispatch(List<Pending> batch) {
+            try {
+                callers.execute(() -> call(batch));
+            } catch (RejectedExecutionException e) {
+                inFlight.release();
+                for (Pending pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+            }
+        }
+
+        private void call(List<Pending> batch) {
+            try {
+                List<EncodedImage> images = new ArrayList<>(batch.size());
+                for (Pending pending : batch) {
+                    images.add(pending.image);
+                }
+                List<String> results = backend.analyze(task, images);
+                if (results.size() != batch.size()) {
+                    throw new IllegalStateException("后端返回 " + results.size() + " 个结果，批大小为 " + batch.size());
+                }
+                batches.incrementAndGet();
+                items.addAndGet(batch.size());
+                for (int i = 0; i < batch.size(); i++) {
+                    batch.get(i).result.complete(results.get(i));
+                }
+            } catch (Exception e) {
+                System.err.println("视觉后端调用失败(" + task.endpoint() + ", " + batch.size() + " 张): " + e.getMessage());
+                for (Pending pending : batch) {
+                    pending.result.completeExceptionally(e);
+                }
+            } finally {
+                inFlight.release();
+            }
+        }
+    }
+
+    private final VisionBackend backend;
+    private final Settings settings;
+    private final Map<VisionTask, Lane> lanes = new EnumMap<>(VisionTask.class);
+    private final ExecutorService callers;
+    private volatile boolean running = true;
+
+    public VisionBatcher(VisionBackend backend, Settings settings) {
+        this.backend = backend;
+        this.settings = settings;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.callers = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "vision-backend-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (VisionTask task : VisionTask.values()) {
+            Lane lane = new Lane(task);
+            lanes.put(task, lane);
+            lane.collector.start();
+        }
+    }
+
+    /**
+     * 排队等待成批识别，不阻塞调用线程
+     *
+     * @param image 按后端输入尺寸缩放后的编码图像，提交后不得再修改
+     * @return 识别结果；队列已满、后端失败或调度器已停止时异常完成
+     */
+    public CompletableFuture<String> submit(VisionTask task, EncodedImage image) {
+        Lane lane = lanes.get(task);
+        Pending pending = new Pending(image, System.nanoTime());
+        if (!running || !lane.queue.offer(pending)) {
+            lane.rejected.incrementAndGet();
+            pending.result.completeExceptionally(new RejectedExecutionException(task.endpoint() + " 识别队列已满"));
+            return pending.result;
+        }
+        // 后端繁忙时收集线程可能迟迟不取队列，取消时立即移出，释放排队名额与图像
+        pending.result.whenComplete((text, error) -> {
+            if (pending.result.isCancelled()) {
+                lane.queue.remove(pending);
+            }
+        });
+        return pending.result;
+    }
+
+    public String backendName() {
+        return backend.name();
+    }
+
+    /**
+     * @return 已完成的批次数
+     */
+    public long getBatches(VisionTask task) {
+        return lanes.get(task).batches.get();
+    }
+
+    /**
+     * @return 已完成批次中的图像总数
+     */
+    public long getItems(VisionTask task) {
+        return lanes.get(task).items.get();
+    }
+
+    public long getRejected(VisionTask task) {
+        return lanes.get(task).rejected.get();
+    }
+
+    public int getQueueDepth(VisionTask task) {
+        return lanes.get(task).queue.size();
+    }
+
+    /**
+     * 停止收集，排队中的请求以失败结束；已发出的批次继续执行到完成
+     */
+    public void close() {
+        running = false;
+        for (Lane lane : lanes.values()) {
+            lane.collector.interrupt();
+        }
+        for (Lane lane : lanes.values()) {
+            try {
+                lane.collector.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        callers.shutdown();
+    }
+}
@@ -0,0 +1,88 @@
+package com.blindassist.server.vision;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.metrics.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 微批处理基准测试：以桩后端的耗时模型，在不同并发客户端数下对比不合并（批大小 1）与不同凑批窗口的
+ * 吞吐、端到端延迟和平均批大小，用于权衡窗口带来的额外延迟与吞吐收益。
+ * 每个客户端串行发送请求（闭环），收到结果后立即发下一个。
+ * 用法：java -cp blindassist-server.jar com.blindassist.server.vision.VisionBatcherBenchmark
+ * [每组秒数] [固定开销ms] [单张开销ms] [后端并发数]
+ */
+public class VisionBatcherBenchmark {
+
+    private static final int[] CLIENTS = {1, 8, 32};
+    // {窗口 ms, 批大小上限}
+    private static final long[][] CONFIGS = {{0, 1}, {0, 8}, {2, 8}, {5, 8}, {10, 8}, {20, 8}};
+
+    public static void main(String[] args) throws InterruptedException {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 3;
+        double overheadMs = args.length > 1 ? Double.parseDouble(args[1]) : 60;
+        double perImageMs = args.length > 2 ? Double.parseDouble(args[2]) : 6;
+        int concurrency = args.length > 3 ? Integer.parseInt(args[3]) : 2;
+        StubVisionBackend backend = new StubVisionBackend(overheadMs, perImageMs, concurrency);
+        // 桩后端不读取图像内容，只需一个与典型手机照片大小相当的缓冲
+        EncodedImage image = new EncodedImage(new byte[1 << 20]);
+
+        System.out.printf("%-8s %-14s %10s %10s %10s %10s %8s%n",
+                "clients", "batching", "req/s", "mean ms", "p50 ms", "p99 ms", "batch");
+        for (int clients : CLIENTS) {
+            for (long[] config : CONFIGS) {
+                VisionBatcher.Settings settings = new VisionBatcher.Settings();
+                settings.windowMs = config[0];
+                settings.maxBatchSize = (int) config[1];
+                settings.queueCapacity = Math.max(64, clients);
+                settings.maxInFlightBatches = concurrency;
+                VisionBatcher batcher = new VisionBatcher(backend, settings);
+                try {
+                    // 预热一秒，再正式计时
+                    run(batcher, image, clients, 1000);
+                    long batchesBefore = batcher.getBatches(VisionTask.OCR);
+                    long itemsBefore = batcher.getItems(VisionTask.OCR);
+                    LatencyHistogram latency = run(batcher, image, clients, seconds * 1000);
+                    LatencySummary summary = latency.summary();
+                    long batches = batcher.getBatches(VisionTask.OCR) - batchesBefore;
+                    long items = batcher.getItems(VisionTask.OCR) - itemsBefore;
+                    String batching = config[1] == 1 ? "off" : "window " + config[0] + "ms";
+                    System.out.printf("%-8d %-14s %10.1f %10.1f %10.1f %10.1f %8.2f%n",
+                            clients, batching, summary.getCount() * 1000.0 / (seconds * 1000),
+                            summary.getMeanMs(), summary.getP50Ms(), summary.getP99Ms(),
+                            batches == 0 ? 0 : (double) items / batches);
+                } finally {
+                    batcher.close();
+                }
+            }
+        }
+    }
+
+    private static LatencyHistogram run(VisionBatcher batcher, EncodedImage image, int clients, long durationMs)
+            throws InterruptedException {
+        LatencyHistogram latency = new LatencyHistogram();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMs);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < clients; i++) {
+            Thread t = new Thread(() -> {
+                while (System.nanoTime() < deadline) {
+                    long start = System.nanoTime();
+                    try {
+                        batcher.submit(VisionTask.OCR, image).get();
+                        latency.recordNanos(System.nanoTime() - start);
+                    } catch (Exception e) {
+                        return;
+                    }
+                }
+            });
+            t.start();
+            threads.add(t);
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        return latency;
+    }
+}
@@ -0,0 +1,22 @@
+package com.blindassist.server.vision;
+
+/**
+ * 视觉识别任务类型，每种任务在批处理调度器中有独立的队列
+ */
+public enum VisionTask {
+    OCR("ocr"),
+    SCENE("scene");
+
+    private final String endpoint;
+
+    VisionTask(String endpoint) {
+        this.endpoint = endpoint;
+    }
+
+    /**
+     * 对应的接口名，用于线程名、日志与指标
+     */
+    public String endpoint() {
+        return endpoint;
+    }
+}
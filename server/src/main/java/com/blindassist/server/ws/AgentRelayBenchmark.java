@@ -0,0 +1,94 @@
+package com.blindassist.server.ws;
+
+import com.blindassist.client.JsonFieldReader;
+import com.blindassist.server.api.dto.AgentMessage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.lang.management.ManagementFactory;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Agent 文本帧中转开销：同一条带 Base64 截图的 step 消息，对比
+ * - jackson：整条消息绑定到 AgentMessage，再用 Map.of 重建并 writeValueAsString（改为原样转发之前的做法）
+ * - streaming：JsonFieldReader 流式读取 type 后原样转发（当前做法）；App 把 type 放在最前面，读到即停
+ * - streaming-last：同上，但 type 位于截图之后，需要扫描过整个截图字符串（其他客户端的最坏情况）
+ * 统计每条消息的 CPU 时间与分配字节数（单线程，ThreadMXBean），以及按 CPU 时间折算的单核吞吐。
+ * 用法：java -cp blindassist-server.jar com.blindassist.server.ws.AgentRelayBenchmark [每项毫秒数]
+ */
+public class AgentRelayBenchmark {
+
+    // 消息大小：约 75KB、375KB、1.5MB 的截图经 Base64 后
+    private static final int[] MESSAGE_BYTES = {100 * 1024, 500 * 1024, 2 * 1024 * 1024};
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    // 防止被当作死代码消除
+    private static long sink;
+
+    public static void main(String[] args) throws Exception {
+        long millis = args.length > 0 ? Long.parseLong(args[0]) : 2000;
+        System.out.printf("%-8s %-15s %10s %12s %10s%n", "message", "relay", "cpu us", "alloc KB", "MB/s");
+        for (int size : MESSAGE_BYTES) {
+            String message = stepMessage(size, true);
+            String typeLast = stepMessage(size, false);
+            measure(size, "jackson", () -> roundTrip(message), millis);
+            measure(size, "streaming", () -> passThrough(message), millis);
+            measure(size, "streaming-last", () -> passThrough(typeLast), millis);
+        }
+    }
+
+    private static String stepMessage(int bytes, boolean typeFirst) {
+        String prefix = typeFirst ? "{\"type\":\"step\",\"screenshot\":\"" : "{\"screenshot\":\"";
+        String suffix = typeFirst ? "\",\"screen_info\":\"Step Screen\"}" : "\",\"screen_info\":\"Step Screen\",\"type\":\"step\"}";
+        int base64Chars = bytes - prefix.length() - suffix.length();
+        byte[] jpeg = new byte[base64Chars / 4 * 3];
+        new Random(bytes).nextBytes(jpeg);
+        return prefix + Base64.getEncoder().encodeToString(jpeg) + suffix;
+    }
+
+    private static int roundTrip(String payload) throws Exception {
+        AgentMessage msg = JSON.readValue(payload, AgentMessage.class);
+        Map<String, Object> stepPayload = Map.of(
+                "type", msg.getType(),
+                "screenshot", msg.getScreenshot(),
+                "screen_info", msg.getScreenInfo() != null ? msg.getScreenInfo() : ""
+        );
+        return JSON.writeValueAsString(stepPayload).length();
+    }
+
+    private static int passThrough(String payload) {
+        if (!"step".equals(JsonFieldReader.readString(payload, "type"))) {
+            throw new IllegalStateException();
+        }
+        return payload.length();
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        int run() throws Exception;
+    }
+
+    private static void measure(int size, String relay, Op op, long millis) throws Exception {
+        for (long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis / 2); System.nanoTime() < end; ) {
+            sink += op.run();
+        }
+        long thread = Thread.currentThread().getId();
+        long cpuBefore = THREADS.getCurrentThreadCpuTime();
+        long allocatedBefore = THREADS.getThreadAllocatedBytes(thread);
+        long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        long count = 0;
+        while (System.nanoTime() < end) {
+            sink += op.run();
+            count++;
+        }
+        double cpuMicros = (THREADS.getCurrentThreadCpuTime() - cpuBefore) / 1000.0 / count;
+        double allocatedKb = (THREADS.getThreadAllocatedBytes(thread) - allocatedBefore) / 1024.0 / count;
+        System.out.printf("%-8s %-15s %10.1f %12.1f %10.0f%n",
+                size / 1024 + "KB", relay, cpuMicros, allocatedKb, size / 1048576.0 / (cpuMicros / 1e6));
+    }
+}
@@ -20,7 +20,7 @@ public class AgentWebSocketConfig implements WebSocketConfigurer {
 
     @Override
     public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
-        // App 将连接 ws://YOUR_IP:8080/ws/agent
+        // App 将连接 ws://YOUR_IP:8080/ws/agent，同一端点接受 JSON 文本帧与二进制截图帧
         registry.addHandler(agentHandler, "/ws/agent").setAllowedOrigins("*");
     }
 
@@ -29,7 +29,7 @@ public class AgentWebSocketConfig implements WebSocketConfigurer {
         ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
         // 设置文本缓冲区大小 (例如 10MB)，足够容纳 Base64 图片
         container.setMaxTextMessageBufferSize(10 * 1024 * 1024);
-        // 设置二进制缓冲区大小
+        // 设置二进制缓冲区大小，二进制模式下直接承载原始 JPEG
         container.setMaxBinaryMessageBufferSize(10 * 1024 * 1024);
         return container;
     }
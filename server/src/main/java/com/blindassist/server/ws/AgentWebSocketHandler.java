@@ -1,22 +1,33 @@
 package com.blindassist.server.ws;
 
-import com.blindassist.server.api.dto.AgentMessage;
+import com.blindassist.client.AgentBinaryFrame;
+import com.blindassist.client.JsonFieldReader;
 import com.blindassist.server.service.AgentService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.TextWebSocketHandler;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
 
+import java.nio.ByteBuffer;
+
+/**
+ * Agent 通道 Handler，同时支持两种帧格式：
+ * - 文本帧：旧版 JSON 协议，截图为 Base64 字符串；仅流式读取 type 字段，整条消息原样转发
+ * - 二进制帧：见 AgentBinaryFrame，只解析小头部，JPEG 字节原样转发给 Python
+ * 心跳控制帧由 ControlFrames 按前缀识别并立即回复；断线重连的 App 以 resume 消息恢复原会话。
+ */
 @Component
-public class AgentWebSocketHandler extends TextWebSocketHandler {
+public class AgentWebSocketHandler extends AbstractWebSocketHandler {
 
     private final AgentService agentService;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ControlFrames controlFrames;
 
-    public AgentWebSocketHandler(AgentService agentService) {
+    public AgentWebSocketHandler(AgentService agentService, ControlFrames controlFrames) {
         this.agentService = agentService;
+        this.controlFrames = controlFrames;
     }
 
     @Override
@@ -26,18 +37,45 @@ public class AgentWebSocketHandler extends TextWebSocketHandler {
 
     @Override
     protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
-        // 1. 解析 App 发来的 JSON
-        AgentMessage msg = objectMapper.readValue(message.getPayload(), AgentMessage.class);
+        // 0. 心跳等控制帧走前缀快速通道，立即回复
+        String payload = message.getPayload();
+        if (controlFrames.handle(payload, reply -> agentService.sendControlToApp(session, reply))) {
+            return;
+        }
+
+        // 1. 只流式读取路由字段 type，截图字段不做反序列化
+        String type = JsonFieldReader.readString(payload, "type");
+        String sessionId = session.getId();
+
+        // 2. 根据类型调度给 Service，原始消息原样转发
+        if ("init".equals(type)) {
+            agentService.startTask(sessionId, session, payload);
+        } else if ("step".equals(type)) {
+            agentService.processStep(sessionId, payload);
+        } else if ("resume".equals(type)) {
+            agentService.resumeTask(session, JsonFieldReader.readString(payload, "resume_token"));
+        }
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
+        // 只读取头部用于路由，整帧交给 Service 转发
+        ByteBuffer frame = message.getPayload();
+        String type = JsonFieldReader.readString(AgentBinaryFrame.readHeader(frame), "type");
         String sessionId = session.getId();
 
-        // 2. 根据类型调度给 Service
-        if ("init".equals(msg.getType())) {
-            agentService.startTask(sessionId, session, msg.getTask(), msg.getScreenshot(), msg.getScreenInfo());
-        } else if ("step".equals(msg.getType())) {
-            agentService.processStep(sessionId, msg.getScreenshot(), msg.getScreenInfo());
+        if ("init".equals(type)) {
+            agentService.startTask(sessionId, session, frame);
+        } else if ("step".equals(type)) {
+            agentService.processStep(sessionId, frame);
         }
     }
 
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) throws Exception {
+        controlFrames.onPong(ControlFrames.AGENT, session, message);
+    }
+
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         agentService.cleanup(session.getId());
@@ -48,5 +86,6 @@ public class AgentWebSocketHandler extends TextWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         System.out.println("App 断开 Agent 通道: " + session.getId());
         agentService.cleanup(session.getId());
+        controlFrames.remove(session.getId());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.blindassist.server.ws;
+
+import com.blindassist.server.api.dto.LatencySummary;
+import com.blindassist.server.metrics.LatencyHistogram;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.PingMessage;
+import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Agent / 避障通道共用的控制帧快速通道：
+ * - 仅凭前缀识别 {"type":"heartbeat"|"ping"|"pong", ...}，不做 JSON 解析
+ * - heartbeat / ping 立即回复 {"type":"pong", ...}，原样回显其余字段（如 timestamp）
+ * - 同时发送一个 WebSocket Ping（负载为发送时刻），由 Pong 计算每个会话的 RTT
+ */
+@Component
+public class ControlFrames {
+
+    public static final String AGENT = "agent";
+    public static final String OBSTACLE = "obstacle";
+
+    private static final String HEARTBEAT_PREFIX = "{\"type\":\"heartbeat\"";
+    private static final String PING_PREFIX = "{\"type\":\"ping\"";
+    private static final String PONG_PREFIX = "{\"type\":\"pong\"";
+
+    private final Map<String, LatencyHistogram> sessionRtt = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> channelRtt = new ConcurrentHashMap<>();
+
+    /**
+     * @param sender 发往该连接的写入方式，需与通道的其它写入串行
+     * @return 是否为控制帧；是则已处理完毕，调用方直接返回
+     */
+    public boolean handle(String payload, Consumer<WebSocketMessage<?>> sender) {
+        String prefix;
+        if (payload.startsWith(HEARTBEAT_PREFIX)) {
+            prefix = HEARTBEAT_PREFIX;
+        } else if (payload.startsWith(PING_PREFIX)) {
+            prefix = PING_PREFIX;
+        } else {
+            // 客户端回复的 pong 无需处理，RTT 以 WebSocket Pong 为准
+            return payload.startsWith(PONG_PREFIX);
+        }
+        sender.accept(new TextMessage(PONG_PREFIX + payload.substring(prefix.length())));
+        sender.accept(new PingMessage(ByteBuffer.allocate(Long.BYTES).putLong(0, System.nanoTime())));
+        return true;
+    }
+
+    /**
+     * 收到客户端对 Ping 的自动回复，记录往返时延
+     */
+    public void onPong(String channel, WebSocketSession session, PongMessage message) {
+        ByteBuffer payload = message.getPayload();
+        if (payload.remaining() != Long.BYTES) {
+            return;
+        }
+        long rttNanos = System.nanoTime() - payload.getLong(payload.position());
+        sessionRtt.computeIfAbsent(session.getId(), id -> new LatencyHistogram()).recordNanos(rttNanos);
+        channelRtt.computeIfAbsent(channel, c -> new LatencyHistogram()).recordNanos(rttNanos);
+    }
+
+    public void remove(String sessionId) {
+        sessionRtt.remove(sessionId);
+    }
+
+    /**
+     * @return 该会话的 RTT 分布，尚无样本时返回 null
+     */
+    public LatencySummary sessionRtt(String sessionId) {
+        LatencyHistogram histogram = sessionRtt.get(sessionId);
+        return histogram != null ? histogram.summary() : null;
+    }
+
+    /**
+     * @return 各通道汇总的 RTT 分布
+     */
+    public Map<String, LatencySummary> channelRtt() {
+        Map<String, LatencySummary> result = new LinkedHashMap<>();
+        channelRtt.forEach((channel, histogram) -> result.put(channel, histogram.summary()));
+        return result;
+    }
+}
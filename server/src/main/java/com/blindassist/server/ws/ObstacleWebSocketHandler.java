@@ -1,61 +1,93 @@
 package com.blindassist.server.ws;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.blindassist.server.obstacle.FrameRecorder;
+import com.blindassist.server.service.ObstacleService;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.PongMessage;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
-import org.springframework.web.socket.handler.BinaryWebSocketHandler;
-
-import java.io.IOException;
-import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
 
 /**
  * 避障 WebSocket Handler：
- * - 客户端发送二进制图像帧
- * - 当前示例：简单统计收到的帧数，并周期性返回“向左/向右微调”等假指令
- * - 实际项目中可在此处接入实时目标检测/分割模型，并结合导航路线生成更智能的指令
+ * - 客户端发送二进制图像帧（可带 ObstacleFrameHeader 头部），容器线程只负责投递到 ObstacleService 的会话邮箱
+ * - 帧在有界工作线程池上按会话处理，来不及处理的旧帧被最新帧替换
+ * - 每帧解码为灰度帧后经 ObstacleDetector 检测、ObstacleTracker 跨帧跟踪，障碍物出现、靠近或离开时才下发提示，
+ *   同时按处理能力下发建议的采集帧率（流程见 ObstacleService）
+ * - 文本帧仅接受心跳等控制帧（见 ControlFrames）
+ * - 开启 obstacle.recorder.enabled 时，原始帧（含头部）同时写入录制分段，供 ObstacleReplay 离线回放
+ * - 连接地址可带 ?user=<guidance id>，同一用户的导航指令与避障提示经 GuidanceService 仲裁后从该连接下发
+ * - 连接地址带 codes=1 时，避障提示以 8 字节二进制帧下发（见 ObstacleWarningCode），导航等其余消息仍为 JSON
  */
 @Component
-public class ObstacleWebSocketHandler extends BinaryWebSocketHandler {
+public class ObstacleWebSocketHandler extends AbstractWebSocketHandler {
+
+    private final ObstacleService obstacleService;
+    private final ControlFrames controlFrames;
+    private final FrameRecorder frameRecorder;
 
-    private final ObjectMapper mapper = new ObjectMapper();
-    private final AtomicInteger frameCounter = new AtomicInteger(0);
+    public ObstacleWebSocketHandler(ObstacleService obstacleService, ControlFrames controlFrames,
+                                    FrameRecorder frameRecorder) {
+        this.obstacleService = obstacleService;
+        this.controlFrames = controlFrames;
+        this.frameRecorder = frameRecorder;
+    }
 
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
-        session.sendMessage(new TextMessage("已建立避障通道，可以开始发送图像帧。"));
+        obstacleService.register(session, userId(session), "1".equals(queryParam(session, "codes")));
+    }
+
+    /**
+     * @return 连接地址中的 user 参数；未提供时以连接 id 作为用户标识
+     */
+    private static String userId(WebSocketSession session) {
+        String user = queryParam(session, "user");
+        return user != null && !user.isBlank() ? user : session.getId();
+    }
+
+    private static String queryParam(WebSocketSession session, String name) {
+        if (session.getUri() == null) {
+            return null;
+        }
+        return UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst(name);
     }
 
     @Override
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws Exception {
-        int count = frameCounter.incrementAndGet();
-        byte[] payload = message.getPayload().array();
-        // TODO: 在此解析图像字节，调用视觉模型
+        frameRecorder.record(session.getId(), message.getPayload());
+        try {
+            obstacleService.submitFrame(session.getId(), message.getPayload());
+        } catch (IllegalArgumentException e) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason(e.getMessage()));
+        }
+    }
 
-        // 示例：每收到 10 帧，返回一条“假装”的避障指令
-        if (count % 10 == 0) {
-            sendFakeInstruction(session, count, payload.length);
+    @Override
+    protected void handleTextMessage(WebSocketSession session, TextMessage message) throws Exception {
+        boolean handled = controlFrames.handle(message.getPayload(),
+                reply -> obstacleService.sendControl(session.getId(), reply));
+        if (!handled) {
+            session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Text messages not supported"));
         }
     }
 
-    private void sendFakeInstruction(WebSocketSession session, int frameCount, int bytes) throws IOException {
-        String direction = (frameCount / 10) % 2 == 0 ? "left" : "right";
-        Map<String, Object> instruction = Map.of(
-                "type", "warning",
-                "direction", direction,
-                "distance", 1.5,
-                "message", "示例：请稍微向" + ("left".equals(direction) ? "左" : "右") + "侧偏一点，前方有障碍物。"
-        );
-        session.sendMessage(new TextMessage(mapper.writeValueAsString(instruction)));
+    @Override
+    protected void handlePongMessage(WebSocketSession session, PongMessage message) throws Exception {
+        controlFrames.onPong(ControlFrames.OBSTACLE, session, message);
     }
 
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
         session.close(CloseStatus.SERVER_ERROR);
     }
-}
-
 
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
+        obstacleService.unregister(session.getId());
+        controlFrames.remove(session.getId());
+    }
+}